@@ -0,0 +1,16 @@
+package com.upgrad.quora.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Launches the reactive API: the listing endpoints of {@code question.json} and {@code answer.json} served by WebFlux
+ * on Undertow and read from Postgres through R2DBC, so that a few event loop threads handle all the connections.
+ * It runs alongside the servlet {@code quora-api} on the same database and under the same contracts.
+ */
+@SpringBootApplication
+public class QuoraReactiveApiApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(QuoraReactiveApiApplication.class, args);
+    }
+}
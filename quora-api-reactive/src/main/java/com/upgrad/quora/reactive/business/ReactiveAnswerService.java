@@ -0,0 +1,23 @@
+package com.upgrad.quora.reactive.business;
+
+import com.upgrad.quora.reactive.repository.AnswerRepository;
+import com.upgrad.quora.reactive.repository.AnswerRow;
+import com.upgrad.quora.reactive.repository.QuestionRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+public class ReactiveAnswerService {
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    /**
+     * @param question - question, fetched with {@link ReactiveQuestionService#getQuestion} which authorizes the user
+     * @return the answers to the question
+     */
+    public Flux<AnswerRow> getAllAnswersToQuestion(final QuestionRow question) {
+        return answerRepository.findAllByQuestionId(question.getId());
+    }
+}
@@ -0,0 +1,54 @@
+package com.upgrad.quora.reactive.business;
+
+import com.upgrad.quora.reactive.repository.QuestionRepository;
+import com.upgrad.quora.reactive.repository.QuestionRow;
+import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.UserNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveQuestionService {
+
+    @Autowired
+    private ReactiveUserAuthService userAuthService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    /**
+     * @param authorization      - access token of the user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @return all the questions
+     */
+    public Flux<QuestionRow> getAllQuestions(final String authorization, final String additionalErrorMsg) {
+        return userAuthService.authorize(authorization, additionalErrorMsg)
+                .thenMany(questionRepository.findAll());
+    }
+
+    /**
+     * @param userId             - uuid of the user who posted the questions
+     * @param authorization      - access token of the user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @return the questions of the user; fails with {@link UserNotFoundException} if there are none
+     */
+    public Flux<QuestionRow> getAllQuestionsByUser(final String userId, final String authorization, final String additionalErrorMsg) {
+        return userAuthService.authorize(authorization, additionalErrorMsg)
+                .thenMany(questionRepository.findAllByUserUuid(userId))
+                .switchIfEmpty(Flux.error(new UserNotFoundException("USR-001", "User with entered uuid whose question details are to be seen does not exist")));
+    }
+
+    /**
+     * @param questionUuid       - uuid of the question
+     * @param authorization      - access token of the user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @return the question; fails with {@link InvalidQuestionException} if it does not exist
+     */
+    public Mono<QuestionRow> getQuestion(final String questionUuid, final String authorization, final String additionalErrorMsg) {
+        return userAuthService.authorize(authorization, additionalErrorMsg)
+                .then(questionRepository.findByUuid(questionUuid))
+                .switchIfEmpty(Mono.error(new InvalidQuestionException("QUES-001", "Entered question uuid does not exist")));
+    }
+}
@@ -0,0 +1,32 @@
+package com.upgrad.quora.reactive.business;
+
+import com.upgrad.quora.reactive.repository.UserAuthRepository;
+import com.upgrad.quora.reactive.repository.UserAuthRow;
+import com.upgrad.quora.service.exception.AuthenticationFailedException;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveUserAuthService {
+
+    @Autowired
+    private UserAuthRepository userAuthRepository;
+
+    /**
+     * Checks that the access token belongs to a signed in user, as the business services of the servlet API do
+     *
+     * @param authorization      - access token of the user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @return the session of the user; fails with {@link AuthorizationFailedException} if the access token is
+     * unknown and with {@link AuthenticationFailedException} if the user has signed out
+     */
+    public Mono<UserAuthRow> authorize(final String authorization, final String additionalErrorMsg) {
+        return userAuthRepository.findByAccessToken(authorization)
+                .switchIfEmpty(Mono.error(new AuthorizationFailedException("ATHR-001", "User has not signed in")))
+                .flatMap(userAuth -> userAuth.getLogoutAt() != null
+                        ? Mono.error(new AuthenticationFailedException("ATHR-002", String.format("User is signed out.%s", additionalErrorMsg)))
+                        : Mono.just(userAuth));
+    }
+}
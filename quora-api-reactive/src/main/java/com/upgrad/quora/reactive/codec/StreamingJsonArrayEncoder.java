@@ -0,0 +1,69 @@
+package com.upgrad.quora.reactive.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Jackson encoder writing a {@link Flux} as a JSON array one element at a time.
+ * <p>
+ * The default encoder collects a {@code Flux} into a list before writing it as {@code application/json}, which holds
+ * the whole result set in memory and ignores the demand of the connection. This one writes {@code [}, then every
+ * element as soon as it is decoded from its row, separated by commas, then {@code ]}: elements are only requested
+ * from the database as the previous ones are written, so a slow client slows down the query rather than filling
+ * the heap. Nothing is written before the first element or the completion, so an error raised before any row,
+ * such as a failed authorization, is still turned into an error response.
+ * <p>
+ * Streaming media types such as {@code application/stream+json} and single values keep the default encoding.
+ */
+public class StreamingJsonArrayEncoder extends Jackson2JsonEncoder {
+
+    // elements written ahead of the demand of the connection
+    private static final int PREFETCH = 32;
+
+    private static final byte[] OPEN = "[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CLOSE = "]".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] EMPTY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    public StreamingJsonArrayEncoder(final ObjectMapper mapper) {
+        super(mapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(final Publisher<?> inputStream, final DataBufferFactory bufferFactory,
+                                   final ResolvableType elementType, final MimeType mimeType, final Map<String, Object> hints) {
+        if (inputStream instanceof Mono || isStreamingMediaType(mimeType)) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        final AtomicBoolean first = new AtomicBoolean(true);
+        final Flux<DataBuffer> elements = Flux.from(inputStream).concatMap(element -> {
+            final Flux<DataBuffer> value = super.encode(Mono.just(element), bufferFactory, elementType, mimeType, hints);
+            final byte[] prefix = first.compareAndSet(true, false) ? OPEN : SEPARATOR;
+            return Flux.concat(Mono.fromSupplier(() -> bufferFactory.wrap(prefix)), value);
+        }, PREFETCH);
+        return elements.concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(first.get() ? EMPTY : CLOSE)));
+    }
+
+    private boolean isStreamingMediaType(final MimeType mimeType) {
+        for (final MimeType streamingMediaType : getStreamingMediaTypes()) {
+            if (streamingMediaType.isCompatibleWith(mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.upgrad.quora.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the endpoints under {@code quora.reactive.context-path}, {@code /api} like the servlet API, which WebFlux
+ * has no server property for.
+ */
+@Component
+public class ContextPathFilter implements WebFilter {
+
+    @Value("${quora.reactive.context-path:/api}")
+    private String contextPath;
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final ServerHttpRequest request = exchange.getRequest();
+        final String path = request.getPath().value();
+        if (contextPath.isEmpty() || !request.getPath().contextPath().value().isEmpty()) {
+            return chain.filter(exchange);
+        }
+        if (!path.equals(contextPath) && !path.startsWith(contextPath + "/")) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange.mutate().request(request.mutate().contextPath(contextPath).build()).build());
+    }
+}
@@ -0,0 +1,55 @@
+package com.upgrad.quora.reactive.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Pool of R2DBC connections to the database of the servlet API.
+ */
+@Configuration
+public class R2dbcConfiguration {
+
+    @Value("${quora.r2dbc.url}")
+    private String url;
+
+    @Value("${quora.r2dbc.username}")
+    private String username;
+
+    @Value("${quora.r2dbc.password}")
+    private String password;
+
+    @Value("${quora.r2dbc.pool.initial-size:10}")
+    private int initialSize;
+
+    @Value("${quora.r2dbc.pool.max-size:20}")
+    private int maxSize;
+
+    @Value("${quora.r2dbc.pool.max-idle-time-seconds:1800}")
+    private long maxIdleTimeSeconds;
+
+    @Value("${quora.r2dbc.pool.max-acquire-time-ms:5000}")
+    private long maxAcquireTimeMillis;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        final ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("quora-r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                .maxAcquireTime(Duration.ofMillis(maxAcquireTimeMillis))
+                .build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.upgrad.quora.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.reactive.codec.StreamingJsonArrayEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Writes the JSON arrays of the listing endpoints element by element instead of collecting them first.
+ */
+@Configuration
+public class WebFluxConfiguration implements WebFluxConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void configureHttpMessageCodecs(final ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().jackson2JsonEncoder(new StreamingJsonArrayEncoder(objectMapper));
+    }
+}
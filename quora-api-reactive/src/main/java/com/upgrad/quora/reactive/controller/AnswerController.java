@@ -0,0 +1,47 @@
+package com.upgrad.quora.reactive.controller;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.reactive.business.ReactiveAnswerService;
+import com.upgrad.quora.reactive.business.ReactiveQuestionService;
+import com.upgrad.quora.reactive.repository.AnswerRow;
+import com.upgrad.quora.reactive.repository.QuestionRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Listing endpoint of {@code answer.json}, streamed like the questions.
+ */
+@RestController
+@RequestMapping("/")
+public class AnswerController {
+
+    @Autowired
+    private ReactiveQuestionService questionService;
+
+    @Autowired
+    private ReactiveAnswerService answerService;
+
+    /**
+     * @param questionId    - uuid of the question
+     * @param authorization - access token of the user
+     * @return the answers to the question
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<AnswerDetailsResponse> getAllAnswersToQuestion(@PathVariable("questionId") final String questionId,
+                                                               @RequestHeader("authorization") final String authorization) {
+        return questionService.getQuestion(questionId, authorization, "Sign in first to get the answers")
+                .flatMapMany(question -> answerService.getAllAnswersToQuestion(question)
+                        .map(answer -> toAnswerDetailsResponse(question, answer)));
+    }
+
+    private static AnswerDetailsResponse toAnswerDetailsResponse(final QuestionRow question, final AnswerRow answer) {
+        return new AnswerDetailsResponse().id(answer.getUuid()).answerContent(answer.getAnswer()).questionContent(question.getContent());
+    }
+}
@@ -0,0 +1,58 @@
+package com.upgrad.quora.reactive.controller;
+
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.reactive.business.ReactiveQuestionService;
+import com.upgrad.quora.reactive.repository.QuestionRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Listing endpoints of {@code question.json}. The questions are written as a JSON array as they are read, or as one
+ * JSON document per line when {@code application/stream+json} is accepted.
+ */
+@RestController
+@RequestMapping("/")
+public class QuestionController {
+
+    @Autowired
+    private ReactiveQuestionService questionService;
+
+    /**
+     * @param authorization - access token of the user
+     * @return all the questions
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/all",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<QuestionDetailsResponse> getAllQuestions(@RequestHeader("authorization") final String authorization) {
+        return questionService.getAllQuestions(authorization, "Sign in first to get all questions")
+                .map(QuestionController::toQuestionDetailsResponse);
+    }
+
+    /**
+     * @param userId        - uuid of the user who posted the questions
+     * @param authorization - access token of the user
+     * @return the questions posted by the user
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "question/all/{userId}",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<QuestionDetailsResponse> getAllQuestionsByUser(@PathVariable("userId") final String userId,
+                                                               @RequestHeader("authorization") final String authorization) {
+        return questionService.getAllQuestionsByUser(userId, authorization, "Sign in first to get all questions posted by a specific user")
+                .map(QuestionController::toQuestionDetailsResponse);
+    }
+
+    private static QuestionDetailsResponse toQuestionDetailsResponse(final QuestionRow question) {
+        return new QuestionDetailsResponse().id(question.getUuid()).content(question.getContent()).answerCount(question.getAnswerCount())
+                .lastAnswerAt(question.getLastAnswerAt() == null ? null
+                        : question.getLastAnswerAt().atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+    }
+}
@@ -0,0 +1,21 @@
+package com.upgrad.quora.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public class AnswerRepository {
+
+    @Autowired
+    private R2dbcQueries queries;
+
+    /**
+     * @param questionId - id of the question
+     * @return the answers to the question
+     */
+    public Flux<AnswerRow> findAllByQuestionId(final Integer questionId) {
+        return queries.query("select uuid, ans from answer where question_id = $1",
+                (row, metadata) -> new AnswerRow(row.get("uuid", String.class), row.get("ans", String.class)), questionId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.upgrad.quora.reactive.repository;
+
+/**
+ * Answer, as read from {@code answer}.
+ */
+public class AnswerRow {
+
+    private final String uuid;
+
+    private final String answer;
+
+    public AnswerRow(final String uuid, final String answer) {
+        this.uuid = uuid;
+        this.answer = answer;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+}
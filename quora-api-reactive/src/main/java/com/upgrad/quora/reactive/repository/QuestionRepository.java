@@ -0,0 +1,43 @@
+package com.upgrad.quora.reactive.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public class QuestionRepository {
+
+    @Autowired
+    private R2dbcQueries queries;
+
+    public Flux<QuestionRow> findAll() {
+        return queries.query("select id, uuid, content, answer_count, last_answer_at from question", QuestionRepository::toQuestion);
+    }
+
+    /**
+     * @param userUuid - uuid of the user who posted the questions
+     * @return the questions in the order they were posted, empty if the user does not exist or has posted none
+     */
+    public Flux<QuestionRow> findAllByUserUuid(final String userUuid) {
+        return queries.query("select q.id, q.uuid, q.content, q.answer_count, q.last_answer_at from question q join users u on u.id = q.user_id where u.uuid = $1 order by q.date, q.id",
+                QuestionRepository::toQuestion, userUuid);
+    }
+
+    /**
+     * @param uuid - uuid of the question
+     * @return the question, empty if it does not exist
+     */
+    public Mono<QuestionRow> findByUuid(final String uuid) {
+        return queries.query("select id, uuid, content, answer_count, last_answer_at from question where uuid = $1", QuestionRepository::toQuestion, uuid).next();
+    }
+
+    private static QuestionRow toQuestion(final Row row, final RowMetadata metadata) {
+        return new QuestionRow(row.get("id", Integer.class), row.get("uuid", String.class), row.get("content", String.class),
+                row.get("answer_count", Integer.class), row.get("last_answer_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,51 @@
+package com.upgrad.quora.reactive.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Question, as read from {@code question}.
+ */
+public class QuestionRow {
+
+    private final Integer id;
+
+    private final String uuid;
+
+    private final String content;
+
+    private final Integer answerCount;
+
+    private final LocalDateTime lastAnswerAt;
+
+    public QuestionRow(final Integer id, final String uuid, final String content, final Integer answerCount,
+                       final LocalDateTime lastAnswerAt) {
+        this.id = id;
+        this.uuid = uuid;
+        this.content = content;
+        this.answerCount = answerCount;
+        this.lastAnswerAt = lastAnswerAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Integer getAnswerCount() {
+        return answerCount;
+    }
+
+    /**
+     * @return date of the latest answer, null until the question is answered
+     */
+    public LocalDateTime getLastAnswerAt() {
+        return lastAnswerAt;
+    }
+}
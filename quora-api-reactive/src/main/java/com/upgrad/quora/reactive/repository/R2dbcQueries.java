@@ -0,0 +1,46 @@
+package com.upgrad.quora.reactive.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.function.BiFunction;
+
+/**
+ * Runs the queries of the repositories, each on a connection borrowed from the pool for the lifetime of the returned
+ * {@link Flux} and given back when it completes, fails or is cancelled.
+ * <p>
+ * Rows are fetched {@code quora.r2dbc.fetch-size} at a time and only as the subscriber requests them, so a result
+ * set is never held in memory as a whole and a slow subscriber throttles the query.
+ */
+@Component
+public class R2dbcQueries {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Value("${quora.r2dbc.fetch-size:100}")
+    private int fetchSize;
+
+    /**
+     * @param sql        - query, with {@code $1, $2...} placeholders
+     * @param mapper     - maps a row to the returned type
+     * @param parameters - values of the placeholders, in order
+     * @return the mapped rows
+     */
+    public <T> Flux<T> query(final String sql, final BiFunction<Row, RowMetadata, T> mapper, final Object... parameters) {
+        return Flux.usingWhen(connectionFactory.create(), connection -> {
+            final Statement statement = connection.createStatement(sql).fetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.bind(i, parameters[i]);
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.map(mapper));
+        }, Connection::close);
+    }
+}
@@ -0,0 +1,24 @@
+package com.upgrad.quora.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public class UserAuthRepository {
+
+    @Autowired
+    private R2dbcQueries queries;
+
+    /**
+     * @param accessToken - access token of the session
+     * @return the session, empty if no session has this access token
+     */
+    public Mono<UserAuthRow> findByAccessToken(final String accessToken) {
+        return queries.query("select user_id, logout_at from user_auth where access_token = $1",
+                (row, metadata) -> new UserAuthRow(row.get("user_id", Integer.class), row.get("logout_at", LocalDateTime.class)),
+                accessToken).next();
+    }
+}
@@ -0,0 +1,26 @@
+package com.upgrad.quora.reactive.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Session of a user, as read from {@code user_auth}.
+ */
+public class UserAuthRow {
+
+    private final Integer userId;
+
+    private final LocalDateTime logoutAt;
+
+    public UserAuthRow(final Integer userId, final LocalDateTime logoutAt) {
+        this.userId = userId;
+        this.logoutAt = logoutAt;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getLogoutAt() {
+        return logoutAt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.upgrad.quora.reactive.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureWebTestClient
+
+public class AnswerControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+
+    //This test case passes when you try to get all the answers posted for a specific question and the user corresponding to the JWT token entered is signed in.
+    @Test
+    public void getAllAnswersToQuestion() throws Exception {
+        client.get().uri("/api/answer/all/database_question_uuid").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("database_answer_uuid")
+                .jsonPath("$[0].questionContent").isEqualTo("database_question_content");
+    }
+
+    //This test case passes when you try to get all the answers posted for a specific question but the JWT token entered does not exist in the database.
+    @Test
+    public void getAllAnswersToQuestionWithNonExistingAccessToken() throws Exception {
+        client.get().uri("/api/answer/all/database_question_uuid").header("authorization", "non_existing_access_token")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("code").isEqualTo("ATHR-001");
+    }
+
+    //This test case passes when you try to get all the answers posted for a specific question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    public void getAllAnswersToQuestionWithSignedOutUser() throws Exception {
+        client.get().uri("/api/answer/all/database_question_uuid").header("authorization", "database_accesstoken3")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("code").isEqualTo("ATHR-002");
+    }
+
+    //This test case passes when you try to get all the answers posted for a specific question which does not exist in the database.
+    @Test
+    public void getAllAnswersToNonExistingQuestion() throws Exception {
+        client.get().uri("/api/answer/all/non_existing_question_uuid").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("code").isEqualTo("QUES-001");
+    }
+}
@@ -0,0 +1,84 @@
+package com.upgrad.quora.reactive.controller;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureWebTestClient
+
+public class QuestionControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+
+    //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void getAllQuestions() throws Exception {
+        client.get().uri("/api/question/all").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == 'database_question_uuid')].content").isEqualTo("database_question_content");
+    }
+
+    //This test case passes when you get the detail of all the questions as one JSON document per line.
+    @Test
+    public void getAllQuestionsAsStream() throws Exception {
+        client.get().uri("/api/question/all").header("authorization", "database_accesstoken1").accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_STREAM_JSON);
+    }
+
+    //This test case passes when you try to get the detail of all the questions but the JWT token entered does not exist in the database.
+    @Test
+    public void getAllQuestionsWithNonExistingAccessToken() throws Exception {
+        client.get().uri("/api/question/all").header("authorization", "non_existing_access_token")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("code").isEqualTo("ATHR-001");
+    }
+
+    //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    public void getAllQuestionsWithSignedOutUser() throws Exception {
+        client.get().uri("/api/question/all").header("authorization", "database_accesstoken3")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("code").isEqualTo("ATHR-002");
+    }
+
+    //This test case passes when you try to get all the questions posted by a specific user and the user corresponding to the JWT token entered is signed in.
+    @Test
+    public void getAllQuestionsByUser() throws Exception {
+        client.get().uri("/api/question/all/database_uuid1").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].id").isEqualTo("database_question_uuid");
+    }
+
+    //This test case passes when you try to get all the questions posted by a specific user which does not exist in the database.
+    @Test
+    public void getAllQuestionsForNonExistingUser() throws Exception {
+        client.get().uri("/api/question/all/non_existing_user_uuid").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("code").isEqualTo("USR-001");
+    }
+
+    //This test case passes when a path outside of the context path is not served.
+    @Test
+    public void getAllQuestionsOutsideContextPath() throws Exception {
+        client.get().uri("/question/all").header("authorization", "database_accesstoken1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
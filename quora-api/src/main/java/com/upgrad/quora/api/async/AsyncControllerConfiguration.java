@@ -0,0 +1,40 @@
+package com.upgrad.quora.api.async;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.mvc.method.annotation.DeferredResultMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts the {@link CompletedFutureReturnValueHandler} in front of the standard return value handlers, which would
+ * otherwise start an asynchronous dispatch for every future.
+ */
+@Configuration
+public class AsyncControllerConfiguration {
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @PostConstruct
+    public void registerCompletedFutureHandler() {
+        final List<HandlerMethodReturnValueHandler> handlers = new ArrayList<HandlerMethodReturnValueHandler>(handlerAdapter.getReturnValueHandlers());
+        HandlerMethodReturnValueHandler asyncHandler = null;
+        for (final HandlerMethodReturnValueHandler handler : handlers) {
+            if (handler instanceof DeferredResultMethodReturnValueHandler) {
+                asyncHandler = handler;
+            }
+        }
+        if (asyncHandler == null) {
+            throw new IllegalStateException("No handler for asynchronous return values registered");
+        }
+        final HandlerMethodReturnValueHandlerComposite resultHandlers = new HandlerMethodReturnValueHandlerComposite().addHandlers(handlers);
+        handlers.add(0, new CompletedFutureReturnValueHandler(asyncHandler, resultHandlers));
+        handlerAdapter.setReturnValueHandlers(handlers);
+    }
+}
@@ -0,0 +1,88 @@
+package com.upgrad.quora.api.async;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Writes the response of a controller returning a future that is already complete, as in {@code caller} mode,
+ * synchronously instead of going through an asynchronous dispatch for nothing. Futures still running are left to the
+ * standard asynchronous handling.
+ */
+class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandler asyncHandler;
+
+    private final HandlerMethodReturnValueHandlerComposite resultHandlers;
+
+    /**
+     * @param asyncHandler   - handler of the futures still running
+     * @param resultHandlers - handlers of the values of the futures
+     */
+    CompletedFutureReturnValueHandler(final HandlerMethodReturnValueHandler asyncHandler,
+                                      final HandlerMethodReturnValueHandlerComposite resultHandlers) {
+        this.asyncHandler = asyncHandler;
+        this.resultHandlers = resultHandlers;
+    }
+
+    @Override
+    public boolean supportsReturnType(final MethodParameter returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(final Object returnValue, final MethodParameter returnType, final ModelAndViewContainer mavContainer,
+                                  final NativeWebRequest webRequest) throws Exception {
+        final CompletableFuture<?> future = returnValue == null ? null : ((CompletionStage<?>) returnValue).toCompletableFuture();
+        if (future == null || !future.isDone()) {
+            asyncHandler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        final Object result;
+        try {
+            result = future.getNow(null);
+        } catch (CompletionException e) {
+            // the exception of the controller body, resolved by the exception handlers as if it had been thrown
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        resultHandlers.handleReturnValue(result, new ResultMethodParameter(returnType, result), mavContainer, webRequest);
+    }
+
+    /**
+     * The return type of the controller method seen as the type of the value of its future.
+     */
+    private static final class ResultMethodParameter extends MethodParameter {
+
+        private final Class<?> resultType;
+
+        private final Type genericResultType;
+
+        ResultMethodParameter(final MethodParameter returnType, final Object result) {
+            super(returnType);
+            final ResolvableType futureValueType = ResolvableType.forMethodParameter(returnType).getGeneric();
+            this.genericResultType = futureValueType.getType();
+            this.resultType = result != null ? result.getClass() : futureValueType.resolve(Object.class);
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultType;
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return genericResultType;
+        }
+    }
+}
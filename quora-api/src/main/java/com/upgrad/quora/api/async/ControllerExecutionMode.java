@@ -0,0 +1,23 @@
+package com.upgrad.quora.api.async;
+
+/**
+ * Where the controller methods run, set with {@code quora.controller.execution.mode}.
+ */
+public enum ControllerExecutionMode {
+
+    /**
+     * On the Tomcat worker thread serving the request, which stays blocked for the whole request.
+     */
+    CALLER,
+
+    /**
+     * On a new virtual thread per request, the Tomcat worker being released as soon as the request is handed over.
+     * Falls back to {@link #BOUNDED} on JVMs without virtual threads.
+     */
+    VIRTUAL,
+
+    /**
+     * On a bounded pool of platform threads, the Tomcat worker being released as soon as the request is handed over.
+     */
+    BOUNDED
+}
@@ -0,0 +1,174 @@
+package com.upgrad.quora.api.async;
+
+import com.upgrad.quora.service.datasource.RoutingContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the bodies of the controller methods according to the {@link ControllerExecutionMode}.
+ * <p>
+ * In {@code caller} mode the body runs right away on the Tomcat worker and the returned future is already complete,
+ * which {@link CompletedFutureReturnValueHandler} writes out synchronously. In the other modes the body runs on a
+ * virtual or pooled thread and the request is completed asynchronously, so the number of requests in flight is no
+ * longer capped by the Tomcat thread pool but by the connection pools and the concurrency limiter.
+ * <p>
+ * The worker thread gets the same request scope as the Tomcat thread would have. It gets a routing scope, which is
+ * pinned to the primary when the request was already pinned on the Tomcat thread, so that the request still reads its
+ * own writes. With {@code spring.jpa.open-in-view} it also gets an entity manager spanning the whole body, so that the
+ * entities returned by the services stay managed and lazy associations can still be loaded. Any other state of the
+ * Tomcat thread is carried over by the {@link TaskDecorator} bean, if one is defined.
+ * <p>
+ * A virtual thread blocked in JDBC while holding a monitor pins its carrier thread. The DAOs only block inside the
+ * Postgres driver, which guards its connection with locks rather than monitors, so no DAO call pins a carrier.
+ */
+@Component
+public class ControllerExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ControllerExecutor.class);
+
+    @Value("${quora.controller.execution.mode:caller}")
+    private String mode;
+
+    @Value("${quora.controller.execution.bounded.max-threads:200}")
+    private int maxThreads;
+
+    @Value("${quora.controller.execution.bounded.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${spring.jpa.open-in-view:true}")
+    private boolean openInView;
+
+    @Autowired
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private ObjectProvider<TaskDecorator> taskDecorator;
+
+    private ControllerExecutionMode effectiveMode;
+
+    private ExecutorService executor;
+
+    private TaskDecorator decorator;
+
+    @PostConstruct
+    public void init() {
+        effectiveMode = ControllerExecutionMode.valueOf(mode.trim().toUpperCase());
+        decorator = taskDecorator.getIfAvailable(() -> runnable -> runnable);
+        if (effectiveMode == ControllerExecutionMode.VIRTUAL) {
+            executor = newVirtualThreadPerTaskExecutor();
+            if (executor == null) {
+                LOG.warn("Virtual threads are not supported by this JVM, controllers run on a bounded pool instead");
+                effectiveMode = ControllerExecutionMode.BOUNDED;
+            }
+        }
+        if (effectiveMode == ControllerExecutionMode.BOUNDED) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+                final Thread thread = new Thread(runnable, "quora-controller-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            final MeterRegistry registry = meterRegistry.getIfAvailable();
+            executor = registry == null ? pool : ExecutorServiceMetrics.monitor(registry, pool, "quora.controller", Tags.empty());
+        }
+        LOG.info("Controllers run in {} mode", effectiveMode.name().toLowerCase());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public ControllerExecutionMode getEffectiveMode() {
+        return effectiveMode;
+    }
+
+    /**
+     * @param task - body of the controller method
+     * @return future of the response, completed exceptionally with the exception of the body if it fails or with a
+     * {@link RejectedExecutionException} if the bounded pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(final ControllerTask<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        if (executor == null) {
+            run(task, future);
+            return future;
+        }
+        final boolean pinnedToPrimary = RoutingContext.isPinnedToPrimary();
+        try {
+            executor.execute(decorator.decorate(() -> runInRequestScope(task, future, pinnedToPrimary)));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void runInRequestScope(final ControllerTask<T> task, final CompletableFuture<T> future, final boolean pinnedToPrimary) {
+        RoutingContext.begin();
+        if (pinnedToPrimary) {
+            RoutingContext.pinToPrimary();
+        }
+        final EntityManagerFactory emf = openInView ? entityManagerFactory.getIfAvailable() : null;
+        final boolean bindEntityManager = emf != null && !TransactionSynchronizationManager.hasResource(emf);
+        if (bindEntityManager) {
+            TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(emf.createEntityManager()));
+        }
+        try {
+            run(task, future);
+        } finally {
+            if (bindEntityManager) {
+                final EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.unbindResource(emf);
+                EntityManagerFactoryUtils.closeEntityManager(holder.getEntityManager());
+            }
+            RoutingContext.end();
+        }
+    }
+
+    private static <T> void run(final ControllerTask<T> task, final CompletableFuture<T> future) {
+        try {
+            future.complete(task.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21 on, the code base is built for Java 8
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.upgrad.quora.api.async;
+
+/**
+ * Body of a controller method, run by the {@link ControllerExecutor}.
+ *
+ * @param <T> - type of the response
+ */
+@FunctionalInterface
+public interface ControllerTask<T> {
+
+    T call() throws Exception;
+}
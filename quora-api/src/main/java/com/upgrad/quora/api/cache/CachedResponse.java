@@ -0,0 +1,40 @@
+package com.upgrad.quora.api.cache;
+
+import com.upgrad.quora.api.codec.ResponseFormat;
+
+/**
+ * Serialized body of a response, along with its gzip compressed form when compressing it pays off.
+ */
+public class CachedResponse {
+
+    private final ResponseFormat format;
+
+    private final byte[] body;
+
+    private final byte[] gzippedBody;
+
+    CachedResponse(final ResponseFormat format, final byte[] body, final byte[] gzippedBody) {
+        this.format = format;
+        this.body = body;
+        this.gzippedBody = gzippedBody;
+    }
+
+    public ResponseFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return the gzip compressed body, null if the body is not worth compressing
+     */
+    public byte[] getGzippedBody() {
+        return gzippedBody;
+    }
+
+    int weight() {
+        return body.length + (gzippedBody == null ? 0 : gzippedBody.length);
+    }
+}
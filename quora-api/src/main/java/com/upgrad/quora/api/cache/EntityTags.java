@@ -0,0 +1,79 @@
+package com.upgrad.quora.api.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong entity tags derived from the {@link ResourceVersions}, and the evaluation of {@code If-None-Match} against
+ * them. The gzip compressed representation of a version is tagged with a {@code -gzip} suffix, as it differs byte for
+ * byte from the identity one; a conditional request matches the version whichever representation the client holds.
+ */
+public final class EntityTags {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private EntityTags() {
+    }
+
+    /**
+     * @param version - version of the resource
+     * @param gzipped - whether the representation is gzip compressed
+     * @return the quoted entity tag of the representation
+     */
+    public static String of(final String version, final boolean gzipped) {
+        return '"' + version + (gzipped ? GZIP_SUFFIX : "") + '"';
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}. The {@code *} form is not matched since telling whether
+     * the resource exists takes a query.
+     *
+     * @param ifNoneMatch - If-None-Match header of the request, null if absent
+     * @param version     - current version of the resource
+     * @return the listed entity tag matching the version, null if none does
+     */
+    public static String match(final String ifNoneMatch, final String version) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (final String listed : ifNoneMatch.split(",")) {
+            String tag = listed.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+                continue;
+            }
+            String opaque = tag.substring(1, tag.length() - 1);
+            if (opaque.endsWith(GZIP_SUFFIX)) {
+                opaque = opaque.substring(0, opaque.length() - GZIP_SUFFIX.length());
+            }
+            if (opaque.equals(version)) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param tag - entity tag which matched the request
+     * @return 304 response carrying the entity tag
+     */
+    public static <T> ResponseEntity<T> notModified(final String tag) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag(tag);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    /**
+     * @param body    - response body
+     * @param version - version of the resource the body was loaded at
+     * @return 200 response carrying the entity tag of the identity representation
+     */
+    public static <T> ResponseEntity<T> ok(final T body, final String version) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag(of(version, false));
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
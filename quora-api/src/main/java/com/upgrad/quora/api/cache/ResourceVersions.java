@@ -0,0 +1,132 @@
+package com.upgrad.quora.api.cache;
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.StripeVersion;
+import com.upgrad.quora.service.cache.VersionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters of the resources read by the polled endpoints, derived from the versions of the stripes of the
+ * regions the {@link CacheInvalidationChannel} keeps in the database:
+ * <ul>
+ * <li>all the questions, raised on every question created, edited or deleted and on every answer change since the
+ * questions carry their answer counts,</li>
+ * <li>the questions of each user, raised when one of them changes or is answered,</li>
+ * <li>the answers of each question, raised when they change or the question is edited,</li>
+ * <li>the profile of each user, raised when the user changes,</li>
+ * <li>an epoch, raised on changes cascading through everything such as the deletion of a user.</li>
+ * </ul>
+ * A counter is the sum of the versions of the stripes it depends on, so it grows with every change of any of them and
+ * is the same on every node, including a restarted one, which has taken the same stripe versions. The per resource
+ * counters share the stripes of the keys; two resources sharing a stripe see each other's changes as spurious ones,
+ * which costs a cache miss or a full response but never serves stale data since the counters only grow.
+ * <p>
+ * Versions are read before the data they describe, so data loaded while it changes is labeled with a version which is
+ * already outdated.
+ */
+@Component
+public class ResourceVersions implements VersionListener {
+
+    private static final int STRIPES = CacheInvalidationChannel.STRIPES;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    private final Map<CacheRegion, AtomicLongArray> stripeVersions = new EnumMap<CacheRegion, AtomicLongArray>(CacheRegion.class);
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final AtomicLong questionsVersion = new AtomicLong();
+
+    private final AtomicLongArray userQuestionVersions = new AtomicLongArray(STRIPES);
+
+    private final AtomicLongArray answerVersions = new AtomicLongArray(STRIPES);
+
+    private final AtomicLongArray profileVersions = new AtomicLongArray(STRIPES);
+
+    @PostConstruct
+    public void init() {
+        final CacheRegion[] regions = {CacheRegion.QUESTION, CacheRegion.QUESTION_ANSWERS, CacheRegion.USER_QUESTIONS,
+                CacheRegion.USER};
+        for (final CacheRegion region : regions) {
+            stripeVersions.put(region, new AtomicLongArray(STRIPES));
+        }
+        invalidationChannel.registerVersions(this, regions);
+    }
+
+    /**
+     * @return current version of all the questions
+     */
+    public String allQuestions() {
+        return version(questionsVersion.get());
+    }
+
+    /**
+     * @param userUuid - uuid of the owner of the questions
+     * @return current version of the questions of the user
+     */
+    public String questionsOf(final String userUuid) {
+        return version(userQuestionVersions.get(CacheInvalidationChannel.stripe(userUuid)));
+    }
+
+    /**
+     * @param questionUuid - uuid of the question
+     * @return current version of the answers to the question
+     */
+    public String answersTo(final String questionUuid) {
+        return version(answerVersions.get(CacheInvalidationChannel.stripe(questionUuid)));
+    }
+
+    /**
+     * @param userUuid - uuid of the user
+     * @return current version of the profile of the user
+     */
+    public String profileOf(final String userUuid) {
+        return version(profileVersions.get(CacheInvalidationChannel.stripe(userUuid)));
+    }
+
+    @Override
+    public void versionChanged(final StripeVersion version) {
+        final AtomicLongArray versions = stripeVersions.get(version.getRegion());
+        final int stripe = version.getStripe();
+        long current;
+        do {
+            current = versions.get(stripe);
+            if (version.getVersion() <= current) {
+                return;
+            }
+        } while (!versions.compareAndSet(stripe, current, version.getVersion()));
+        final long raise = version.getVersion() - current;
+        switch (version.getRegion()) {
+            case QUESTION:
+                // the answers embed the content of their question
+                questionsVersion.addAndGet(raise);
+                answerVersions.addAndGet(stripe, raise);
+                break;
+            case QUESTION_ANSWERS:
+                // the questions embed their answer count
+                questionsVersion.addAndGet(raise);
+                answerVersions.addAndGet(stripe, raise);
+                break;
+            case USER_QUESTIONS:
+                userQuestionVersions.addAndGet(stripe, raise);
+                break;
+            default:
+                // a deleted user takes their questions and answers along
+                profileVersions.addAndGet(stripe, raise);
+                epoch.addAndGet(raise);
+        }
+    }
+
+    private String version(final long counter) {
+        return Long.toString(epoch.get()) + '-' + counter;
+    }
+}
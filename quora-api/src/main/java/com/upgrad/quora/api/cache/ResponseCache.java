@@ -0,0 +1,219 @@
+package com.upgrad.quora.api.cache;
+
+import com.upgrad.quora.api.codec.ResponseFormat;
+import com.upgrad.quora.api.codec.ResponseSerializers;
+import com.upgrad.quora.service.cache.AccessFrequencies;
+import com.upgrad.quora.service.cache.CacheAdmission;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.LocalCache;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.datasource.RoutingContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Node local cache of the serialized bodies of the hot list endpoints, {@code /question/all} and
+ * {@code /answer/all/{questionId}}, which return the same bytes to every reader between two writes. A hit skips the
+ * queries, the mapping to the response models and the serialization; clients accepting gzip get the body compressed
+ * once when it was cached. Every {@link ResponseFormat} is cached on its own.
+ * <p>
+ * Entries are keyed by the endpoint, its parameters and the {@link ResourceVersions} of the data the response is made
+ * of. The key of a response is computed before loading it, so a response loaded while the data changes is stored
+ * under versions which are already outdated and is never served; entries of outdated versions are left to the LRU
+ * and the TTL. The loads filling the cache read the primary: a version may already count a write which a lagging
+ * replica has not replayed, and the stale rows would be served under it until the TTL. A miss is told before the
+ * authorization, whose connection the entity manager kept open for the request holds on to, see {@link #lookup}.
+ * <p>
+ * Once full, the cache only takes the answers of a question in place of the least recently used entry when they are
+ * read more often than the answers it holds, see {@link AccessFrequencies}, so that a crawl of cold questions does
+ * not flush the hot ones. The question list is always cached.
+ */
+@Component
+public class ResponseCache {
+
+    @Autowired
+    private ResponseSerializers responseSerializers;
+
+    @Autowired
+    private AccessFrequencies accessFrequencies;
+
+    @Value("${quora.cache.response.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.cache.response.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${quora.cache.response.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${quora.cache.response.max-body-bytes:4194304}")
+    private int maxBodyBytes;
+
+    @Value("${quora.cache.response.min-gzip-bytes:1024}")
+    private int minGzipBytes;
+
+    private LocalCache<CachedResponse> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = new LocalCache<CachedResponse>(maxEntries, ttlSeconds, TimeUnit.SECONDS, new CacheAdmission() {
+            @Override
+            public void recordAccess(final String key) {
+                final String questionUuid = answeredQuestionOf(key);
+                if (questionUuid != null) {
+                    accessFrequencies.record(CacheRegion.QUESTION_ANSWERS, questionUuid);
+                }
+            }
+
+            @Override
+            public void catchUp() {
+                accessFrequencies.drain();
+            }
+
+            @Override
+            public boolean admit(final String candidate, final String victim) {
+                final String candidateQuestionUuid = answeredQuestionOf(candidate);
+                final String victimQuestionUuid = answeredQuestionOf(victim);
+                return candidateQuestionUuid == null || victimQuestionUuid == null
+                        || accessFrequencies.admit(CacheRegion.QUESTION_ANSWERS, candidateQuestionUuid, victimQuestionUuid);
+            }
+        });
+    }
+
+    /**
+     * @param version - {@link ResourceVersions#allQuestions()}, in the format of the response
+     * @return key of the response of {@code /question/all} at the version
+     */
+    public String allQuestionsKey(final String version) {
+        return "question/all|" + version;
+    }
+
+    /**
+     * @param questionUuid - uuid of the question
+     * @param version      - {@link ResourceVersions#answersTo(String)} of the question, in the format of the response
+     * @return key of the response of {@code /answer/all/{questionId}} at the version
+     */
+    public String allAnswersKey(final String questionUuid, final String version) {
+        return "answer/all/" + questionUuid + '|' + version;
+    }
+
+    /**
+     * @param key - key of a response
+     * @return uuid of the question of a {@code /answer/all/{questionId}} response, whatever its version, null for
+     * other responses
+     */
+    private static String answeredQuestionOf(final String key) {
+        return key.startsWith("answer/all/") ? key.substring("answer/all/".length(), key.lastIndexOf('|')) : null;
+    }
+
+    /**
+     * @param key - key computed before the response was loaded
+     * @return cached response, null if there is none for the key
+     */
+    public CachedResponse get(final String key) {
+        return enabled ? responses.get(key) : null;
+    }
+
+    /**
+     * Looks up the response of a request before its authorization, and sends the whole request to the primary when the
+     * response is missing and is to be loaded into the cache.
+     *
+     * @param key - key computed before the response is loaded
+     * @return cached response, null if there is none for the key
+     */
+    public CachedResponse lookup(final String key) {
+        final CachedResponse response = get(key);
+        if (response == null && enabled) {
+            RoutingContext.pinToPrimary();
+        }
+        return response;
+    }
+
+    /**
+     * Serializes the body and caches it unless it is bigger than {@code max-body-bytes}.
+     *
+     * @param key    - key computed before the body was loaded
+     * @param format - format of the response
+     * @param body   - response model
+     * @return the serialized body
+     */
+    public CachedResponse put(final String key, final ResponseFormat format, final Object body) {
+        final long generation = responses.generation();
+        final byte[] serialized = responseSerializers.serialize(format, body);
+        final CachedResponse response = new CachedResponse(format, serialized, serialized.length >= minGzipBytes ? gzip(serialized) : null);
+        if (enabled && response.weight() <= maxBodyBytes) {
+            responses.put(key, response, generation);
+        }
+        return response;
+    }
+
+    /**
+     * @param response       - serialized response
+     * @param version        - version the response was loaded at, in its format
+     * @param acceptEncoding - Accept-Encoding header of the request, null if absent
+     * @return the response, gzip compressed if the client accepts it, tagged with the entity tag of its representation
+     */
+    public ResponseEntity<byte[]> toResponseEntity(final CachedResponse response, final String version, final String acceptEncoding) {
+        final HttpHeaders headers = varyingHeaders();
+        headers.setContentType(response.getFormat().getMediaType());
+        if (response.getGzippedBody() != null && acceptsGzip(acceptEncoding)) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.setETag(EntityTags.of(version, true));
+            return new ResponseEntity<>(response.getGzippedBody(), headers, HttpStatus.OK);
+        }
+        headers.setETag(EntityTags.of(version, false));
+        return new ResponseEntity<>(response.getBody(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * @param tag - entity tag which matched the request
+     * @return 304 response of a cached endpoint
+     */
+    public ResponseEntity<byte[]> notModified(final String tag) {
+        final HttpHeaders headers = varyingHeaders();
+        headers.setETag(tag);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    private static HttpHeaders varyingHeaders() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setVary(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        return headers;
+    }
+
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // gzip;q=0 means the client refuses it
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(final byte[] body) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+        return compressed.size() < body.length ? compressed.toByteArray() : null;
+    }
+}
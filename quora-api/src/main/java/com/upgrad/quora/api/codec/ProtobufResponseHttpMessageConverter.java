@@ -0,0 +1,60 @@
+package com.upgrad.quora.api.codec;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Writes the response models declared in {@code proto/quora.proto} as {@code application/x-protobuf}, for the
+ * endpoints returning models rather than serialized bodies; errors of those endpoints included. Requests are never
+ * read as protobuf.
+ */
+public class ProtobufResponseHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ResponseSerializers responseSerializers;
+
+    public ProtobufResponseHttpMessageConverter(final ResponseSerializers responseSerializers) {
+        super(ResponseFormat.PROTOBUF.getMediaType());
+        this.responseSerializers = responseSerializers;
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return responseSerializers.supportsProtobuf(clazz);
+    }
+
+    @Override
+    public boolean canRead(final Type type, final Class<?> contextClass, final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(final Type type, final Class<?> clazz, final MediaType mediaType) {
+        return canWrite(mediaType) && responseSerializers.supportsProtobuf(type != null ? type : clazz);
+    }
+
+    @Override
+    protected void writeInternal(final Object body, final Type type, final HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(responseSerializers.serialize(ResponseFormat.PROTOBUF, body));
+    }
+
+    @Override
+    public Object read(final Type type, final Class<?> contextClass, final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Requests are not read as protobuf");
+    }
+
+    @Override
+    protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Requests are not read as protobuf");
+    }
+}
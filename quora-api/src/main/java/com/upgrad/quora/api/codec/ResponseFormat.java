@@ -0,0 +1,78 @@
+package com.upgrad.quora.api.codec;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Formats the list endpoints can answer in, negotiated from the Accept header of the request. JSON stays the default;
+ * CBOR and protobuf are meant for internal clients, which save the parsing of the field names and of the text.
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON_UTF8, ""),
+
+    CBOR(MediaType.valueOf(ResponseFormat.APPLICATION_CBOR_VALUE), "-cbor"),
+
+    /**
+     * Messages of {@code proto/quora.proto}, a list being sent as the {@code <item>List} message.
+     */
+    PROTOBUF(MediaType.valueOf(ResponseFormat.APPLICATION_PROTOBUF_VALUE), "-protobuf");
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+
+    private final MediaType mediaType;
+
+    private final String tagSuffix;
+
+    ResponseFormat(final MediaType mediaType, final String tagSuffix) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param version - version of the resource
+     * @return version of the representation of the resource in this format, which entity tags are made of
+     */
+    public String version(final String version) {
+        return version + tagSuffix;
+    }
+
+    /**
+     * Picks the format the way the message converters would: the most specific and preferred acceptable media type
+     * wins, JSON first among the formats it is compatible with.
+     *
+     * @param accept - Accept header of the request, null if absent
+     * @return negotiated format, JSON when nothing else is accepted
+     */
+    public static ResponseFormat negotiate(final String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+        final List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (final MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            for (final ResponseFormat format : values()) {
+                if (acceptedType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
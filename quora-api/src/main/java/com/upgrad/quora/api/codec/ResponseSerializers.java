@@ -0,0 +1,135 @@
+package com.upgrad.quora.api.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializes the response models in every {@link ResponseFormat}. JSON is written by the object mapper of the
+ * application; CBOR and protobuf by mappers of their own, registered with the same Jackson modules so that they get
+ * the generated accessors as well.
+ * <p>
+ * Protobuf needs a message per root value: a model is written as the message of the same name in
+ * {@code proto/quora.proto}, and a list as the {@code <item>List} message holding the models as its repeated
+ * {@code items}.
+ */
+@Component
+public class ResponseSerializers {
+
+    private static final String PROTO_SCHEMA = "proto/quora.proto";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<Module> modules = Collections.emptyList();
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper protobufMapper;
+
+    private NativeProtobufSchema protobufSchema;
+
+    // root message name -> writer
+    private final Map<String, ObjectWriter> protobufWriters = new ConcurrentHashMap<String, ObjectWriter>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        cborMapper = binaryMapper(new ObjectMapper(new CBORFactory()));
+        protobufMapper = binaryMapper(new ObjectMapper(new ProtobufFactory()));
+        // fields added to the models are dropped until the schema has them, as a protobuf reader would skip them
+        protobufMapper.enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        try (InputStream schema = new ClassPathResource(PROTO_SCHEMA).getInputStream()) {
+            protobufSchema = ProtobufSchemaLoader.std.loadNative(schema, false);
+        }
+    }
+
+    private ObjectMapper binaryMapper(final ObjectMapper mapper) {
+        mapper.registerModules(modules);
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        return mapper;
+    }
+
+    public ObjectMapper getCborMapper() {
+        return cborMapper;
+    }
+
+    /**
+     * @param type - type of a model, or of a list of models
+     * @return whether the message of the value is declared for protobuf
+     */
+    public boolean supportsProtobuf(final Type type) {
+        if (type instanceof Class) {
+            return protobufSchema.hasMessageType(((Class<?>) type).getSimpleName());
+        }
+        if (type instanceof ParameterizedType && List.class.equals(((ParameterizedType) type).getRawType())) {
+            final Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            return itemType instanceof Class && protobufSchema.hasMessageType(((Class<?>) itemType).getSimpleName() + "List");
+        }
+        return false;
+    }
+
+    /**
+     * @param format - format to serialize to
+     * @param body   - response model, or list of response models
+     * @return the serialized body
+     */
+    public byte[] serialize(final ResponseFormat format, final Object body) {
+        try {
+            switch (format) {
+                case CBOR:
+                    return cborMapper.writeValueAsBytes(body);
+                case PROTOBUF:
+                    return serializeProtobuf(body);
+                default:
+                    return objectMapper.writeValueAsBytes(body);
+            }
+        } catch (JsonProcessingException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    }
+
+    private byte[] serializeProtobuf(final Object body) throws JsonProcessingException {
+        if (body instanceof List) {
+            final List<?> items = (List<?>) body;
+            if (items.isEmpty()) {
+                // a message without any field set is empty on the wire, whatever its type
+                return new byte[0];
+            }
+            return protobufWriter(items.get(0).getClass().getSimpleName() + "List")
+                    .writeValueAsBytes(Collections.singletonMap("items", items));
+        }
+        return protobufWriter(body.getClass().getSimpleName()).writeValueAsBytes(body);
+    }
+
+    private ObjectWriter protobufWriter(final String messageName) {
+        return protobufWriters.computeIfAbsent(messageName, name -> {
+            if (!protobufSchema.hasMessageType(name)) {
+                throw new UnexpectedException(GenericErrorCode.GEN_001, new IllegalArgumentException("No protobuf message " + name));
+            }
+            return protobufMapper.writer(protobufSchema.forType(name));
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.upgrad.quora.api.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.upgrad.quora.api.codec.ProtobufResponseHttpMessageConverter;
+import com.upgrad.quora.api.codec.ResponseSerializers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serialization of the responses: Jackson accessors generated as bytecode instead of reflection, and the CBOR and
+ * protobuf formats next to JSON.
+ */
+@Configuration
+public class SerializationConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private ResponseSerializers responseSerializers;
+
+    /**
+     * Picked up by the object mapper of the application and by the mappers of the binary formats.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "quora.serialization.afterburner.enabled", matchIfMissing = true)
+    public static Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    @Override
+    public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(responseSerializers.getCborMapper()));
+        converters.add(new ProtobufResponseHttpMessageConverter(responseSerializers));
+    }
+}
@@ -1,23 +1,37 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.async.ControllerExecutor;
+import com.upgrad.quora.api.model.HeavyHitterResponse;
+import com.upgrad.quora.api.model.QueryStatisticsResponse;
 import com.upgrad.quora.api.model.UserDeleteResponse;
 import com.upgrad.quora.service.business.AdminService;
+import com.upgrad.quora.service.cache.HeavyHitter;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.metrics.QueryStatistic;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
+@Timed(histogram = true)
 @RequestMapping("/")
 public class AdminController {
 
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
     /**
      * Get the user detail by user id.
      *
@@ -28,10 +42,61 @@ public class AdminController {
      * @throws UserNotFoundException        : will through a user not found exception
      */
     @RequestMapping(method = RequestMethod.DELETE, path = "/admin/user/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDeleteResponse> deleteUser(@RequestHeader("authorization") final String accessToken,
-                                                         @PathVariable("userId") final String userId) throws AuthorizationFailedException, UserNotFoundException {
-        final UserEntity userEntity = adminService.deleteUser(userId, accessToken);
-        final UserDeleteResponse userDeleteResponse = new UserDeleteResponse().id(userEntity.getUuid()).status("USER SUCCESSFULLY DELETED");
-        return new ResponseEntity<>(userDeleteResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<UserDeleteResponse>> deleteUser(@RequestHeader("authorization") final String accessToken,
+                                                                           @PathVariable("userId") final String userId) throws AuthorizationFailedException, UserNotFoundException {
+        return controllerExecutor.submit(() -> {
+            final UserEntity userEntity = adminService.deleteUser(userId, accessToken);
+            final UserDeleteResponse userDeleteResponse = new UserDeleteResponse().id(userEntity.getUuid()).status("USER SUCCESSFULLY DELETED");
+            return new ResponseEntity<>(userDeleteResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Get the named queries that took the most time on this node.
+     *
+     * @param accessToken : access-token of the authenticated admin
+     * @param limit       : maximum number of queries returned
+     * @return list of QueryStatisticsResponse by decreasing total time
+     * @throws AuthorizationFailedException : user authentication exception
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/admin/query-statistics", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<List<QueryStatisticsResponse>>> getQueryStatistics(@RequestHeader("authorization") final String accessToken,
+                                                                                              @RequestParam(value = "limit", defaultValue = "10") final int limit) throws AuthorizationFailedException {
+        return controllerExecutor.submit(() -> {
+            final List<QueryStatisticsResponse> queryStatisticsResponses = new ArrayList<>();
+            for (final QueryStatistic queryStatistic : adminService.getTopQueries(accessToken, limit)) {
+                queryStatisticsResponses.add(new QueryStatisticsResponse()
+                        .name(queryStatistic.getName())
+                        .executionCount(queryStatistic.getExecutionCount())
+                        .totalTimeMs(queryStatistic.getTotalTimeMillis())
+                        .meanTimeMs(queryStatistic.getMeanTimeMillis())
+                        .maxTimeMs(queryStatistic.getMaxTimeMillis())
+                        .rowCount(queryStatistic.getRowCount()));
+            }
+            return new ResponseEntity<>(queryStatisticsResponses, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Get the keys read most often lately on this node, to spot viral questions and abusive users or tokens.
+     *
+     * @param accessToken : access-token of the authenticated admin
+     * @param limit       : maximum number of keys returned
+     * @return list of HeavyHitterResponse by decreasing frequency
+     * @throws AuthorizationFailedException : user authentication exception
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/admin/heavy-hitters", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<List<HeavyHitterResponse>>> getHeavyHitters(@RequestHeader("authorization") final String accessToken,
+                                                                                       @RequestParam(value = "limit", defaultValue = "10") final int limit) throws AuthorizationFailedException {
+        return controllerExecutor.submit(() -> {
+            final List<HeavyHitterResponse> heavyHitterResponses = new ArrayList<>();
+            for (final HeavyHitter heavyHitter : adminService.getHeavyHitters(accessToken, limit)) {
+                heavyHitterResponses.add(new HeavyHitterResponse()
+                        .region(heavyHitter.getRegion().name())
+                        .key(heavyHitter.getKey())
+                        .frequency(heavyHitter.getFrequency()));
+            }
+            return new ResponseEntity<>(heavyHitterResponses, HttpStatus.OK);
+        });
     }
 }
\ No newline at end of file
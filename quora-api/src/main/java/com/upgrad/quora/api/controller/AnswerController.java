@@ -1,15 +1,24 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.async.ControllerExecutor;
+import com.upgrad.quora.api.cache.CachedResponse;
+import com.upgrad.quora.api.cache.EntityTags;
+import com.upgrad.quora.api.cache.ResourceVersions;
+import com.upgrad.quora.api.cache.ResponseCache;
+import com.upgrad.quora.api.codec.ResponseFormat;
 import com.upgrad.quora.api.model.*;
 import com.upgrad.quora.service.business.AnswerBusinessService;
 import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.cache.SingleFlight;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,8 +28,10 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Timed(histogram = true)
 @RequestMapping("/")
 public class AnswerController {
 
@@ -30,6 +41,18 @@ public class AnswerController {
     @Autowired
     private QuestionBusinessService questionBusinessService;
 
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     /**
      * This method is to create an answer for the question. Login is needed in order to access this endpoint.
      *
@@ -38,22 +61,24 @@ public class AnswerController {
      * @throws InvalidQuestionException     - if question does not exists in db
      */
     @RequestMapping(method = RequestMethod.POST, path = "/question/{questionId}/answer/create", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerResponse> createAnswer(@RequestHeader("authorization") final String authorization,
-                                                       @PathVariable("questionId") final String questionId,
-                                                       final AnswerRequest answerRequest) throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
-        //Get question entity using id provided by the user
-        final QuestionEntity questionEntity = questionBusinessService.getQuestionEntity(questionId, authorization, "Sign in first to post an answer");
-
-        //Prepare answer entity
-        final AnswerEntity answerEntity = new AnswerEntity();
-        answerEntity.setUuid(UUID.randomUUID().toString());
-        answerEntity.setQuestion(questionEntity);
-        answerEntity.setDate(ZonedDateTime.now());
-        answerEntity.setAnswer(answerRequest.getAnswer());
-
-        final AnswerEntity createdAnswerEntity = answerBusinessService.createAnswer(answerEntity, authorization);
-        AnswerResponse answerResponse = new AnswerResponse().id(createdAnswerEntity.getUuid()).status("ANSWER CREATED");
-        return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<AnswerResponse>> createAnswer(@RequestHeader("authorization") final String authorization,
+                                                                         @PathVariable("questionId") final String questionId,
+                                                                         final AnswerRequest answerRequest) throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            //Get question entity using id provided by the user
+            final QuestionEntity questionEntity = questionBusinessService.getQuestionEntity(questionId, authorization, "Sign in first to post an answer");
+
+            //Prepare answer entity
+            final AnswerEntity answerEntity = new AnswerEntity();
+            answerEntity.setUuid(UUID.randomUUID().toString());
+            answerEntity.setQuestion(questionEntity);
+            answerEntity.setDate(ZonedDateTime.now());
+            answerEntity.setAnswer(answerRequest.getAnswer());
+
+            final AnswerEntity createdAnswerEntity = answerBusinessService.createAnswer(answerEntity, authorization);
+            AnswerResponse answerResponse = new AnswerResponse().id(createdAnswerEntity.getUuid()).status("ANSWER CREATED");
+            return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
@@ -64,20 +89,21 @@ public class AnswerController {
      * @throws AnswerNotFoundException      - if answer does not exists in db
      */
     @RequestMapping(method = RequestMethod.DELETE, path = "/answer/delete/{answerId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerDeleteResponse> deleteAnswer(@PathVariable("answerId") final String answerId,
-                                                             @RequestHeader("authorization") final String authorization)
+    public CompletableFuture<ResponseEntity<AnswerDeleteResponse>> deleteAnswer(@PathVariable("answerId") final String answerId,
+                                                                               @RequestHeader("authorization") final String authorization)
             throws AuthorizationFailedException, AnswerNotFoundException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            //Check all validations for deleting the answer and return the entity
+            AnswerEntity answerEntity = answerBusinessService.validateAnswerToDelete(answerId, authorization);
 
-        //Check all validations for deleting the answer and return the entity
-        AnswerEntity answerEntity = answerBusinessService.validateAnswerToDelete(answerId, authorization);
+            //Delete answer
+            AnswerEntity deletedAnswer = answerBusinessService.deleteAnswer(answerEntity);
 
-        //Delete answer
-        AnswerEntity deletedAnswer = answerBusinessService.deleteAnswer(answerEntity);
+            AnswerDeleteResponse answerDeleteResponse = new AnswerDeleteResponse().id(deletedAnswer.getUuid())
+                    .status("ANSWER DELETED");
 
-        AnswerDeleteResponse answerDeleteResponse = new AnswerDeleteResponse().id(deletedAnswer.getUuid())
-                .status("ANSWER DELETED");
-
-        return new ResponseEntity<>(answerDeleteResponse, HttpStatus.NO_CONTENT);
+            return new ResponseEntity<>(answerDeleteResponse, HttpStatus.NO_CONTENT);
+        });
     }
 
     /**
@@ -88,44 +114,80 @@ public class AnswerController {
      * @throws AnswerNotFoundException      - if answer does not exists in db
      */
     @RequestMapping(method = RequestMethod.PUT, path = "/answer/edit/{answerId}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerEditResponse> editAnswerContent(final AnswerEditRequest answerEditRequest, @PathVariable("answerId") final String answerId,
-                                                                @RequestHeader("authorization") final String authorization)
+    public CompletableFuture<ResponseEntity<AnswerEditResponse>> editAnswerContent(final AnswerEditRequest answerEditRequest, @PathVariable("answerId") final String answerId,
+                                                                                  @RequestHeader("authorization") final String authorization)
             throws AuthorizationFailedException, AnswerNotFoundException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            //Check all validations for editing an answer and return the entity
+            AnswerEntity answerEntity = answerBusinessService.validateAnswerToEdit(answerId, authorization);
 
-        //Check all validations for editing an answer and return the entity
-        AnswerEntity answerEntity = answerBusinessService.validateAnswerToEdit(answerId, authorization);
-
-        //Update answer entity content
-        answerEntity.setAnswer(answerEditRequest.getContent());
+            //Update answer entity content
+            answerEntity.setAnswer(answerEditRequest.getContent());
 
-        //Persist Edit answer
-        AnswerEntity editedAnswer = answerBusinessService.editAnswer(answerEntity);
+            //Persist Edit answer
+            AnswerEntity editedAnswer = answerBusinessService.editAnswer(answerEntity);
 
-        AnswerEditResponse answerEditResponse = new AnswerEditResponse()
-                .id(editedAnswer.getUuid())
-                .status("ANSWER EDITED");
+            AnswerEditResponse answerEditResponse = new AnswerEditResponse()
+                    .id(editedAnswer.getUuid())
+                    .status("ANSWER EDITED");
 
-        return new ResponseEntity<>(answerEditResponse, HttpStatus.OK);
+            return new ResponseEntity<>(answerEditResponse, HttpStatus.OK);
+        });
     }
 
     /**
-     * This method is to get all answers for the question. Only authorised user can see it
+     * This method is to get all answers for the question. Only authorised user can see it. The response is served from
+     * the response cache between two changes of the question or its answers; a client still holding the current
+     * version gets a 304 without any answer being read.
      *
      * @return AnswerDetailsResponse - Answer details model type
      * @throws AuthorizationFailedException - if user does not exist in db
      * @throws InvalidQuestionException     - if question does not exists in db
      */
-    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersToQuestion(@PathVariable("questionId") final String questionId,
-                                                                               @RequestHeader("authorization") final String authorization)
+    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, ResponseFormat.APPLICATION_CBOR_VALUE, ResponseFormat.APPLICATION_PROTOBUF_VALUE})
+    public CompletableFuture<ResponseEntity<byte[]>> getAllAnswersToQuestion(@PathVariable("questionId") final String questionId,
+                                                                            @RequestHeader("authorization") final String authorization,
+                                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+                                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+                                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch)
             throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            final ResponseFormat format = ResponseFormat.negotiate(accept);
+            final String version = format.version(resourceVersions.answersTo(questionId));
+            final String matchingTag = EntityTags.match(ifNoneMatch, version);
+            final String key = responseCache.allAnswersKey(questionId, version);
+            // before the authorization, a miss is loaded from the primary
+            CachedResponse response = matchingTag == null ? responseCache.lookup(key) : null;
+            questionBusinessService.authorize(authorization, "Sign in first to get the answers");
+            // a matching tag or a cached response means the question existed at this version, its deletion changes it
+            if (matchingTag != null) {
+                return responseCache.notModified(matchingTag);
+            }
+            if (response == null) {
+                // concurrent misses share a single load, a viral question would otherwise send them all to the database
+                response = singleFlight.execute("answers", key, () -> {
+                    //Get question entity using id provided by the user
+                    final QuestionEntity questionEntity = questionBusinessService.getQuestion(questionId);
+
+                    // Fetch all answers for the provided question id
+                    final List<AnswerEntity> allAnswers = answerBusinessService.getAllAnswersToQuestion(questionEntity);
+
+                    return responseCache.put(key, format, toAnswerDetailsResponses(questionEntity, allAnswers));
+                });
+            }
+            return responseCache.toResponseEntity(response, version, acceptEncoding);
+        });
+    }
 
-        //Get question entity using id provided by the user
-        QuestionEntity questionEntity = questionBusinessService.getQuestionEntity(questionId, authorization, "Sign in first to get the answers");
-
-        // Fetch all answers for the provided question id
-        List<AnswerEntity> allAnswers = answerBusinessService.getAllAnswersToQuestion(questionEntity);
-
+    /**
+     * Maps the answers of a question to their response models, package visible for the benchmarks
+     *
+     * @param questionEntity - question the answers belong to
+     * @param allAnswers     - answers to the question
+     * @return List of answer details response object
+     */
+    static List<AnswerDetailsResponse> toAnswerDetailsResponses(final QuestionEntity questionEntity, final List<AnswerEntity> allAnswers) {
         List<AnswerDetailsResponse> allAnswersList = new ArrayList<>(allAnswers.size());
         for (AnswerEntity answerEntity : allAnswers) {
             AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
@@ -141,7 +203,7 @@ public class AnswerController {
 
             allAnswersList.add(answerDetailsResponse);
         }
-        return new ResponseEntity<>(allAnswersList, HttpStatus.OK);
+        return allAnswersList;
     }
 
 }
@@ -1,12 +1,16 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.async.ControllerExecutor;
+import com.upgrad.quora.api.cache.EntityTags;
+import com.upgrad.quora.api.cache.ResourceVersions;
 import com.upgrad.quora.api.model.UserDetailsResponse;
 import com.upgrad.quora.service.business.CommonUserService;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,30 +19,51 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
+@Timed(histogram = true)
 @RequestMapping
 public class CommonController {
 
     @Autowired
     private CommonUserService commonUserService;
 
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     /**
+     * A client still holding the current version of the profile gets a 304 without the profile being read.
      *
      * @param userUuid
      * @param authorization
+     * @param ifNoneMatch - entity tags of the versions held by the client
      * @return User Details Response
      * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
     @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDetailsResponse> getUser(@PathVariable("userId") final String userUuid,
-                                                       @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, UserNotFoundException {
-        final UserEntity userEntity = commonUserService.getUserProfile(userUuid, authorization);
-        final UserDetailsResponse userDetailsResponse = new UserDetailsResponse()
-                .firstName(userEntity.getFirstName()).lastName(userEntity.getLastName())
-                .userName(userEntity.getUserName()).emailAddress(userEntity.getEmail())
-                .country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe())
-                .dob(userEntity.getDob()).contactNumber(userEntity.getContactNumber());
-        return new ResponseEntity<>(userDetailsResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<UserDetailsResponse>> getUser(@PathVariable("userId") final String userUuid,
+                                                                         @RequestHeader("authorization") final String authorization,
+                                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch)
+            throws AuthorizationFailedException, UserNotFoundException {
+        return controllerExecutor.submit(() -> {
+            final String version = resourceVersions.profileOf(userUuid);
+            final String matchingTag = EntityTags.match(ifNoneMatch, version);
+            if (matchingTag != null) {
+                commonUserService.authorize(authorization);
+                return EntityTags.notModified(matchingTag);
+            }
+            final UserEntity userEntity = commonUserService.getUserProfile(userUuid, authorization);
+            final UserDetailsResponse userDetailsResponse = new UserDetailsResponse()
+                    .firstName(userEntity.getFirstName()).lastName(userEntity.getLastName())
+                    .userName(userEntity.getUserName()).emailAddress(userEntity.getEmail())
+                    .country(userEntity.getCountry()).aboutMe(userEntity.getAboutMe())
+                    .dob(userEntity.getDob()).contactNumber(userEntity.getContactNumber());
+            return EntityTags.ok(userDetailsResponse, version);
+        });
     }
 }
\ No newline at end of file
@@ -1,30 +1,69 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.async.ControllerExecutor;
+import com.upgrad.quora.api.cache.CachedResponse;
+import com.upgrad.quora.api.cache.EntityTags;
+import com.upgrad.quora.api.cache.ResourceVersions;
+import com.upgrad.quora.api.cache.ResponseCache;
+import com.upgrad.quora.api.codec.ResponseFormat;
 import com.upgrad.quora.api.model.*;
 import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.business.QuestionSearchService;
+import com.upgrad.quora.service.cache.SingleFlight;
 import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.page.QuestionAnswerRow;
+import com.upgrad.quora.service.page.QuestionWithAnswers;
+import com.upgrad.quora.service.search.PrefixSuggester;
+import com.upgrad.quora.service.search.QuestionSearchHit;
+import com.upgrad.quora.service.search.QuestionSearchPage;
+import com.upgrad.quora.service.search.SimilarQuestion;
+import com.upgrad.quora.service.stats.QuestionStats;
+import com.upgrad.quora.service.stats.TrendingQuestion;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.DuplicateQuestionException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.InvalidSearchException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Timed(histogram = true)
 @RequestMapping("/")
 public class QuestionController {
 
     @Autowired
     private QuestionBusinessService questionBusinessService;
 
+    @Autowired
+    private QuestionSearchService questionSearchService;
+
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     /**
      * This method is to create an question for user. Login is needed in order to access this endpoint.
      *
@@ -32,56 +71,248 @@ public class QuestionController {
      * @param authorization   - logged in user
      * @return Answer to the question
      * @throws AuthorizationFailedException - if the user fails to authenticate
+     * @throws DuplicateQuestionException   - if the same question has been posted already
      */
     @RequestMapping(method = RequestMethod.POST, path = "/question/create",
             consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionResponse> createQuestion(final QuestionRequest questionRequest,
-                                                           @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AuthenticationFailedException {
-        final QuestionEntity questionEntity = new QuestionEntity();
-        questionEntity.setUuid(UUID.randomUUID().toString());
-        questionEntity.setDate(ZonedDateTime.now());
-        questionEntity.setContent(questionRequest.getContent());
-
-        final QuestionEntity createdQuestionEntity = questionBusinessService.createQuestion(questionEntity, authorization, "Sign in first to post a question");
-        final QuestionResponse questionResponse = new QuestionResponse().id(createdQuestionEntity.getUuid()).status("QUESTION CREATED");
-        return new ResponseEntity<>(questionResponse, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<QuestionResponse>> createQuestion(final QuestionRequest questionRequest,
+                                                                             @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AuthenticationFailedException, DuplicateQuestionException {
+        return controllerExecutor.submit(() -> {
+            final QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setUuid(UUID.randomUUID().toString());
+            questionEntity.setDate(ZonedDateTime.now());
+            questionEntity.setContent(questionRequest.getContent());
+
+            final QuestionEntity createdQuestionEntity = questionBusinessService.createQuestion(questionEntity, authorization, "Sign in first to post a question");
+            final QuestionResponse questionResponse = new QuestionResponse().id(createdQuestionEntity.getUuid()).status("QUESTION CREATED");
+            for (SimilarQuestion similarQuestion : createdQuestionEntity.getSimilarQuestions()) {
+                questionResponse.addSimilarQuestionsItem(new QuestionDetailsResponse().id(similarQuestion.getUuid()).content(similarQuestion.getContent()));
+            }
+            return new ResponseEntity<>(questionResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
-     * Returns all questions of the database
+     * Returns all questions of the database, served from the response cache between two question changes. A client
+     * still holding the current version gets a 304 without any question being read.
      *
-     * @param authorization - logged in user
+     * @param authorization  - logged in user
+     * @param accept         - JSON, CBOR or protobuf
+     * @param acceptEncoding - gzip compressed bodies are sent to the clients accepting them
+     * @param ifNoneMatch    - entity tags of the versions held by the client
      * @return - all the questions in the database
      * @throws AuthorizationFailedException - if the user is not authenticated
      */
-    @RequestMapping(method = RequestMethod.GET, path = "/question/all", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions(@RequestHeader("authorization") final String authorization)
+    @RequestMapping(method = RequestMethod.GET, path = "/question/all",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, ResponseFormat.APPLICATION_CBOR_VALUE, ResponseFormat.APPLICATION_PROTOBUF_VALUE})
+    public CompletableFuture<ResponseEntity<byte[]>> getAllQuestions(@RequestHeader("authorization") final String authorization,
+                                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+                                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch)
             throws AuthorizationFailedException, AuthenticationFailedException {
-        final List<QuestionEntity> allQuestions = questionBusinessService.getAllQuestions(authorization, "Sign in first to get all questions");
-        return prepareQuestionDetailResponse(allQuestions);
+        return controllerExecutor.submit(() -> {
+            final ResponseFormat format = ResponseFormat.negotiate(accept);
+            final String version = format.version(resourceVersions.allQuestions());
+            final String matchingTag = EntityTags.match(ifNoneMatch, version);
+            final String key = responseCache.allQuestionsKey(version);
+            // before the authorization, a miss is loaded from the primary
+            CachedResponse response = matchingTag == null ? responseCache.lookup(key) : null;
+            questionBusinessService.authorize(authorization, "Sign in first to get all questions");
+            if (matchingTag != null) {
+                return responseCache.notModified(matchingTag);
+            }
+            if (response == null) {
+                // concurrent misses share a single load
+                response = singleFlight.execute("questions", key,
+                        () -> responseCache.put(key, format, toQuestionDetailsResponses(questionBusinessService.getAllQuestions())));
+            }
+            return responseCache.toResponseEntity(response, version, acceptEncoding);
+        });
     }
 
     /**
-     * Return all questions belonging to a particular user
+     * Return all questions belonging to a particular user. A client still holding the current version gets a 304
+     * without any question being read.
      *
      * @param userId        - userId of the user whose question list is to be fetched
      * @param authorization - logged in user
+     * @param accept        - JSON, CBOR or protobuf
+     * @param ifNoneMatch   - entity tags of the versions held by the client
      * @return - list of questions belonging to asked user
      * @throws AuthorizationFailedException - if the user is not authenticated
      */
-    @RequestMapping(method = RequestMethod.GET, path = "question/all/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestionsByUser(@PathVariable("userId") final String userId,
-                                                                               @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AuthenticationFailedException, UserNotFoundException {
-        final List<QuestionEntity> allQuestions = questionBusinessService.getAllQuestionsByUser(userId, authorization, "Sign in first to get all questions posted by a specific user");
-        return prepareQuestionDetailResponse(allQuestions);
+    @RequestMapping(method = RequestMethod.GET, path = "question/all/{userId}",
+            produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, ResponseFormat.APPLICATION_CBOR_VALUE, ResponseFormat.APPLICATION_PROTOBUF_VALUE})
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> getAllQuestionsByUser(@PathVariable("userId") final String userId,
+                                                                                                 @RequestHeader("authorization") final String authorization,
+                                                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+                                                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch)
+            throws AuthorizationFailedException, AuthenticationFailedException, UserNotFoundException {
+        return controllerExecutor.submit(() -> {
+            // negotiated again by the message converters, the same way
+            final String version = ResponseFormat.negotiate(accept).version(resourceVersions.questionsOf(userId));
+            final String matchingTag = EntityTags.match(ifNoneMatch, version);
+            if (matchingTag != null) {
+                // the user had questions at this version, their removal or the user's deletion would have changed it
+                questionBusinessService.authorize(authorization, "Sign in first to get all questions posted by a specific user");
+                return EntityTags.notModified(matchingTag);
+            }
+            final List<QuestionEntity> allQuestions = questionBusinessService.getAllQuestionsByUser(userId, authorization, "Sign in first to get all questions posted by a specific user");
+            return EntityTags.ok(toQuestionDetailsResponses(allQuestions), version);
+        });
+    }
+
+    /**
+     * Searches the contents of the questions, most relevant first, a page at a time.
+     *
+     * @param query         - words to search for
+     * @param limit         - size of the page
+     * @param cursor        - nextCursor of the previous page, absent for the first page
+     * @param authorization - logged in user
+     * @return - a page of the matching questions and the cursor of the next one
+     * @throws AuthorizationFailedException - if the user is not authenticated
+     * @throws InvalidSearchException       - if the query is empty or the cursor is invalid
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/search", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<QuestionSearchResponse>> searchQuestions(@RequestParam("q") final String query,
+                                                                                    @RequestParam(value = "limit", defaultValue = "20") final int limit,
+                                                                                    @RequestParam(value = "cursor", required = false) final String cursor,
+                                                                                    @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, AuthenticationFailedException, InvalidSearchException {
+        return controllerExecutor.submit(() -> {
+            questionBusinessService.authorize(authorization, "Sign in first to search questions");
+            final QuestionSearchPage page = questionSearchService.searchQuestions(query, cursor, limit);
+
+            final List<QuestionDetailsResponse> questions = new ArrayList<>(page.getHits().size());
+            for (QuestionSearchHit hit : page.getHits()) {
+                questions.add(new QuestionDetailsResponse().id(hit.getUuid()).content(hit.getContent()));
+            }
+            final QuestionSearchResponse searchResponse = new QuestionSearchResponse().questions(questions)
+                    .nextCursor(page.getNext() == null ? null : page.getNext().encode());
+            return new ResponseEntity<>(searchResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Suggests the questions starting with what the user is typing, most answered first.
+     *
+     * @param prefix        - beginning of the question content
+     * @param limit         - maximum number of suggestions
+     * @param authorization - logged in user
+     * @return - the suggested questions
+     * @throws AuthorizationFailedException - if the user is not authenticated
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/suggest", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> suggestQuestions(@RequestParam("prefix") final String prefix,
+                                                                                            @RequestParam(value = "limit", defaultValue = "10") final int limit,
+                                                                                            @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            questionBusinessService.authorize(authorization, "Sign in first to get question suggestions");
+            final List<PrefixSuggester.Suggestion> suggestions = questionSearchService.suggestQuestions(prefix, limit);
+
+            final List<QuestionDetailsResponse> questions = new ArrayList<>(suggestions.size());
+            for (PrefixSuggester.Suggestion suggestion : suggestions) {
+                questions.add(new QuestionDetailsResponse().id(suggestion.getUuid()).content(suggestion.getContent()));
+            }
+            return new ResponseEntity<>(questions, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Returns the questions most viewed and answered lately, hottest first.
+     *
+     * @param limit         - maximum number of questions
+     * @param authorization - logged in user
+     * @return - the trending questions with their score
+     * @throws AuthorizationFailedException - if the user is not authenticated
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/trending", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> getTrendingQuestions(@RequestParam(value = "limit", defaultValue = "10") final int limit,
+                                                                                                @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            questionBusinessService.authorize(authorization, "Sign in first to get the trending questions");
+            final List<TrendingQuestion> trendingQuestions = questionBusinessService.getTrendingQuestions(limit);
+
+            final List<QuestionDetailsResponse> questions = new ArrayList<>(trendingQuestions.size());
+            for (TrendingQuestion trendingQuestion : trendingQuestions) {
+                questions.add(new QuestionDetailsResponse().id(trendingQuestion.getUuid()).content(trendingQuestion.getContent())
+                        .trendingScore(trendingQuestion.getScore()));
+            }
+            return new ResponseEntity<>(questions, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Returns a question with its views and unique viewers, counting the view of the user.
+     *
+     * @param questionUuid  - id of the question viewed
+     * @param authorization - logged-in user
+     * @return - the question and its stats
+     * @throws AuthorizationFailedException - if the user is not logged-in
+     * @throws InvalidQuestionException     - if the question does not exist
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<QuestionDetailsResponse>> getQuestion(@PathVariable("questionId") final String questionUuid,
+                                                                                  @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            final QuestionEntity questionEntity = questionBusinessService.viewQuestion(questionUuid, authorization, "Sign in first to view a question");
+            final QuestionStats questionStats = questionBusinessService.getQuestionStats(questionEntity.getUuid());
+
+            final QuestionDetailsResponse questionDetailsResponse = new QuestionDetailsResponse().id(questionEntity.getUuid())
+                    .content(questionEntity.getContent()).views(questionStats.getViews()).uniqueViewers(questionStats.getUniqueViewers())
+                    .answerCount(questionEntity.getAnswerCount()).lastAnswerAt(formatDate(questionEntity.getLastAnswerAt()));
+            return new ResponseEntity<>(questionDetailsResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Returns a question and a page of its answers, oldest first, read with a single query after a single
+     * authorization; what a question page otherwise gets from the question and the answer endpoints. The view is not
+     * counted.
+     *
+     * @param questionUuid  - id of the question
+     * @param limit         - size of the page of answers
+     * @param cursor        - nextCursor of the previous page of answers, absent for the first page
+     * @param authorization - logged-in user
+     * @return - the question and a page of its answers
+     * @throws AuthorizationFailedException - if the user is not logged-in
+     * @throws InvalidQuestionException     - if the question does not exist
+     * @throws InvalidCursorException       - if the cursor is not the cursor of an answer page
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/question/{questionId}/full", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<QuestionWithAnswersResponse>> getQuestionWithAnswers(@PathVariable("questionId") final String questionUuid,
+                                                                                                @RequestParam(value = "limit", defaultValue = "10") final int limit,
+                                                                                                @RequestParam(value = "cursor", required = false) final String cursor,
+                                                                                                @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, InvalidQuestionException, InvalidCursorException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            questionBusinessService.authorize(authorization, "Sign in first to get the question with its answers");
+            final QuestionWithAnswers page = questionBusinessService.getQuestionWithAnswers(questionUuid, cursor, limit);
+
+            final List<QuestionAnswerResponse> answers = new ArrayList<>(page.getAnswers().size());
+            for (QuestionAnswerRow answer : page.getAnswers()) {
+                answers.add(new QuestionAnswerResponse().id(answer.getAnswerUuid()).answerContent(answer.getAnswerContent())
+                        .date(formatDate(answer.getAnswerDate())));
+            }
+            final QuestionDetailsResponse question = new QuestionDetailsResponse().id(page.getQuestionUuid())
+                    .content(page.getQuestionContent()).answerCount(page.getAnswerCount()).lastAnswerAt(formatDate(page.getLastAnswerAt()));
+            final QuestionWithAnswersResponse questionWithAnswersResponse = new QuestionWithAnswersResponse().question(question)
+                    .answers(answers).nextCursor(page.getNext() == null ? null : page.getNext().encode());
+            return new ResponseEntity<>(questionWithAnswersResponse, HttpStatus.OK);
+        });
     }
 
     @RequestMapping(method = RequestMethod.DELETE, path = "/question/delete/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionDeleteResponse> deleteQuestion(@PathVariable("questionId") final String questionId,
-                                                                 @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AuthenticationFailedException, InvalidQuestionException {
-        final QuestionEntity questionEntity = questionBusinessService.deleteQuestion(questionId, authorization, "Sign in first to delete a question");
-        final QuestionDeleteResponse questionDeleteResponse = new QuestionDeleteResponse().id(questionEntity.getUuid()).status("QUESTION DELETED");
-        return new ResponseEntity<>(questionDeleteResponse, HttpStatus.NO_CONTENT);
+    public CompletableFuture<ResponseEntity<QuestionDeleteResponse>> deleteQuestion(@PathVariable("questionId") final String questionId,
+                                                                                   @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, AuthenticationFailedException, InvalidQuestionException {
+        return controllerExecutor.submit(() -> {
+            final QuestionEntity questionEntity = questionBusinessService.deleteQuestion(questionId, authorization, "Sign in first to delete a question");
+            final QuestionDeleteResponse questionDeleteResponse = new QuestionDeleteResponse().id(questionEntity.getUuid()).status("QUESTION DELETED");
+            return new ResponseEntity<>(questionDeleteResponse, HttpStatus.NO_CONTENT);
+        });
     }
 
 
@@ -96,37 +327,45 @@ public class QuestionController {
      * @throws InvalidQuestionException     - if the question dont exist
      */
     @RequestMapping(method = RequestMethod.PUT, path = "/question/edit/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionEditResponse> editQuestionContent(@PathVariable("questionId") final String questionUuid,
-                                                                    final QuestionEditRequest questionEditRequest,
-                                                                    @RequestHeader("authorization") final String authorization)
+    public CompletableFuture<ResponseEntity<QuestionEditResponse>> editQuestionContent(@PathVariable("questionId") final String questionUuid,
+                                                                                      final QuestionEditRequest questionEditRequest,
+                                                                                      @RequestHeader("authorization") final String authorization)
             throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            //Fetch the existing question
+            final QuestionEntity questionEntity = questionBusinessService.getQuestionEntity(questionUuid, authorization, "Sign in first to edit the question");
 
-        //Fetch the existing question
-        final QuestionEntity questionEntity = questionBusinessService.getQuestionEntity(questionUuid, authorization, "Sign in first to edit the question");
+            //Update the contents
+            questionEntity.setContent(questionEditRequest.getContent());
+            questionBusinessService.editQuestionContent(authorization, questionEntity);
 
-        //Update the contents
-        questionEntity.setContent(questionEditRequest.getContent());
-        questionBusinessService.editQuestionContent(authorization, questionEntity);
-
-        //Prepare the HTTP response and return
-        final QuestionEditResponse questionEditResponse = new QuestionEditResponse().id(questionEntity.getUuid()).status("QUESTION EDITED");
-        return new ResponseEntity<>(questionEditResponse, HttpStatus.OK);
+            //Prepare the HTTP response and return
+            final QuestionEditResponse questionEditResponse = new QuestionEditResponse().id(questionEntity.getUuid()).status("QUESTION EDITED");
+            return new ResponseEntity<>(questionEditResponse, HttpStatus.OK);
+        });
     }
 
     /**
+     * Maps the questions to their response models, package visible for the benchmarks
      *
      * @param allQuestions
      * @return List of all question details response object
      */
-    private ResponseEntity<List<QuestionDetailsResponse>> prepareQuestionDetailResponse(final List<QuestionEntity> allQuestions) {
+    static List<QuestionDetailsResponse> toQuestionDetailsResponses(final List<QuestionEntity> allQuestions) {
         final List<QuestionDetailsResponse> allQuestionsRsp = new ArrayList<>(allQuestions.size());
         for (QuestionEntity quesEntity : allQuestions) {
             QuestionDetailsResponse questionDetailsResponse = new QuestionDetailsResponse();
             questionDetailsResponse.setId(quesEntity.getUuid());
             questionDetailsResponse.setContent(quesEntity.getContent());
+            questionDetailsResponse.setAnswerCount(quesEntity.getAnswerCount());
+            questionDetailsResponse.setLastAnswerAt(formatDate(quesEntity.getLastAnswerAt()));
 
             allQuestionsRsp.add(questionDetailsResponse);
         }
-        return new ResponseEntity<>(allQuestionsRsp, HttpStatus.OK);
+        return allQuestionsRsp;
+    }
+
+    private static String formatDate(final ZonedDateTime date) {
+        return date == null ? null : date.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
     }
 }
@@ -1,5 +1,6 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.async.ControllerExecutor;
 import com.upgrad.quora.api.model.SigninResponse;
 import com.upgrad.quora.api.model.SignoutResponse;
 import com.upgrad.quora.api.model.SignupUserRequest;
@@ -10,6 +11,7 @@ import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.SignOutRestrictedException;
 import com.upgrad.quora.service.exception.SignUpRestrictedException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -22,14 +24,19 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Base64;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Timed(histogram = true)
 @RequestMapping("/")
 public class UserController {
 
     @Autowired
     private UserBusinessService userBusinessService;
 
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
 
     /**
      * Request mapping for user signup. This method receives the object of SignupUserRequest type with its attributes being set.
@@ -38,23 +45,25 @@ public class UserController {
      * @throws SignUpRestrictedException - if the username or email already exist in the database.
      */
     @RequestMapping(method = RequestMethod.POST, path = "/user/signup", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SignupUserResponse> signUp(final SignupUserRequest signupUserRequest) throws SignUpRestrictedException {
-        final UserEntity userEntity = new UserEntity();
-        userEntity.setUuid(UUID.randomUUID().toString());
-        userEntity.setFirstName(signupUserRequest.getFirstName());
-        userEntity.setLastName(signupUserRequest.getLastName());
-        userEntity.setUserName(signupUserRequest.getUserName());
-        userEntity.setEmail(signupUserRequest.getEmailAddress());
-        userEntity.setPassword(signupUserRequest.getPassword());
-        userEntity.setCountry(signupUserRequest.getCountry());
-        userEntity.setAboutMe(signupUserRequest.getAboutMe());
-        userEntity.setDob(signupUserRequest.getDob());
-        userEntity.setRole("nonadmin");
-        userEntity.setContactNumber(signupUserRequest.getContactNumber());
+    public CompletableFuture<ResponseEntity<SignupUserResponse>> signUp(final SignupUserRequest signupUserRequest) throws SignUpRestrictedException {
+        return controllerExecutor.submit(() -> {
+            final UserEntity userEntity = new UserEntity();
+            userEntity.setUuid(UUID.randomUUID().toString());
+            userEntity.setFirstName(signupUserRequest.getFirstName());
+            userEntity.setLastName(signupUserRequest.getLastName());
+            userEntity.setUserName(signupUserRequest.getUserName());
+            userEntity.setEmail(signupUserRequest.getEmailAddress());
+            userEntity.setPassword(signupUserRequest.getPassword());
+            userEntity.setCountry(signupUserRequest.getCountry());
+            userEntity.setAboutMe(signupUserRequest.getAboutMe());
+            userEntity.setDob(signupUserRequest.getDob());
+            userEntity.setRole("nonadmin");
+            userEntity.setContactNumber(signupUserRequest.getContactNumber());
 
-        final UserEntity createdUserEntity = userBusinessService.signUp(userEntity);
-        SignupUserResponse userResponse = new SignupUserResponse().id(createdUserEntity.getUuid()).status("USER SUCCESSFULLY REGISTERED");
-        return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+            final UserEntity createdUserEntity = userBusinessService.signUp(userEntity);
+            SignupUserResponse userResponse = new SignupUserResponse().id(createdUserEntity.getUuid()).status("USER SUCCESSFULLY REGISTERED");
+            return new ResponseEntity<>(userResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
@@ -65,19 +74,21 @@ public class UserController {
      * @throws AuthenticationFailedException : if username or password is invalid
      */
     @RequestMapping(method = RequestMethod.POST, path = "/user/signin", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SigninResponse> signIn(@RequestHeader("authorization") final String authorization) throws AuthenticationFailedException {
-        final byte[] decode = Base64.getDecoder().decode(authorization.split("Basic ")[1]);
-        final String decodedText = new String(decode);
-        final String[] decodedArray = decodedText.split(":");
-        final UserAuthEntity userAuthEntity = userBusinessService.signIn(decodedArray[0], decodedArray[1]);
+    public CompletableFuture<ResponseEntity<SigninResponse>> signIn(@RequestHeader("authorization") final String authorization) throws AuthenticationFailedException {
+        return controllerExecutor.submit(() -> {
+            final byte[] decode = Base64.getDecoder().decode(authorization.split("Basic ")[1]);
+            final String decodedText = new String(decode);
+            final String[] decodedArray = decodedText.split(":");
+            final UserAuthEntity userAuthEntity = userBusinessService.signIn(decodedArray[0], decodedArray[1]);
 
-        final HttpHeaders headers = new HttpHeaders();
-        headers.add("access-token", userAuthEntity.getAccessToken());
+            final HttpHeaders headers = new HttpHeaders();
+            headers.add("access-token", userAuthEntity.getAccessToken());
 
-        final SigninResponse signinResponse = new SigninResponse();
-        signinResponse.setId(userAuthEntity.getUserEntity().getUuid());
-        signinResponse.setMessage("SIGNED IN SUCCESSFULLY");
-        return new ResponseEntity<>(signinResponse, headers, HttpStatus.OK);
+            final SigninResponse signinResponse = new SigninResponse();
+            signinResponse.setId(userAuthEntity.getUserEntity().getUuid());
+            signinResponse.setMessage("SIGNED IN SUCCESSFULLY");
+            return new ResponseEntity<>(signinResponse, headers, HttpStatus.OK);
+        });
     }
 
     /**
@@ -88,9 +99,11 @@ public class UserController {
      * @throws SignOutRestrictedException
      */
     @RequestMapping(method = RequestMethod.POST, path = "/user/signout", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SignoutResponse> signOut(@RequestHeader("authorization") final String accessToken) throws SignOutRestrictedException {
-        final UserEntity userEntity = userBusinessService.signOut(accessToken);
-        final SignoutResponse signoutResponse = new SignoutResponse().id(userEntity.getUuid()).message("SIGNED OUT SUCCESSFULLY");
-        return new ResponseEntity<>(signoutResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<SignoutResponse>> signOut(@RequestHeader("authorization") final String accessToken) throws SignOutRestrictedException {
+        return controllerExecutor.submit(() -> {
+            final UserEntity userEntity = userBusinessService.signOut(accessToken);
+            final SignoutResponse signoutResponse = new SignoutResponse().id(userEntity.getUuid()).message("SIGNED OUT SUCCESSFULLY");
+            return new ResponseEntity<>(signoutResponse, HttpStatus.OK);
+        });
     }
 }
@@ -0,0 +1,55 @@
+package com.upgrad.quora.api.exception;
+
+import com.upgrad.quora.api.model.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Error responses of one status, built once per error code and message and shared by every failed request after
+ * that. Error codes come with a handful of fixed messages each; past {@link #MAX_MESSAGES_PER_CODE} of them, the
+ * responses of a code are built per request instead.
+ * <p>
+ * The shared responses have read-only headers and are never modified once built.
+ */
+class ErrorResponses {
+
+    static final int MAX_MESSAGES_PER_CODE = 8;
+
+    private final HttpStatus status;
+
+    // error code -> message -> response
+    private final ConcurrentMap<String, ConcurrentMap<String, ResponseEntity<ErrorResponse>>> responses =
+            new ConcurrentHashMap<String, ConcurrentMap<String, ResponseEntity<ErrorResponse>>>();
+
+    ErrorResponses(final HttpStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @param code    - error code
+     * @param message - error message
+     * @return the response of the error, shared whenever possible
+     */
+    ResponseEntity<ErrorResponse> get(final String code, final String message) {
+        if (code == null || message == null) {
+            return build(code, message);
+        }
+        final ConcurrentMap<String, ResponseEntity<ErrorResponse>> byMessage =
+                responses.computeIfAbsent(code, c -> new ConcurrentHashMap<String, ResponseEntity<ErrorResponse>>());
+        final ResponseEntity<ErrorResponse> response = byMessage.get(message);
+        if (response != null) {
+            return response;
+        }
+        if (byMessage.size() >= MAX_MESSAGES_PER_CODE) {
+            return build(code, message);
+        }
+        return byMessage.computeIfAbsent(message, m -> build(code, m));
+    }
+
+    private ResponseEntity<ErrorResponse> build(final String code, final String message) {
+        return new ResponseEntity<>(new ErrorResponse().code(code).message(message), status);
+    }
+}
@@ -1,6 +1,7 @@
 package com.upgrad.quora.api.exception;
 
 import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.common.GenericErrorCode;
 import com.upgrad.quora.service.exception.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -8,61 +9,89 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Maps the domain exceptions to their error responses. A failed request allocates neither a stack trace nor a
+ * response: the responses are shared per status, error code and message.
+ */
 @ControllerAdvice
 public class RestExceptionHandler {
 
+    private final ErrorResponses badRequest = new ErrorResponses(HttpStatus.BAD_REQUEST);
+
+    private final ErrorResponses forbidden = new ErrorResponses(HttpStatus.FORBIDDEN);
+
+    private final ErrorResponses notFound = new ErrorResponses(HttpStatus.NOT_FOUND);
+
+    private final ErrorResponses conflict = new ErrorResponses(HttpStatus.CONFLICT);
+
+    private final ErrorResponses unauthorized = new ErrorResponses(HttpStatus.UNAUTHORIZED);
+
+    private final ErrorResponses serviceUnavailable = new ErrorResponses(HttpStatus.SERVICE_UNAVAILABLE);
+
     @ExceptionHandler(AuthorizationFailedException.class)
     public ResponseEntity<ErrorResponse> authorizationFailedExceptionHandler(final AuthorizationFailedException exc,
                                                                              final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.FORBIDDEN
-        );
+        return forbidden.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(AuthenticationFailedException.class)
     public ResponseEntity<ErrorResponse> authenticationFailedExceptionHandler(final AuthenticationFailedException exc,
                                                                               final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.FORBIDDEN
-        );
+        return forbidden.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(InvalidQuestionException.class)
     public ResponseEntity<ErrorResponse> invalidQuestionExceptionHandler(final InvalidQuestionException exc,
                                                                          final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+        return notFound.get(exc.getCode(), exc.getErrorMessage());
+    }
+
+    @ExceptionHandler(DuplicateQuestionException.class)
+    public ResponseEntity<ErrorResponse> duplicateQuestionExceptionHandler(final DuplicateQuestionException exc,
+                                                                           final WebRequest request) {
+        return conflict.get(exc.getCode(), exc.getErrorMessage());
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<ErrorResponse> invalidSearchExceptionHandler(final InvalidSearchException exc,
+                                                                       final WebRequest request) {
+        return badRequest.get(exc.getCode(), exc.getErrorMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> invalidCursorExceptionHandler(final InvalidCursorException exc,
+                                                                       final WebRequest request) {
+        return badRequest.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(AnswerNotFoundException.class)
     public ResponseEntity<ErrorResponse> answerNotFoundExceptionHandler(final AnswerNotFoundException exc,
                                                                         final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+        return notFound.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(SignUpRestrictedException.class)
     public ResponseEntity<ErrorResponse> signupRestrictedExceptionHandler(final SignUpRestrictedException exc,
                                                                           final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.CONFLICT
-        );
+        return conflict.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(SignOutRestrictedException.class)
     public ResponseEntity<ErrorResponse> signOutRestrictedExceptionHandler(final SignOutRestrictedException exc,
                                                                            final WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.UNAUTHORIZED
-        );
+        return unauthorized.get(exc.getCode(), exc.getErrorMessage());
     }
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponse> authenticationFailedException(UserNotFoundException exc, WebRequest request) {
-        return new ResponseEntity<>(
-                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.NOT_FOUND
-        );
+        return notFound.get(exc.getCode(), exc.getErrorMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> rejectedExecutionExceptionHandler(final RejectedExecutionException exc,
+                                                                           final WebRequest request) {
+        return serviceUnavailable.get(GenericErrorCode.GEN_002.getCode(), GenericErrorCode.GEN_002.getDefaultMessage());
     }
 }
\ No newline at end of file
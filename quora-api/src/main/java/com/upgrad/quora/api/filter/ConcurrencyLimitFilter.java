@@ -0,0 +1,170 @@
+package com.upgrad.quora.api.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds the requests above an adaptive concurrency limit with a 503 instead of letting them queue for a Tomcat thread
+ * or a database connection. The limit follows the observed latency, see {@link GradientConcurrencyLimit}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quora.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${quora.limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${quora.limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${quora.limiter.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${quora.limiter.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${quora.limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private GradientConcurrencyLimit limit;
+
+    private Counter rejected;
+
+    private byte[] overloadedBody;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, tolerance);
+        Gauge.builder("quora.limiter.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Current concurrency limit").register(meterRegistry);
+        Gauge.builder("quora.limiter.inflight", inflight, AtomicInteger::get)
+                .description("Requests currently in flight").register(meterRegistry);
+        rejected = Counter.builder("quora.limiter.rejected")
+                .description("Requests rejected with 503 because the concurrency limit was reached").register(meterRegistry);
+        try {
+            overloadedBody = objectMapper.writeValueAsBytes(new ErrorResponse()
+                    .code(GenericErrorCode.GEN_002.getCode()).message(GenericErrorCode.GEN_002.getDefaultMessage()));
+        } catch (JsonProcessingException e) {
+            throw new ServletException(e);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        // keep the metrics and health endpoints reachable under overload
+        return !enabled || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final int current = inflight.incrementAndGet();
+        if (current > limit.getLimit()) {
+            inflight.decrementAndGet();
+            rejected.increment();
+            reject(response);
+            return;
+        }
+        final Release release = new Release(System.nanoTime(), current);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // the request is still in flight until the async processing completes
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(final HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setContentLength(overloadedBody.length);
+        response.getOutputStream().write(overloadedBody);
+    }
+
+    /**
+     * Releases the permit of a request once, feeding its latency to the limit.
+     */
+    private final class Release implements AsyncListener {
+
+        private final long startNanos;
+
+        private final int inflightAtStart;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(final long startNanos, final int inflightAtStart) {
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        private void run() {
+            if (released.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - startNanos, inflightAtStart);
+                inflight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.upgrad.quora.api.filter;
+
+/**
+ * Concurrency limit following the observed latency with a gradient algorithm.
+ * <p>
+ * A short and a long exponential moving average of the request latency are kept. While the short one stays close to
+ * the long one the server is not queueing and the limit grows by about its square root per sample, once the short one
+ * rises above {@code tolerance} times the long one requests are queueing somewhere (typically on the connection pool)
+ * and the limit shrinks proportionally, by half at most. Samples taken while less than half of the limit is in use say
+ * nothing about the limit and are only used to update the averages.
+ */
+class GradientConcurrencyLimit {
+
+    // smoothing factors of the moving averages, about 10 and 600 samples
+    private static final double SHORT_ALPHA = 2.0 / 11;
+
+    private static final double LONG_ALPHA = 2.0 / 601;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double smoothing;
+
+    private final double tolerance;
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    private boolean sampled;
+
+    GradientConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit,
+                             final double smoothing, final double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param rttNanos - latency of a completed request
+     * @param inflight - requests in flight when the request started, itself included
+     */
+    synchronized void onSample(final long rttNanos, final int inflight) {
+        final double rtt = rttNanos;
+        if (!sampled) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            sampled = true;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) * SHORT_ALPHA;
+        longRtt += (rtt - longRtt) * LONG_ALPHA;
+
+        // after an overload the long average lags far behind, let it catch up so that the limit can grow again
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        if (inflight < estimatedLimit / 2) {
+            return;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,44 @@
+package com.upgrad.quora.api.filter;
+
+import com.upgrad.quora.service.datasource.RoutingContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Scopes the datasource routing to a request, so that the reads following a write of the same request are served by
+ * the primary.
+ * <p>
+ * The requests which may write, all but GET, HEAD and OPTIONS, are pinned to the primary from the start: the lookups
+ * preceding their first write, such as the question an answer is posted to, must not be served by a replica lagging
+ * behind.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RoutingContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        RoutingContext.begin();
+        if (!isSafe(request.getMethod())) {
+            RoutingContext.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RoutingContext.end();
+        }
+    }
+
+    private static boolean isSafe(final String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
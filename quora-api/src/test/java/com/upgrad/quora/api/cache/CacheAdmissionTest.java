@@ -0,0 +1,54 @@
+package com.upgrad.quora.api.cache;
+
+
+import com.upgrad.quora.service.cache.AccessFrequencies;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.LocalCache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+
+public class CacheAdmissionTest {
+
+    private static final int HOT_READS = 3;
+
+    @Autowired
+    private AccessFrequencies accessFrequencies;
+
+
+    //This test case passes when a key missed again and again by a full cache is cached as soon as it is read more often than the entry it would evict, without waiting for the reads buffered by other keys.
+    @Test
+    public void repeatedlyReadColdKeyIsAdmitted() throws Exception {
+        // keys of this run only, the frequencies are shared by the whole context
+        final String run = UUID.randomUUID().toString();
+        final LocalCache<String> cache = new LocalCache<>(2, 1, TimeUnit.HOURS, accessFrequencies.admission(CacheRegion.QUESTION_ANSWERS));
+        for (String hot : new String[]{run + "_hot_1", run + "_hot_2"}) {
+            for (int i = 0; i < HOT_READS; i++) {
+                assertNull(cache.get(hot));
+            }
+            cache.put(hot, hot, cache.generation());
+        }
+        assertEquals(2, cache.size());
+
+        final String cold = run + "_cold";
+        int reads = 0;
+        while (cache.get(cold) == null) {
+            reads++;
+            assertTrue("Cold key still not cached after " + reads + " reads", reads <= HOT_READS + 1);
+            cache.put(cold, cold, cache.generation());
+        }
+        assertEquals(2, cache.size());
+    }
+}
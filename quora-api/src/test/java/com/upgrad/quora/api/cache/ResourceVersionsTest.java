@@ -0,0 +1,51 @@
+package com.upgrad.quora.api.cache;
+
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+
+public class ResourceVersionsTest {
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+
+    //This test case passes when the versions of a node started after changes were published, standing in for another node or a restarted one, are the ones of the node which published them.
+    @Test
+    public void nodeStartedLaterHasSameVersions() {
+        final String answers = resourceVersions.answersTo("database_question_uuid");
+        final String questions = resourceVersions.allQuestions();
+        invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, "database_question_uuid");
+        invalidationChannel.publish(CacheRegion.USER, "database_uuid");
+        assertNotEquals(answers, resourceVersions.answersTo("database_question_uuid"));
+        assertNotEquals(questions, resourceVersions.allQuestions());
+
+        final ResourceVersions otherNode = beanFactory.createBean(ResourceVersions.class);
+        assertEquals(resourceVersions.allQuestions(), otherNode.allQuestions());
+        assertEquals(resourceVersions.answersTo("database_question_uuid"), otherNode.answersTo("database_question_uuid"));
+        assertEquals(resourceVersions.questionsOf("database_uuid"), otherNode.questionsOf("database_uuid"));
+        assertEquals(resourceVersions.profileOf("database_uuid"), otherNode.profileOf("database_uuid"));
+
+        invalidationChannel.publish(CacheRegion.QUESTION, "database_question_uuid");
+        assertEquals(resourceVersions.answersTo("database_question_uuid"), otherNode.answersTo("database_question_uuid"));
+        assertEquals(resourceVersions.allQuestions(), otherNode.allQuestions());
+    }
+}
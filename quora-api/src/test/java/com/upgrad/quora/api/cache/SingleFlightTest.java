@@ -0,0 +1,178 @@
+package com.upgrad.quora.api.cache;
+
+
+import com.upgrad.quora.service.cache.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// the followers wait long enough for any load of the tests to complete, except in the group of the slow loads
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.single-flight.timeout-ms=30000", "quora.single-flight.groups.test-slow.timeout-ms=100"})
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    private final List<Thread> callerThreads = new ArrayList<>();
+
+    @After
+    public void shutdown() {
+        callers.shutdownNow();
+    }
+
+
+    //This test case passes when concurrent callers of the same key run its load once and all get its result, counted as one leader and followers.
+    @Test
+    public void concurrentCallersRunLoaderOnce() throws Exception {
+        final double leaders = calls("test-coalesced", "leader");
+        final double followers = calls("test-coalesced", "follower");
+        final double timeouts = calls("test-coalesced", "timeout");
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object value = new Object();
+
+        final List<Future<Object>> results = callAll("test-coalesced", () -> {
+            loads.incrementAndGet();
+            release.await();
+            return value;
+        });
+        release.countDown();
+        for (final Future<Object> result : results) {
+            assertSame(value, result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, calls("test-coalesced", "leader") - leaders, 0);
+        assertEquals(CALLERS - 1, calls("test-coalesced", "follower") - followers, 0);
+        assertEquals(0, calls("test-coalesced", "timeout") - timeouts, 0);
+    }
+
+    //This test case passes when the exception thrown by a load reaches the caller which ran it and every caller which joined it.
+    @Test
+    public void loaderExceptionReachesEveryFollower() throws Exception {
+        final double leaders = calls("test-failed", "leader");
+        final double followers = calls("test-failed", "follower");
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final IOException failure = new IOException("load failed");
+
+        final List<Future<Object>> results = callAll("test-failed", () -> {
+            loads.incrementAndGet();
+            release.await();
+            throw failure;
+        });
+        release.countDown();
+        for (final Future<Object> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("Load failure not thrown to a caller");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, calls("test-failed", "leader") - leaders, 0);
+        assertEquals(CALLERS - 1, calls("test-failed", "follower") - followers, 0);
+    }
+
+    //This test case passes when a caller which waited longer than the timeout of its group for the load it joined runs the load itself.
+    @Test
+    public void timedOutFollowerRunsLoadItself() throws Exception {
+        final double leaders = calls("test-slow", "leader");
+        final double followers = calls("test-slow", "follower");
+        final double timeouts = calls("test-slow", "timeout");
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<String> stuck = callers.submit(() -> singleFlight.execute("test-slow", "key", () -> {
+            loading.countDown();
+            release.await();
+            return "stuck";
+        }));
+        try {
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            assertEquals("own", singleFlight.execute("test-slow", "key", () -> "own"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals("stuck", stuck.get(10, TimeUnit.SECONDS));
+
+        assertEquals(1, calls("test-slow", "leader") - leaders, 0);
+        assertEquals(0, calls("test-slow", "follower") - followers, 0);
+        assertEquals(1, calls("test-slow", "timeout") - timeouts, 0);
+    }
+
+    // starts the callers of a single key and returns once the first one runs the load and the others wait for it
+    private List<Future<Object>> callAll(final String group, final Callable<Object> loader) throws InterruptedException {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                synchronized (callerThreads) {
+                    callerThreads.add(Thread.currentThread());
+                }
+                return singleFlight.execute(group, "key", () -> {
+                    loading.countDown();
+                    return loader.call();
+                });
+            }));
+        }
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        awaitFollowers();
+        return results;
+    }
+
+    // the followers are parked in the timed wait for the load, the leader in the untimed wait of the loader
+    private void awaitFollowers() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            int waiting = 0;
+            synchronized (callerThreads) {
+                for (final Thread thread : callerThreads) {
+                    if (thread.getState() == Thread.State.TIMED_WAITING) {
+                        waiting++;
+                    }
+                }
+            }
+            if (waiting == CALLERS - 1) {
+                return;
+            }
+            assertTrue("Callers did not join the load in flight", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static double calls(final String group, final String outcome) {
+        final Counter counter = Metrics.globalRegistry.find("quora.singleflight.calls").tag("group", group).tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
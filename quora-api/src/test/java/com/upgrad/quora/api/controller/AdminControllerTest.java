@@ -1,30 +1,42 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
 
 public class AdminControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
 
     //This test case passes when you try to delete the user but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void deleteWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -33,6 +45,7 @@ public class AdminControllerTest {
 
     //This test case passes when you try to delete the user but the role of the user corresponding to the JWT token entered is nonadmin.
     @Test
+    @QueryBudget(select = 2)
     public void deleteWithnonadminAsRole() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isForbidden())
@@ -42,11 +55,53 @@ public class AdminControllerTest {
 
     //This test case passes when you try to delete the user which does not exist in the database.
     @Test
+    @QueryBudget(select = 3)
     public void deleteNonExistingUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/admin/user/non_existing_user_uuid").header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when you try to get the query statistics but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    @QueryBudget(select = 2)
+    public void queryStatisticsWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/query-statistics").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin gets the query statistics.
+    @Test
+    @QueryBudget(select = 2)
+    public void queryStatistics() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/query-statistics?limit=5").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
+    }
 
+    //This test case passes when you try to get the heavy hitters but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    @QueryBudget(select = 2)
+    public void heavyHittersWithnonadminAsRole() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/admin/heavy-hitters").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin gets the heavy hitters after a question was viewed repeatedly, with the access tokens listed as digests only.
+    @Test
+    public void heavyHitters() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(7, 0, 0, 0);
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/admin/heavy-hitters?limit=32").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].key", hasItem("database_question_uuid")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].key", not(hasItem("database_accesstoken1"))))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].region", hasItem("SESSION")));
+        queryBudget.assertStatements(2, 0, 0, 0);
+    }
 }
@@ -1,31 +1,49 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
 
 public class AnswerControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
 
     //This test case passes when you try to create the answer but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void createAnswerWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -34,6 +52,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to create the answer but the user corresponding to the JWT token entered is signed out of the application.
     @Test
+    @QueryBudget(select = 3)
     public void createAnswerWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -42,6 +61,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to create the answer for the question which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void createAnswerForNonExistingQuestion() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/question/non_existing_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
@@ -50,6 +70,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to edit the answer but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void editAnswerWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -58,6 +79,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to edit the answer and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void editAnswerWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -66,6 +88,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to edit the answer which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void editNonExistingAnswer() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/answer/edit/non_existing_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
@@ -74,6 +97,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to edit the answer and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the answer.
     @Test
+    @QueryBudget(select = 7)
     public void editAnswerWithoutOwnership() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isForbidden())
@@ -82,6 +106,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to delete the answer but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void deleteAnswerWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -90,6 +115,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to delete the answer and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void deleteAnswerWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -98,6 +124,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to delete the answer which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void deleteNonExistingAnswer() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/non_existing_answer_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
@@ -106,6 +133,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to delete the answer and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the answer or he is not the admin.
     @Test
+    @QueryBudget(select = 8)
     public void deleteAnswerWithoutOwnership() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken2"))
                 .andExpect(status().isForbidden())
@@ -114,6 +142,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to get all the answers posted for a specific question but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void getAllAnswersToQuestionWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -122,6 +151,7 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to get all the answers posted for a specific question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void getAllAnswersToQuestionWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -130,11 +160,52 @@ public class AnswerControllerTest {
 
     //This test case passes when you try to get all the answers posted for a specific question which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void getAllAnswersToNonExistingQuestion() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/answer/all/non_existing_question_uuid").header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
 
+    //This test case passes when the answers posted for a specific question are sent as CBOR to the clients asking for it.
+    @Test
+    @QueryBudget(select = 6)
+    public void getAllAnswersToQuestionAsCbor() throws Exception {
+        final byte[] body = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1").header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-cbor\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+        final JsonNode answers = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("database_question_content", answers.get(0).get("questionContent").asText());
+    }
 
+    //This test case passes when the answer count and the date of the latest answer of the question follow the answers created and deleted.
+    @Test
+    public void createAndDeleteAnswerCountsAnswers() throws Exception {
+        final String question = mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(7, 0, 0, 0);
+        final int answerCount = JsonPath.read(question, "answerCount");
+
+        final String answer = mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=counted_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(8, 2, 1, 0);
+        final String answerUuid = JsonPath.read(answer, "id");
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerCount").value(answerCount + 1))
+                .andExpect(MockMvcResultMatchers.jsonPath("lastAnswerAt").isString());
+        queryBudget.assertStatements(7, 0, 0, 0);
+
+        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/" + answerUuid).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNoContent());
+        queryBudget.assertStatements(9, 1, 1, 1);
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answerCount").value(answerCount));
+        queryBudget.assertStatements(7, 0, 0, 0);
+    }
 }
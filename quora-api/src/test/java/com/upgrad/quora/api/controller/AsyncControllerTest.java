@@ -0,0 +1,72 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "quora.controller.execution.mode=bounded")
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+
+public class AsyncControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when the detail of all the questions is fetched on the controller executor and written out once the executor completes it.
+    @Test
+    @QueryBudget(select = 4)
+    public void getAllQuestions() throws Exception {
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when the exception thrown on the controller executor is mapped to its error response.
+    @Test
+    @QueryBudget(select = 1)
+    public void getAllQuestionsWithNonExistingAccessToken() throws Exception {
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when the lazy associations of the entities loaded on the controller executor can still be read while mapping the response.
+    @Test
+    @QueryBudget(select = 6)
+    public void getAllAnswersToQuestion() throws Exception {
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,168 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.stats.AnswerCountRepair;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the caches the other tests run without, empty at the start of every test so that the statements of each request are known
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.cache.session.enabled=true", "quora.cache.response.enabled=true"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+
+public class CachingControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AnswerCountRepair answerCountRepair;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when the detail of all the questions is served from the response cache once it has been fetched, and the session of the caller from the session cache.
+    @Test
+    public void getAllQuestionsFromResponseCache() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+        queryBudget.assertStatements(3, 0, 0, 0);
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+            queryBudget.assertStatements(0, 0, 0, 0);
+        }
+    }
+
+    //This test case passes when the cached answers of a question are dropped once answers are posted to it, and are sent gzip compressed to the clients accepting it.
+    @Test
+    public void getAllAnswersToQuestionAfterCreatingAnswers() throws Exception {
+        final String answers = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(5, 0, 0, 0);
+        final int answerCount = JsonPath.read(answers, "$.length()");
+
+        final String answer = StringUtils.repeat('a', 250);
+        final List<String> answerUuids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                final String created = mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=" + answer).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString();
+                answerUuids.add(JsonPath.read(created, "id"));
+                queryBudget.assertStatements(5, 2, 1, 0);
+            }
+
+            final byte[] gzippedAnswers = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+            queryBudget.assertStatements(4, 0, 0, 0);
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzippedAnswers))) {
+                final int answerCountAfter = JsonPath.read(in, "$.length()");
+                assertEquals(answerCount + 5, answerCountAfter);
+            }
+        } finally {
+            for (String answerUuid : answerUuids) {
+                mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/" + answerUuid).header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isNoContent());
+            }
+        }
+    }
+
+    //This test case passes when the answer count of a question drifted from its answers is repaired, and the cached question list shows the repaired count.
+    @Test
+    public void repairDriftedAnswerCount() throws Exception {
+        final String answers = mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(5, 0, 0, 0);
+        final int answerCount = JsonPath.read(answers, "$.length()");
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[?(@.id == 'database_question_uuid')].answerCount").value(answerCount));
+        queryBudget.assertStatements(2, 0, 0, 0);
+
+        jdbcTemplate.update("UPDATE question SET answer_count = answer_count + 5 WHERE uuid = 'database_question_uuid'");
+        assertNotEquals(0, answerCountRepair.repair());
+        queryBudget.reset();
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[?(@.id == 'database_question_uuid')].answerCount").value(answerCount));
+        queryBudget.assertStatements(2, 0, 0, 0);
+    }
+
+    //This test case passes when you signout and the JWT token, whose session was cached by a previous request, is rejected as signed out by the next request.
+    @Test
+    public void signoutInvalidatesCachedSession() throws Exception {
+        // a new user every run, the signed out token cannot be used again
+        final String userName = "signout_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        final String created = mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=" + userName + "&emailAddress=" + userName + "&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(3, 1, 0, 0);
+        final String userUuid = JsonPath.read(created, "id");
+        try {
+            final String credentials = Base64.getEncoder().encodeToString((userName + ":a").getBytes(StandardCharsets.UTF_8));
+            final String accessToken = mvc.perform(MockMvcRequestBuilders.post("/user/signin").header(HttpHeaders.AUTHORIZATION, "Basic " + credentials))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("access-token");
+            queryBudget.assertStatements(2, 1, 0, 0);
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", accessToken))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(4, 0, 0, 0);
+
+            mvc.perform(MockMvcRequestBuilders.post("/user/signout").header("authorization", accessToken))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(3, 0, 1, 0);
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", accessToken))
+                    .andExpect(status().isForbidden())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+            queryBudget.assertStatements(2, 0, 0, 0);
+        } finally {
+            mvc.perform(MockMvcRequestBuilders.delete("/admin/user/" + userUuid).header("authorization", "database_accesstoken"))
+                    .andExpect(status().isOk());
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -16,13 +21,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
 public class CommonControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
     //This test case passes when you try to get the details of the existing user and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
     @Test
+    @QueryBudget(select = 3)
     public void details() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
                 .andExpect(status().isOk());
@@ -30,6 +40,7 @@ public class CommonControllerTest {
 
     //This test case passes when you try to get the details of the existing user but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void detailsUsingNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -38,6 +49,7 @@ public class CommonControllerTest {
 
     //This test case passes when you try to get the details of the user which does not exist in the database.
     @Test
+    @QueryBudget(select = 3)
     public void detailsOfNonExistingUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/userprofile/non_existing_user").header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
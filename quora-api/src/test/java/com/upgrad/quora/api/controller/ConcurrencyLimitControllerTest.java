@@ -0,0 +1,110 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.async.ControllerExecutor;
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// a single request in flight at a time, held until its asynchronous processing is dispatched
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.controller.execution.mode=bounded", "quora.controller.execution.bounded.max-threads=1",
+        "quora.limiter.initial-limit=1", "quora.limiter.min-limit=1", "quora.limiter.max-limit=1", "quora.limiter.retry-after-seconds=2"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+
+public class ConcurrencyLimitControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ControllerExecutor controllerExecutor;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when a request above the concurrency limit is rejected with GEN-002 and a Retry-After header while another request is still being processed.
+    @Test
+    public void requestAboveLimitIsRejected() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final MvcResult inFlight = startRequestOnBusyExecutor(busy);
+        queryBudget.assertStatements(0, 0, 0, 0);
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("GEN-002"));
+            queryBudget.assertStatements(0, 0, 0, 0);
+        } finally {
+            busy.countDown();
+            mvc.perform(asyncDispatch(inFlight))
+                    .andExpect(status().isOk());
+        }
+        queryBudget.assertStatements(4, 0, 0, 0);
+    }
+
+    //This test case passes when the actuator endpoints are still reachable while the concurrency limit is reached.
+    @Test
+    public void actuatorIsNotLimited() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final MvcResult inFlight = startRequestOnBusyExecutor(busy);
+        queryBudget.assertStatements(0, 0, 0, 0);
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").doesNotExist());
+            queryBudget.assertStatements(1, 0, 0, 0);
+        } finally {
+            busy.countDown();
+            mvc.perform(asyncDispatch(inFlight))
+                    .andExpect(status().isOk());
+        }
+        queryBudget.assertStatements(4, 0, 0, 0);
+    }
+
+    //This test case passes when the permit of an asynchronous request is released once its processing completes, so that the next request is served.
+    @Test
+    public void permitIsReleasedAfterAsyncRequest() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch busy = new CountDownLatch(1);
+            final MvcResult result = startRequestOnBusyExecutor(busy);
+            busy.countDown();
+            mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(4, 0, 0, 0);
+        }
+    }
+
+    // the single controller thread waits for the latch, so that the request is still in flight once the filters return
+    private MvcResult startRequestOnBusyExecutor(final CountDownLatch busy) throws Exception {
+        controllerExecutor.submit(() -> {
+            busy.await();
+            return null;
+        });
+        return mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
@@ -0,0 +1,98 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// invalidations of the other test contexts are not listened to, their questions would be indexed during other tests
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.search.engine=memory", "quora.cache.invalidation.enabled=false"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+@DirtiesContext
+
+public class InMemorySearchControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private QuestionSearchIndex searchIndex;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when you search the questions and the question whose content contains the searched word is returned from the in-memory index.
+    @Test
+    @QueryBudget(select = 3)
+    public void searchQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?q=database").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+    }
+
+    //This test case passes when a question is found by its content once created, by its new content once edited, and no longer once deleted.
+    @Test
+    public void searchQuestionsFollowsQuestionChanges() throws Exception {
+        final String created = mvc.perform(MockMvcRequestBuilders.post("/question/create?content=indexed in memory").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(7, 2, 0, 0);
+        final String questionUuid = JsonPath.read(created, "id");
+        try {
+            awaitIndexed("indexed memory", true);
+            mvc.perform(MockMvcRequestBuilders.get("/question/search?q=indexed memory").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value(questionUuid));
+            queryBudget.assertStatements(3, 0, 0, 0);
+
+            mvc.perform(MockMvcRequestBuilders.put("/question/edit/" + questionUuid + "?content=reindexed after edit").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(6, 1, 1, 0);
+            awaitIndexed("indexed memory", false);
+            mvc.perform(MockMvcRequestBuilders.get("/question/search?q=reindexed edit").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("questions[0].content").value("reindexed after edit"));
+            queryBudget.assertStatements(3, 0, 0, 0);
+        } finally {
+            // deleted even when an assertion fails, the next run would have its creation rejected as a duplicate
+            mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isNoContent());
+        }
+        queryBudget.assertStatements(7, 1, 0, 1);
+        awaitIndexed("reindexed edit", false);
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?q=reindexed edit").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions").isEmpty());
+        queryBudget.assertStatements(3, 0, 0, 0);
+    }
+
+    // the index follows the changes a few milliseconds after their commit
+    private void awaitIndexed(final String query, final boolean found) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (searchIndex.search(query, null, 1).isEmpty() == found) {
+            assertTrue("Search index did not follow the question change", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
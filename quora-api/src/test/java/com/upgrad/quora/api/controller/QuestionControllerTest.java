@@ -1,31 +1,92 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.jayway.jsonpath.JsonPath;
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.dao.TrendingQuestionDao;
+import com.upgrad.quora.service.exception.InvalidCursorException;
+import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.page.QuestionWithAnswers;
+import com.upgrad.quora.service.stats.QuestionViewCounters;
+import com.upgrad.quora.service.stats.TrendingQuestion;
+import com.upgrad.quora.service.stats.TrendingQuestions;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
 
 public class QuestionControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private QuestionViewCounters questionViewCounters;
+
+    @Autowired
+    private TrendingQuestions trendingQuestions;
+
+    @Autowired
+    private TrendingQuestionDao trendingQuestionDao;
+
+    @Autowired
+    private QuestionBusinessService questionBusinessService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
 
     //This test case passes when you try to create the question but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void createQuestionWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -34,21 +95,83 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to create the question but the user corresponding to the JWT token entered is signed out of the application.
     @Test
+    @QueryBudget(select = 3)
     public void createQuestionWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
 
+    //This test case passes when you try to create a question whose content differs from the content of an existing question only by its case and punctuation.
+    @Test
+    @QueryBudget(select = 6)
+    public void createDuplicateQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=Database question, content?").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-002"));
+    }
+
+    //This test case passes when near-duplicate questions posted at the same time are created once, the others being rejected as duplicates of it.
+    @Test
+    public void createNearDuplicateQuestionsConcurrently() throws Exception {
+        // words of this run only, the variants differ by their case and punctuation
+        final String words = "concurrent duplicate " + UUID.randomUUID().toString().replaceAll("[^a-f]", "");
+        final ExecutorService clients = Executors.newFixedThreadPool(8);
+        final List<String> created = new ArrayList<>();
+        try {
+            final List<Callable<MvcResult>> posts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final String content = (i % 2 == 0 ? words.toUpperCase() : words) + (i % 3 == 0 ? "?" : "!");
+                posts.add(() -> mvc.perform(MockMvcRequestBuilders.post("/question/create?content=" + content).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                        .andReturn());
+            }
+            int conflicts = 0;
+            for (Future<MvcResult> post : clients.invokeAll(posts)) {
+                final MvcResult result = post.get();
+                if (result.getResponse().getStatus() == HttpStatus.CREATED.value()) {
+                    created.add(JsonPath.read(result.getResponse().getContentAsString(), "id"));
+                } else {
+                    assertEquals(HttpStatus.CONFLICT.value(), result.getResponse().getStatus());
+                    conflicts++;
+                }
+            }
+            assertEquals(1, created.size());
+            assertEquals(7, conflicts);
+        } finally {
+            clients.shutdown();
+            for (String questionUuid : created) {
+                mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isNoContent());
+            }
+        }
+    }
+
     //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
     @Test
+    @QueryBudget(select = 4)
     public void getAllQuestions() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isOk());
     }
 
+    //This test case passes when the detail of all the questions is not sent again to a client holding its current version.
+    @Test
+    public void getAllQuestionsNotModified() throws Exception {
+        final String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        queryBudget.assertStatements(4, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        queryBudget.assertStatements(3, 0, 0, 0);
+    }
+
     //This test case passes when you try to get the detail of all the questions but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void getAllQuestionsWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -57,14 +180,294 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void getAllQuestionsWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
 
+    //This test case passes when you search the questions and the question whose content contains the searched word is returned.
+    @Test
+    @QueryBudget(select = 4)
+    public void searchQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?q=database").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[?(@.id == 'database_question_uuid')].content").value("database_question_content"))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").doesNotExist());
+    }
+
+    //This test case passes when you search the questions a page at a time and the next page starts after the questions of the previous one.
+    @Test
+    public void searchQuestionsPageByPage() throws Exception {
+        final List<String> questionUuids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final String created = mvc.perform(MockMvcRequestBuilders.post("/question/create?content=paged search question " + i).contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString();
+                questionUuids.add(JsonPath.read(created, "id"));
+                queryBudget.assertStatements(8, 2, 0, 0);
+            }
+            final String firstPage = mvc.perform(MockMvcRequestBuilders.get("/question/search?q=paged search&limit=1").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("nextCursor").exists())
+                    .andReturn().getResponse().getContentAsString();
+            queryBudget.assertStatements(4, 0, 0, 0);
+            final String secondPage = mvc.perform(MockMvcRequestBuilders.get("/question/search?q=paged search&limit=1")
+                    .param("cursor", JsonPath.<String>read(firstPage, "nextCursor")).header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("questions.length()").value(1))
+                    .andReturn().getResponse().getContentAsString();
+            queryBudget.assertStatements(4, 0, 0, 0);
+            assertNotEquals(JsonPath.<String>read(firstPage, "questions[0].id"), JsonPath.<String>read(secondPage, "questions[0].id"));
+        } finally {
+            // the same contents would be rejected as duplicates by the next run
+            for (String questionUuid : questionUuids) {
+                mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isNoContent());
+            }
+        }
+    }
+
+    //This test case passes when you search the questions with a cursor which was not returned by a previous search.
+    @Test
+    @QueryBudget(select = 3)
+    public void searchQuestionsWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?q=database&cursor=not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("SRCH-002"));
+    }
+
+    //This test case passes when you search the questions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    @QueryBudget(select = 3)
+    public void searchQuestionsWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/search?q=database").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you ask for suggestions of a prefix typed in another case and the question starting with it is suggested.
+    @Test
+    @QueryBudget(select = 3)
+    public void suggestQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/suggest?prefix=Database_Quest").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[?(@.id == 'database_question_uuid')].content").value("database_question_content"));
+    }
+
+    //This test case passes when you ask for suggestions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    @QueryBudget(select = 3)
+    public void suggestQuestionsWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/suggest?prefix=database").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you view an existing question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    @QueryBudget(select = 7)
+    public void viewQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value("database_question_uuid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("content").value("database_question_content"))
+                .andExpect(MockMvcResultMatchers.jsonPath("views").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("uniqueViewers").isNumber());
+    }
+
+    //This test case passes when the views of two users are counted in memory, then flushed to the database and still counted once each.
+    @Test
+    public void viewQuestionCountsFlushedViews() throws Exception {
+        final long views = ((Number) JsonPath.read(mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(), "views")).longValue();
+        queryBudget.assertStatements(7, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken2"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("views").value(views + 1));
+        queryBudget.assertStatements(8, 0, 0, 0);
+
+        questionViewCounters.flush();
+        queryBudget.assertStatements(1, 1, 1, 0);
+
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("views").value(views + 2))
+                .andExpect(MockMvcResultMatchers.jsonPath("uniqueViewers").value(2));
+        queryBudget.assertStatements(7, 0, 0, 0);
+    }
+
+    //This test case passes when you get a question with its answers and the question comes once with its oldest answer first.
+    @Test
+    public void getQuestionWithAnswers() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("question.id").value("database_question_uuid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("question.content").value("database_question_content"))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].id").value("database_answer_uuid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].answerContent").value("my_answer"))
+                .andExpect(MockMvcResultMatchers.jsonPath("answers[0].questionContent").doesNotExist());
+        queryBudget.assertStatements(4, 0, 0, 0);
+
+        // past the authorization, the question and its page of answers are read by a single query
+        final QuestionWithAnswers page = questionBusinessService.getQuestionWithAnswers("database_question_uuid", null, 10);
+        queryBudget.assertStatements(1, 0, 0, 0);
+        assertEquals("database_answer_uuid", page.getAnswers().get(0).getAnswerUuid());
+    }
+
+    //This test case passes when the pages of the answers of a question, read one answer at a time with the cursors, hold every answer once.
+    @Test
+    public void getQuestionWithAnswersPaged() throws Exception {
+        jdbcTemplate.update("INSERT INTO answer (uuid, ans, date, user_id, question_id) VALUES ('paged_answer_uuid', 'paged_answer', now(), 1026, 1024)");
+        try {
+            // read from the table, the answer inserted behind the back of the application does not change the cached answer lists
+            final List<String> expectedIds = jdbcTemplate.queryForList("SELECT uuid FROM answer WHERE question_id = 1024", String.class);
+            queryBudget.reset();
+
+            final List<String> pagedIds = new ArrayList<>();
+            String cursor = null;
+            do {
+                final String page = mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full?limit=1" + (cursor == null ? "" : "&cursor=" + cursor))
+                        .header("authorization", "database_accesstoken1"))
+                        .andExpect(status().isOk())
+                        .andExpect(MockMvcResultMatchers.jsonPath("answers.length()").value(1))
+                        .andReturn().getResponse().getContentAsString();
+                pagedIds.add(JsonPath.read(page, "answers[0].id"));
+                queryBudget.assertStatements(4, 0, 0, 0);
+                cursor = JsonPath.<Map<String, Object>>read(page, "$").containsKey("nextCursor") ? JsonPath.read(page, "nextCursor") : null;
+            } while (cursor != null);
+
+            assertEquals(new HashSet<>(expectedIds), new HashSet<>(pagedIds));
+            assertEquals(expectedIds.size(), pagedIds.size());
+            assertEquals("paged_answer_uuid", pagedIds.get(pagedIds.size() - 1));
+
+            // so is a page following a cursor
+            final String cursorOfSecondPage = questionBusinessService.getQuestionWithAnswers("database_question_uuid", null, 1).getNext().encode();
+            queryBudget.reset();
+            final QuestionWithAnswers secondPage = questionBusinessService.getQuestionWithAnswers("database_question_uuid", cursorOfSecondPage, 1);
+            queryBudget.assertStatements(1, 0, 0, 0);
+            assertEquals(pagedIds.get(1), secondPage.getAnswers().get(0).getAnswerUuid());
+        } finally {
+            jdbcTemplate.update("DELETE FROM answer WHERE uuid = 'paged_answer_uuid'");
+        }
+    }
+
+    //This test case passes when you get a question with its answers with a cursor which was not returned by a previous page.
+    @Test
+    public void getQuestionWithAnswersWithInvalidCursor() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full?cursor=not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ANS-002"));
+        queryBudget.assertStatements(3, 0, 0, 0);
+
+        // the cursor is rejected before any query
+        try {
+            questionBusinessService.getQuestionWithAnswers("database_question_uuid", "not_a_cursor", 10);
+            fail("Invalid cursor accepted");
+        } catch (InvalidCursorException e) {
+            assertEquals("ANS-002", e.getCode());
+        }
+        queryBudget.assertStatements(0, 0, 0, 0);
+    }
+
+    //This test case passes when you get a question with its answers and the question does not exist in the database.
+    @Test
+    public void getNonExistingQuestionWithAnswers() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/non_existing_question_uuid/full").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+        queryBudget.assertStatements(4, 0, 0, 0);
+
+        // the missing question is told by the empty result of the single query
+        try {
+            questionBusinessService.getQuestionWithAnswers("non_existing_question_uuid", null, 10);
+            fail("Non existing question found");
+        } catch (InvalidQuestionException e) {
+            assertEquals("QUES-001", e.getCode());
+        }
+        queryBudget.assertStatements(1, 0, 0, 0);
+    }
+
+    //This test case passes when you try to view a question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    @QueryBudget(select = 3)
+    public void viewQuestionWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you get the trending questions after viewing a question and the viewed question is ranked with a positive score.
+    @Test
+    public void trendingQuestions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.assertStatements(7, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.get("/question/trending?limit=50").header("authorization", "database_accesstoken2"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].id", hasItem("database_question_uuid")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].trendingScore").isNumber());
+        queryBudget.assertStatements(3, 0, 0, 0);
+    }
+
+    //This test case passes when the snapshot of the trending questions is saved to the database with the viewed question in it.
+    @Test
+    public void trendingQuestionsSnapshot() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.assertStatements(7, 0, 0, 0);
+        trendingQuestions.snapshot();
+        queryBudget.assertStatements(0, 1, 0, 1);
+        assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject("SELECT count(*) FROM question_trending WHERE question_id = 1024", Integer.class));
+    }
+
+    //This test case passes when snapshots of the trending questions saved at the same time, as by several nodes, wait for each other instead of failing on the questions saved by the other.
+    @Test
+    @QueryBudget(select = 1)
+    public void concurrentTrendingQuestionsSnapshots() throws Exception {
+        final List<TrendingQuestion> trends = Collections.singletonList(new TrendingQuestion("database_question_uuid", "database_question_content", 1));
+        final ExecutorService nodes = Executors.newFixedThreadPool(4);
+        try {
+            final List<Callable<Void>> snapshots = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                snapshots.add(() -> {
+                    trendingQuestionDao.saveSnapshot(trends, System.currentTimeMillis());
+                    return null;
+                });
+            }
+            for (Future<Void> snapshot : nodes.invokeAll(snapshots)) {
+                snapshot.get();
+            }
+        } finally {
+            nodes.shutdown();
+        }
+        assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject("SELECT count(*) FROM question_trending WHERE question_id = 1024", Integer.class));
+    }
+
+    //This test case passes when you try to get the trending questions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
+    @Test
+    @QueryBudget(select = 3)
+    public void trendingQuestionsWithSignedOutUser() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/trending").header("authorization", "database_accesstoken3"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
+    }
+
+    //This test case passes when you try to view a question which does not exist in the database.
+    @Test
+    @QueryBudget(select = 4)
+    public void viewNonExistingQuestion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/question/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+    }
+
     //This test case passes when you try to edit the question but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void editQuestionWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -73,6 +476,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to edit the question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void editQuestionWithWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -81,6 +485,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to edit the question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the question.
     @Test
+    @QueryBudget(select = 7)
     public void editQuestionWithoutOwnership() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isForbidden())
@@ -89,6 +494,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to edit the question which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void editNonExistingQuestion() throws Exception {
         mvc.perform(MockMvcRequestBuilders.put("/question/edit/non_exisitng_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
@@ -97,6 +503,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to delete the question but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void deleteQuestionWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -105,6 +512,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to delete the question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void deleteQuestionWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -113,6 +521,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to delete the question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the question or he is not the admin.
     @Test
+    @QueryBudget(select = 7)
     public void deleteQuestionWithoutOwnership() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken2"))
                 .andExpect(status().isForbidden())
@@ -122,14 +531,67 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to delete the question which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void deleteNoneExistingQuestion() throws Exception {
         mvc.perform(MockMvcRequestBuilders.delete("/question/delete/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
 
+    //This test case passes when the questions posted by a specific user are sent again only once the user has posted a new question.
+    @Test
+    public void getAllQuestionsByUserNotModifiedUntilQuestionCreated() throws Exception {
+        final String etag = mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        queryBudget.assertStatements(4, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        queryBudget.assertStatements(3, 0, 0, 0);
+        final String created = mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        queryBudget.assertStatements(8, 2, 0, 0);
+        final String questionUuid = JsonPath.read(created, "id");
+        try {
+            final String newEtag = mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.content == 'my_question')]").exists())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            queryBudget.assertStatements(4, 0, 0, 0);
+            assertNotEquals(etag, newEtag);
+        } finally {
+            mvc.perform(MockMvcRequestBuilders.delete("/question/delete/" + questionUuid).header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    //This test case passes when the questions posted by a specific user are sent as protobuf to the clients asking for it, as described by proto/quora.proto.
+    @Test
+    @QueryBudget(select = 4)
+    public void getAllQuestionsByUserAsProtobuf() throws Exception {
+        final byte[] body = mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1").header(HttpHeaders.ACCEPT, "application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        final NativeProtobufSchema schema;
+        try (InputStream proto = new ClassPathResource("proto/quora.proto").getInputStream()) {
+            schema = ProtobufSchemaLoader.std.loadNative(proto, false);
+        }
+        final JsonNode questions = new ProtobufMapper().readerFor(JsonNode.class).with(schema.forType("QuestionDetailsResponseList")).readValue(body);
+        // the questions of a user are not sent in any particular order
+        String content = null;
+        for (final JsonNode question : questions.get("items")) {
+            if ("database_question_uuid".equals(question.get("id").asText())) {
+                content = question.get("content").asText();
+            }
+        }
+        assertEquals("database_question_content", content);
+    }
+
     //This test case passes when you try to get all the questions posted by a specific user but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void getAllQuestionsByUserWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
@@ -138,6 +600,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to get all the questions posted by a specific user and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
+    @QueryBudget(select = 3)
     public void getAllQuestionsByUserWithSignedOutUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
@@ -146,6 +609,7 @@ public class QuestionControllerTest {
 
     //This test case passes when you try to get all the questions posted by a specific user which does not exist in the database.
     @Test
+    @QueryBudget(select = 4)
     public void getAllQuestionsForNonExistingUser() throws Exception {
         mvc.perform(MockMvcRequestBuilders.get("/question/all/non_existing_user_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
@@ -0,0 +1,152 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.datasource.RoutingTarget;
+import com.upgrad.quora.service.datasource.RoutingTargets;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// a second pool on the test database stands in for the replica, the health checks are only run by the tests
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.datasource.replicas[0].url=${spring.datasource.url}",
+        "quora.datasource.health.check-interval-ms=3600000", "quora.datasource.health.failure-threshold=2",
+        "quora.datasource.health.recovery-threshold=2", "quora.cache.response.enabled=true"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+
+public class ReplicaRoutingControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RoutingTargets routingTargets;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when the read-only transactions of a request reading a question with its answers are served by the replica.
+    @Test
+    @QueryBudget(select = 4)
+    public void readRequestIsServedByReplica() throws Exception {
+        final long replicaAcquisitions = acquisitions(replica());
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        assertTrue("Replica not used", acquisitions(replica()) > replicaAcquisitions);
+    }
+
+    //This test case passes when the lookups of the requests writing a question or an answer are served by the primary, which the replica may lag behind.
+    @Test
+    public void writeRequestLookupsAreServedByPrimary() throws Exception {
+        final long replicaAcquisitions = acquisitions(replica());
+        mvc.perform(MockMvcRequestBuilders.put("/question/edit/non_existing_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+        queryBudget.assertStatements(4, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.post("/question/non_existing_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+        queryBudget.assertStatements(4, 0, 0, 0);
+        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
+        queryBudget.assertStatements(4, 0, 0, 0);
+        assertEquals(replicaAcquisitions, acquisitions(replica()));
+    }
+
+    //This test case passes when an ejected replica no longer serves the reads, which go to the primary, until the health checks take it back.
+    @Test
+    public void ejectedReplicaIsNotUsedUntilHealthy() throws Exception {
+        final RoutingTarget replica = replica();
+        try {
+            replica.recordFailure(2, "failure injected by the test");
+            replica.recordFailure(2, "failure injected by the test");
+            assertFalse(replica.isHealthy());
+
+            final long replicaAcquisitions = acquisitions(replica);
+            mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk());
+            queryBudget.assertStatements(4, 0, 0, 0);
+            assertEquals(replicaAcquisitions, acquisitions(replica));
+
+            routingTargets.checkHealth();
+            assertFalse("Replica taken back after a single successful check", replica.isHealthy());
+            routingTargets.checkHealth();
+            assertTrue(replica.isHealthy());
+            queryBudget.assertStatements(0, 0, 0, 0);
+        } finally {
+            replica.recordSuccess(1);
+        }
+        final long replicaAcquisitions = acquisitions(replica);
+        mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.assertStatements(4, 0, 0, 0);
+        assertTrue("Replica not used once healthy again", acquisitions(replica) > replicaAcquisitions);
+    }
+
+    //This test case passes when the request filling the response cache after a change reads the primary from its authorization on, the replica may not have replayed the change the new version counts yet.
+    @Test
+    public void responseCacheFillIsServedByPrimary() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.reset();
+
+        // served from the response cache, only the authorization may read the database
+        long replicaAcquisitions = acquisitions(replica());
+        long primaryAcquisitions = acquisitions(routingTargets.getPrimary());
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.assertStatements(3, 0, 0, 0);
+        final long hitPrimaryAcquisitions = acquisitions(routingTargets.getPrimary()) - primaryAcquisitions;
+
+        // a new version of the answers, as if another node changed them
+        invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, "database_question_uuid");
+        queryBudget.reset();
+        replicaAcquisitions = acquisitions(replica());
+        primaryAcquisitions = acquisitions(routingTargets.getPrimary());
+        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+        queryBudget.assertStatements(6, 0, 0, 0);
+        assertEquals("Response cache filled from the replica", replicaAcquisitions, acquisitions(replica()));
+        assertTrue(acquisitions(routingTargets.getPrimary()) - primaryAcquisitions > hitPrimaryAcquisitions);
+    }
+
+    private RoutingTarget replica() {
+        return routingTargets.getReplicas().get(0);
+    }
+
+    // connections handed out by the pool of the target so far
+    private long acquisitions(final RoutingTarget target) {
+        final Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", target.getName()).timer();
+        return acquire == null ? 0 : acquire.count();
+    }
+}
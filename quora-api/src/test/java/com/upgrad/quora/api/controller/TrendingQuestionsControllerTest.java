@@ -0,0 +1,71 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.stats.TrendingQuestion;
+import com.upgrad.quora.service.stats.TrendingQuestions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// few questions scored, so that a test fills them up; the questions viewed do not exist and are left out of the snapshots
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.trending.max-questions=8", "quora.trending.top-k=4"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+
+public class TrendingQuestionsControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TrendingQuestions trendingQuestions;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when a question viewed after the scored questions are full is ranked once the maintenance it runs makes room for it.
+    @Test
+    @QueryBudget(select = 3)
+    public void questionViewedOnceScoredQuestionsAreFullIsRanked() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            trendingQuestions.recordView("trending_cold_question_" + i, "cold_question_" + i);
+        }
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!isTrending("trending_hot_question")) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Question viewed once the scored questions were full never ranked");
+            }
+            trendingQuestions.recordView("trending_hot_question", "hot_question");
+            Thread.sleep(10);
+        }
+        mvc.perform(MockMvcRequestBuilders.get("/question/trending?limit=4").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].id", hasItem("trending_hot_question")));
+    }
+
+    private boolean isTrending(final String questionUuid) {
+        for (final TrendingQuestion trendingQuestion : trendingQuestions.getTrending(trendingQuestions.getTopK())) {
+            if (trendingQuestion.getUuid().equals(questionUuid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
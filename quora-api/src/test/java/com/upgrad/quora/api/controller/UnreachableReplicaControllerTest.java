@@ -0,0 +1,75 @@
+package com.upgrad.quora.api.controller;
+
+
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import com.upgrad.quora.service.datasource.RoutingTarget;
+import com.upgrad.quora.service.datasource.RoutingTargets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// nothing listens on the port of the replica, the health checks are only run by the tests
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"quora.datasource.replicas[0].url=jdbc:postgresql://localhost:1/quora",
+        "quora.datasource.replicas[0].connection-timeout-ms=250", "quora.datasource.health.check-interval-ms=3600000",
+        "quora.datasource.health.failure-threshold=2"})
+@AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
+
+public class UnreachableReplicaControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RoutingTargets routingTargets;
+
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
+
+    //This test case passes when the reads are served by the primary while the replica in rotation refuses the connections, and the replica is ejected after the configured number of failures.
+    @Test
+    public void readFallsBackToPrimaryAndEjectsReplica() throws Exception {
+        final RoutingTarget replica = routingTargets.getReplicas().get(0);
+        // back in rotation, as if it had passed its health checks
+        replica.recordSuccess(1);
+        assertTrue(replica.isHealthy());
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/question/database_question_uuid/full").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("question.content").value("database_question_content"));
+            queryBudget.assertStatements(4, 0, 0, 0);
+        }
+        assertFalse("Replica refusing connections still in rotation", replica.isHealthy());
+    }
+
+    //This test case passes when the health checks eject the replica which cannot be reached, and keep the primary in rotation.
+    @Test
+    @QueryBudget(select = 0)
+    public void healthChecksEjectUnreachableReplica() throws Exception {
+        final RoutingTarget replica = routingTargets.getReplicas().get(0);
+        replica.recordSuccess(1);
+        assertTrue(replica.isHealthy());
+
+        routingTargets.checkHealth();
+        routingTargets.checkHealth();
+        assertFalse("Unreachable replica still in rotation", replica.isHealthy());
+        assertTrue(routingTargets.getPrimary().isHealthy());
+    }
+}
@@ -1,10 +1,15 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.jdbc.QueryBudget;
+import com.upgrad.quora.api.jdbc.QueryBudgetRule;
+import com.upgrad.quora.api.jdbc.QueryCountingConfiguration;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -16,13 +21,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(QueryCountingConfiguration.class)
 public class UserControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Rule
+    public final QueryBudgetRule queryBudget = new QueryBudgetRule();
+
     //This test case passes when you signup with a username that already exists in the database.
     @Test
+    @QueryBudget(select = 1)
     public void signupWithRepeatedUserName() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=database_username&emailAddress=a&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isConflict())
@@ -31,6 +41,7 @@ public class UserControllerTest {
 
     //This test case passes when you signup with an email that already exists in the database.
     @Test
+    @QueryBudget(select = 2)
     public void signupWithRepeatedEmail() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=database_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isConflict())
@@ -40,6 +51,7 @@ public class UserControllerTest {
 
     //This test case passes when you try to signout but the JWT token entered does not exist in the database.
     @Test
+    @QueryBudget(select = 1)
     public void signoutWithNonExistingAccessToken() throws Exception {
         mvc.perform(MockMvcRequestBuilders.post("/user/signout").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isUnauthorized())
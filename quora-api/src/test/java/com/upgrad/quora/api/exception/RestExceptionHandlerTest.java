@@ -0,0 +1,58 @@
+package com.upgrad.quora.api.exception;
+
+
+import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.exception.InvalidQuestionException;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RestExceptionHandlerTest {
+
+    private final RestExceptionHandler restExceptionHandler = new RestExceptionHandler();
+
+
+    //This test case passes when a domain exception is created without a stack trace, unless the JVM is started to capture them.
+    @Test
+    public void domainExceptionHasNoStackTrace() {
+        final InvalidQuestionException exception = new InvalidQuestionException("QUES-001", "The question entered is invalid");
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    //This test case passes when the requests failing with the same error code and message get the same response.
+    @Test
+    public void failedRequestsShareResponse() {
+        final ResponseEntity<ErrorResponse> response = restExceptionHandler.invalidQuestionExceptionHandler(
+                new InvalidQuestionException("QUES-001", "The question entered is invalid"), null);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("QUES-001", response.getBody().getCode());
+        assertEquals("The question entered is invalid", response.getBody().getMessage());
+
+        assertSame(response, restExceptionHandler.invalidQuestionExceptionHandler(
+                new InvalidQuestionException("QUES-001", "The question entered is invalid"), null));
+    }
+
+    //This test case passes when the responses of an error code coming with more messages than are shared are built per request, while the ones already shared still are.
+    @Test
+    public void responsesBuiltPerRequestPastMaxMessagesPerCode() {
+        final ErrorResponses errorResponses = new ErrorResponses(HttpStatus.BAD_REQUEST);
+        for (int i = 0; i < ErrorResponses.MAX_MESSAGES_PER_CODE; i++) {
+            assertSame(errorResponses.get("SRCH-001", "message " + i), errorResponses.get("SRCH-001", "message " + i));
+        }
+
+        final String message = "message " + ErrorResponses.MAX_MESSAGES_PER_CODE;
+        final ResponseEntity<ErrorResponse> response = errorResponses.get("SRCH-001", message);
+        assertNotSame(response, errorResponses.get("SRCH-001", message));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("SRCH-001", response.getBody().getCode());
+        assertEquals(message, response.getBody().getMessage());
+
+        assertSame(errorResponses.get("SRCH-001", "message 0"), errorResponses.get("SRCH-001", "message 0"));
+        // the other codes are still shared
+        assertSame(errorResponses.get("SRCH-002", message), errorResponses.get("SRCH-002", message));
+    }
+}
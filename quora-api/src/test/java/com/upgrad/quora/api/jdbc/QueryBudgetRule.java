@@ -0,0 +1,52 @@
+package com.upgrad.quora.api.jdbc;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.util.Map;
+
+/**
+ * Fails a test whose request runs other statements than its {@link QueryBudget}, so that N+1 selects and repeated
+ * lookups show up as test failures, a single extra statement included. The counts start from zero with every test; a
+ * test sending several requests checks each of them with {@link #assertStatements} instead, and may skip the
+ * statements of its own setup with {@link #reset}.
+ * <p>
+ * The counts are exact, which requires every request to run the same statements whichever tests ran before it in the
+ * same context: the tests run with the session and response caches disabled, except the ones about the caches, which
+ * start each test from a new context.
+ */
+public class QueryBudgetRule implements TestRule {
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        final QueryBudget budget = description.getAnnotation(QueryBudget.class);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                StatementCounter.reset();
+                base.evaluate();
+                if (budget != null) {
+                    assertStatements(budget.select(), budget.insert(), budget.update(), budget.delete());
+                }
+            }
+        };
+    }
+
+    public void reset() {
+        StatementCounter.reset();
+    }
+
+    /**
+     * Checks the statements run since the start of the test or the previous check, then counts from zero again.
+     */
+    public void assertStatements(final int select, final int insert, final int update, final int delete) {
+        final Map<StatementType, Long> counts = StatementCounter.counts();
+        StatementCounter.reset();
+        if (counts.get(StatementType.SELECT) != select || counts.get(StatementType.INSERT) != insert
+                || counts.get(StatementType.UPDATE) != update || counts.get(StatementType.DELETE) != delete) {
+            throw new AssertionError(String.format("Unexpected statements: expected select=%d insert=%d update=%d delete=%d but ran %s",
+                    select, insert, update, delete, counts));
+        }
+    }
+}
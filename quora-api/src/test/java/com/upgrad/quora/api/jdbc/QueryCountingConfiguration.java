@@ -0,0 +1,31 @@
+package com.upgrad.quora.api.jdbc;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the statements of the application data source, to be imported by the tests using the {@link QueryBudgetRule}.
+ * The statements of the controllers run on the controller executor count for the test sending the request.
+ */
+@TestConfiguration
+public class QueryCountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                return bean instanceof DataSource ? StatementCountingDataSource.wrap((DataSource) bean) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public TaskDecorator statementCountingTaskDecorator() {
+        return StatementCounter::countedAsCaller;
+    }
+}
@@ -0,0 +1,74 @@
+package com.upgrad.quora.api.jdbc;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts of the statements executed through the {@link StatementCountingDataSource} since the last reset, by the
+ * thread which reset them and by the controller threads running its requests. A batched statement counts once per
+ * batch entry, since it costs a row round trip on the server all the same.
+ * <p>
+ * The statements of the other threads, such as the flushes of the view counters, the maintenance of the trending
+ * questions, the rebuilds of the suggester or the repair of the answer counts at startup, are not counted, whichever
+ * test happens to be running when they do.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<AtomicLongArray> COUNTS = new ThreadLocal<AtomicLongArray>();
+
+    private StatementCounter() {
+    }
+
+    static void increment(final StatementType type) {
+        final AtomicLongArray counts = COUNTS.get();
+        if (counts != null) {
+            counts.incrementAndGet(type.ordinal());
+        }
+    }
+
+    /**
+     * Starts counting the statements of the current thread from zero, along with those of the requests it sent which
+     * are still running.
+     */
+    public static void reset() {
+        final AtomicLongArray counts = COUNTS.get();
+        if (counts == null) {
+            COUNTS.set(new AtomicLongArray(StatementType.values().length));
+            return;
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public static long count(final StatementType type) {
+        final AtomicLongArray counts = COUNTS.get();
+        return counts == null ? 0 : counts.get(type.ordinal());
+    }
+
+    public static Map<StatementType, Long> counts() {
+        final Map<StatementType, Long> counts = new EnumMap<StatementType, Long>(StatementType.class);
+        for (final StatementType type : StatementType.values()) {
+            counts.put(type, count(type));
+        }
+        return counts;
+    }
+
+    /**
+     * @param task - task to be run on another thread on behalf of the current one
+     * @return the task, its statements counted along with those of the current thread
+     */
+    public static Runnable countedAsCaller(final Runnable task) {
+        final AtomicLongArray counts = COUNTS.get();
+        return () -> {
+            final AtomicLongArray previous = COUNTS.get();
+            COUNTS.set(counts);
+            try {
+                task.run();
+            } finally {
+                COUNTS.set(previous);
+            }
+        };
+    }
+}
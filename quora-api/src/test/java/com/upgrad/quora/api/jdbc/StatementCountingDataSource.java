@@ -0,0 +1,83 @@
+package com.upgrad.quora.api.jdbc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Wraps a data source so that every statement executed on its connections is counted by the {@link StatementCounter}.
+ */
+public final class StatementCountingDataSource {
+
+    private StatementCountingDataSource() {
+    }
+
+    public static DataSource wrap(final DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            final Object result = invoke(target, method, args);
+            return result instanceof Connection ? connection((Connection) result) : result;
+        });
+    }
+
+    private static Connection connection(final Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            final Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+                final Class<? extends Statement> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                return preparedStatement(type, (PreparedStatement) result, StatementType.of((String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return statement((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    // the SQL is known upfront, every execution and batch entry counts
+    private static Statement preparedStatement(final Class<? extends Statement> type, final PreparedStatement statement, final StatementType statementType) {
+        return proxy(type, statement, (target, method, args) -> {
+            final String name = method.getName();
+            if ((name.startsWith("execute") && !name.equals("executeBatch") && (args == null || args.length == 0)) || (name.equals("addBatch") && args == null)) {
+                StatementCounter.increment(statementType);
+            } else if (name.startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String) {
+                StatementCounter.increment(StatementType.of((String) args[0]));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    // the SQL comes with each execution
+    private static Statement statement(final Statement statement) {
+        return proxy(Statement.class, statement, (target, method, args) -> {
+            final String name = method.getName();
+            if ((name.startsWith("execute") || name.equals("addBatch")) && args != null && args.length > 0 && args[0] instanceof String) {
+                StatementCounter.increment(StatementType.of((String) args[0]));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<? extends T> type, final T target, final Handler handler) {
+        final InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,39 @@
+package com.upgrad.quora.api.jdbc;
+
+/**
+ * Kind of an SQL statement, from its first keyword.
+ */
+public enum StatementType {
+
+    SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+    static StatementType of(final String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        final String trimmed = sql.trim();
+        final int end = firstWordEnd(trimmed);
+        final String keyword = trimmed.substring(0, end).toLowerCase();
+        switch (keyword) {
+            case "select":
+            case "with":
+                return SELECT;
+            case "insert":
+                return INSERT;
+            case "update":
+                return UPDATE;
+            case "delete":
+                return DELETE;
+            default:
+                return OTHER;
+        }
+    }
+
+    private static int firstWordEnd(final String sql) {
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,83 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of the entity lists to the response lists of {@code GET /question/all} and
+ * {@code GET /answer/all/{questionId}}. Lives in the controller package to reach the package-private mapping methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private QuestionEntity question;
+
+    private List<QuestionEntity> questions;
+
+    private List<AnswerEntity> answers;
+
+    @Setup
+    public void setUp() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        question = new QuestionEntity();
+        question.setUuid(UUID.randomUUID().toString());
+        question.setContent("What is the cost of mapping entities to responses?");
+        question.setDate(now);
+
+        questions = new ArrayList<QuestionEntity>(size);
+        answers = new ArrayList<AnswerEntity>(size);
+        for (int i = 0; i < size; i++) {
+            final QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setId(i);
+            questionEntity.setUuid(UUID.randomUUID().toString());
+            questionEntity.setContent("Question number " + i);
+            questionEntity.setDate(now);
+            questions.add(questionEntity);
+
+            final AnswerEntity answerEntity = new AnswerEntity();
+            answerEntity.setId(i);
+            answerEntity.setUuid(UUID.randomUUID().toString());
+            answerEntity.setAnswer("Answer number " + i);
+            answerEntity.setDate(now);
+            answerEntity.setQuestion(question);
+            answers.add(answerEntity);
+        }
+    }
+
+    @Benchmark
+    public List<QuestionDetailsResponse> questionDetails() {
+        return QuestionController.toQuestionDetailsResponses(questions);
+    }
+
+    @Benchmark
+    public List<AnswerDetailsResponse> answerDetails() {
+        return AnswerController.toAnswerDetailsResponses(question, answers);
+    }
+}
@@ -0,0 +1,82 @@
+package com.upgrad.quora.api.exception;
+
+import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request failing authorization: the exception thrown under {@code depth} frames, standing for the Tomcat, filter
+ * and proxy stack, then mapped to its error response. Compares the handler, which shares the responses, with a
+ * response built per request, and the stackless exceptions with the ones capturing their stack trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"20", "150"})
+    private int depth;
+
+    private RestExceptionHandler handler;
+
+    @Setup
+    public void setUp() {
+        handler = new RestExceptionHandler();
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stacklessSharedResponse() {
+        try {
+            return fail(depth);
+        } catch (AuthorizationFailedException e) {
+            return handler.authorizationFailedExceptionHandler(e, null);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stacklessNewResponse() {
+        try {
+            return fail(depth);
+        } catch (AuthorizationFailedException e) {
+            return newResponse(e);
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dquora.exceptions.stack-traces=true")
+    public ResponseEntity<ErrorResponse> stackTraceNewResponse() {
+        try {
+            return fail(depth);
+        } catch (AuthorizationFailedException e) {
+            return newResponse(e);
+        }
+    }
+
+    private static ResponseEntity<ErrorResponse> newResponse(final AuthorizationFailedException e) {
+        return new ResponseEntity<>(new ErrorResponse().code(e.getCode()).message(e.getErrorMessage()), HttpStatus.FORBIDDEN);
+    }
+
+    private static ResponseEntity<ErrorResponse> fail(final int depth) throws AuthorizationFailedException {
+        if (depth == 0) {
+            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+        }
+        return fail(depth - 1);
+    }
+}
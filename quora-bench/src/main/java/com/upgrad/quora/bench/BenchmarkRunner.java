@@ -0,0 +1,31 @@
+package com.upgrad.quora.bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line and, unless a result format is given, writes the
+ * results as JSON to {@code jmh-<version>.json} so that runs of different releases can be compared, e.g. with
+ * <pre>
+ * mvn -pl quora-bench -am package -DskipTests
+ * java -jar quora-bench/target/benchmarks.jar                 # all benchmarks
+ * java -jar quora-bench/target/benchmarks.jar Jwt -f 2        # a subset, with JMH options
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final List<String> jmhArgs = new ArrayList<String>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-h") && !jmhArgs.contains("-l")) {
+            final String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+            jmhArgs.addAll(Arrays.asList("-rf", "json", "-rff", "jmh-" + (version == null ? "dev" : version) + ".json"));
+        }
+        Main.main(jmhArgs.toArray(new String[jmhArgs.size()]));
+    }
+}
@@ -0,0 +1,55 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token creation of sign-in: the provider is built per sign-in from the password, then signs one token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private static final String SECRET = "database_password";
+
+    private static final String USER_UUID = "7f8f3e4a-9c0d-4b3e-8a7b-1f2e3d4c5b6a";
+
+    private JwtTokenProvider provider;
+
+    private ZonedDateTime issuedAt;
+
+    private ZonedDateTime expiresAt;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(SECRET);
+        issuedAt = ZonedDateTime.now();
+        expiresAt = issuedAt.plusHours(8);
+    }
+
+    @Benchmark
+    public JwtTokenProvider construct() {
+        return new JwtTokenProvider(SECRET);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(USER_UUID, issuedAt, expiresAt);
+    }
+}
@@ -0,0 +1,49 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing of sign-up (new salt) and sign-in (stored salt).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordCryptographyBenchmark {
+
+    private static final String PASSWORD = "database_password";
+
+    private PasswordCryptographyProvider provider;
+
+    private String salt;
+
+    @Setup
+    public void setUp() {
+        provider = new PasswordCryptographyProvider();
+        salt = provider.encrypt(PASSWORD)[0];
+    }
+
+    @Benchmark
+    public String[] encryptWithNewSalt() {
+        return provider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public String encryptWithSalt() {
+        return PasswordCryptographyProvider.encrypt(PASSWORD, salt);
+    }
+}
@@ -0,0 +1,74 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.search.PrefixSuggester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the 10 suggestions of a prefix, from a {@link PrefixSuggester} built from the question table. Meant for a
+ * table filled by {@code mvn -Pgenerate} of quora-db; the build time and size of the trie are printed once built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefixSuggestBenchmark {
+
+    // short prefixes match many questions, long ones a few
+    private static final String[] PREFIXES = {"w", "what", "How is", "why java spring", "which best way to",
+            "cricket", "the", "kubernetes cache latency"};
+
+    @Param("jdbc:postgresql://localhost:5432/quora")
+    private String url;
+
+    @Param("postgres")
+    private String user;
+
+    @Param("password")
+    private String password;
+
+    private PrefixSuggester suggester;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        final List<PrefixSuggester.Suggestion> questions = new ArrayList<PrefixSuggester.Suggestion>();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select uuid, content, answer_count from question")) {
+            while (resultSet.next()) {
+                questions.add(new PrefixSuggester.Suggestion(resultSet.getString(1), resultSet.getString(2), resultSet.getLong(3)));
+            }
+        }
+        final long start = System.nanoTime();
+        suggester = PrefixSuggester.build(questions, 10);
+        System.out.printf("%n%d questions, %d nodes, built in %d ms%n", suggester.size(), suggester.nodes(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Benchmark
+    public List<PrefixSuggester.Suggestion> suggest() {
+        return suggester.suggest(PREFIXES[next++ % PREFIXES.length], 10);
+    }
+}
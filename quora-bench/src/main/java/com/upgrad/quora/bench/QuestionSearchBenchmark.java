@@ -0,0 +1,112 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.search.InvertedIndex;
+import com.upgrad.quora.service.search.QuestionSearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a first search page of 20 questions, from the Postgres GIN index or from the in-memory inverted index
+ * loaded from the same question table. Meant for a table filled by {@code mvn -Pgenerate} of quora-db; the memory
+ * footprint of the in-memory index is printed once loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionSearchBenchmark {
+
+    // rare, common and combined words of the generated question contents
+    private static final String[] QUERIES = {"kubernetes", "java performance", "cricket", "database index query",
+            "career interview salary", "learn", "cloud -cache", "music history"};
+
+    private static final String SEARCH = "select q.id, q.uuid, q.content, ts_rank(q.content_tsv, tsq) as rank"
+            + " from question q, websearch_to_tsquery('english', ?) tsq"
+            + " where q.content_tsv @@ tsq"
+            + " order by rank desc, q.id desc limit ?";
+
+    @Param({"memory", "postgres"})
+    private String engine;
+
+    @Param("jdbc:postgresql://localhost:5432/quora")
+    private String url;
+
+    @Param("postgres")
+    private String user;
+
+    @Param("password")
+    private String password;
+
+    private Connection connection;
+
+    private PreparedStatement search;
+
+    private InvertedIndex index;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, user, password);
+        if ("postgres".equals(engine)) {
+            search = connection.prepareStatement(SEARCH);
+            return;
+        }
+        index = new InvertedIndex(1.2f, 0.75f);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select q.id, q.uuid, q.content, u.uuid from question q"
+                     + " join users u on u.id = q.user_id order by q.id")) {
+            while (resultSet.next()) {
+                index.add(InvertedIndex.Document.analyze(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4)));
+            }
+        }
+        index.trim();
+        System.out.printf("%n%d questions, %d terms, %d bytes of postings (%.1f per question), about %d bytes in total (%.1f per question)%n",
+                index.size(), index.terms(), index.postingBytes(), (double) index.postingBytes() / Math.max(1, index.size()),
+                index.estimatedBytes(), (double) index.estimatedBytes() / Math.max(1, index.size()));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<QuestionSearchHit> search() throws SQLException {
+        final String query = QUERIES[next++ % QUERIES.length];
+        if (index != null) {
+            return index.search(query, null, 20);
+        }
+        search.setString(1, query);
+        search.setInt(2, 20);
+        final List<QuestionSearchHit> hits = new ArrayList<QuestionSearchHit>(20);
+        try (ResultSet resultSet = search.executeQuery()) {
+            while (resultSet.next()) {
+                hits.add(new QuestionSearchHit(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getFloat(4)));
+            }
+        }
+        return hits;
+    }
+}
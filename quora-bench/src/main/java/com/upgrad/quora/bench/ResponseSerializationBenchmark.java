@@ -0,0 +1,94 @@
+package com.upgrad.quora.bench;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the response list of {@code GET /question/all} in the formats of the API, with reflection based
+ * accessors or with the ones Afterburner generates. Protobuf writes the {@code QuestionDetailsResponseList} message
+ * of {@code proto/quora.proto}, as the API does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"json", "cbor", "protobuf"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean afterburner;
+
+    private ObjectWriter writer;
+
+    private Object body;
+
+    @Setup
+    public void setUp() throws Exception {
+        final List<QuestionDetailsResponse> questions = new ArrayList<QuestionDetailsResponse>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(new QuestionDetailsResponse().id(UUID.randomUUID().toString()).content("Question number " + i));
+        }
+        final ObjectMapper mapper;
+        if ("cbor".equals(format)) {
+            mapper = new ObjectMapper(new CBORFactory());
+        } else if ("protobuf".equals(format)) {
+            mapper = new ObjectMapper(new ProtobufFactory());
+        } else {
+            mapper = new ObjectMapper();
+        }
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        if (afterburner) {
+            mapper.registerModule(new AfterburnerModule());
+        }
+        if ("protobuf".equals(format)) {
+            final NativeProtobufSchema schema;
+            try (InputStream proto = ResponseSerializationBenchmark.class.getResourceAsStream("/proto/quora.proto")) {
+                schema = ProtobufSchemaLoader.std.loadNative(proto, false);
+            }
+            writer = mapper.writer(schema.forType("QuestionDetailsResponseList"));
+            final Map<String, Object> list = Collections.<String, Object>singletonMap("items", questions);
+            body = list;
+        } else {
+            writer = mapper.writer();
+            body = questions;
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(body);
+    }
+}
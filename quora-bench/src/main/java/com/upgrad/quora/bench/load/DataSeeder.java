@@ -0,0 +1,253 @@
+package com.upgrad.quora.bench.load;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds the users, sessions, questions and answers of a run through JDBC, before the application starts. The seeded
+ * users are named {@code <run-id>-user-<n>} and share the password {@link #PASSWORD}; the rows of a previous run with
+ * the same run id are deleted first, nothing else is touched.
+ */
+final class DataSeeder {
+
+    static final String PASSWORD = "load-password";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final LoadOptions options;
+
+    DataSeeder(final LoadOptions options) {
+        this.options = options;
+    }
+
+    SeededData seed() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(options.jdbcUrl, options.jdbcUsername, options.jdbcPassword)) {
+            connection.setAutoCommit(false);
+            if (options.skipSeed) {
+                return load(connection);
+            }
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE username LIKE ?")) {
+                delete.setString(1, userNamePrefix() + "%");
+                delete.executeUpdate();
+            }
+            advanceSequences(connection);
+            final SeededData data = new SeededData(options.users, options.questions);
+            final int[] userIds = insertUsers(connection, data);
+            insertSessions(connection, data, userIds);
+            final int[] questionIds = insertQuestions(connection, data, userIds);
+            insertAnswers(connection, userIds, questionIds);
+            countAnswers(connection, questionIds);
+            connection.commit();
+            try (PreparedStatement analyze = connection.prepareStatement("ANALYZE")) {
+                connection.setAutoCommit(true);
+                analyze.execute();
+            }
+            return data;
+        }
+    }
+
+    // the fixtures insert explicit ids without moving the sequences, which would make the first seeded rows collide
+    private static void advanceSequences(final Connection connection) throws SQLException {
+        for (final String table : new String[]{"users", "user_auth", "question", "answer"}) {
+            final String sql = "SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), GREATEST(nextval(pg_get_serial_sequence('"
+                    + table + "', 'id')), (SELECT COALESCE(max(id), 0) + 1 FROM " + table + ")))";
+            try (PreparedStatement advance = connection.prepareStatement(sql)) {
+                advance.execute();
+            }
+        }
+    }
+
+    private int[] insertUsers(final Connection connection, final SeededData data) throws SQLException {
+        // one hash for all the users, hashing is what sign-in measures, not what seeding should spend its time on
+        final String[] saltAndHash = new PasswordCryptographyProvider().encrypt(PASSWORD);
+        final String sql = "INSERT INTO users(uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, role, contactnumber) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 'India', 'Seeded by the load harness', '01-01-1990', 'nonadmin', '0123456789')";
+        final int[] ids = new int[options.users];
+        try (PreparedStatement insert = connection.prepareStatement(sql, new String[]{"id"})) {
+            for (int i = 0; i < options.users; i++) {
+                final String userName = userNamePrefix() + i;
+                data.userNames[i] = userName;
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "Load");
+                insert.setString(3, "User " + i);
+                insert.setString(4, userName);
+                insert.setString(5, userName + "@load.test");
+                insert.setString(6, saltAndHash[1]);
+                insert.setString(7, saltAndHash[0]);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == options.users - 1) {
+                    readIds(insert, ids, i);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertSessions(final Connection connection, final SeededData data, final int[] userIds) throws SQLException {
+        final String sql = "INSERT INTO user_auth(uuid, user_id, access_token, expires_at, login_at) VALUES (?, ?, ?, ?, ?)";
+        final long now = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < userIds.length; i++) {
+                data.accessTokens[i] = options.runId + "-token-" + UUID.randomUUID();
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setInt(2, userIds[i]);
+                insert.setString(3, data.accessTokens[i]);
+                insert.setTimestamp(4, new Timestamp(now + 7L * 24 * 3600 * 1000));
+                insert.setTimestamp(5, new Timestamp(now));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private int[] insertQuestions(final Connection connection, final SeededData data, final int[] userIds) throws SQLException {
+        final String sql = "INSERT INTO question(uuid, content, date, user_id) VALUES (?, ?, ?, ?)";
+        final Random random = new Random(options.seed);
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        final int[] ids = new int[options.questions];
+        try (PreparedStatement insert = connection.prepareStatement(sql, new String[]{"id"})) {
+            for (int i = 0; i < options.questions; i++) {
+                final int owner = random.nextInt(userIds.length);
+                data.questionUuids[i] = UUID.randomUUID().toString();
+                data.questionOwners[i] = owner;
+                insert.setString(1, data.questionUuids[i]);
+                insert.setString(2, "Seeded question " + i + " about " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+                insert.setTimestamp(3, now);
+                insert.setInt(4, userIds[owner]);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == options.questions - 1) {
+                    readIds(insert, ids, i);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertAnswers(final Connection connection, final int[] userIds, final int[] questionIds) throws SQLException {
+        final String sql = "INSERT INTO answer(uuid, ans, date, user_id, question_id) VALUES (?, ?, ?, ?, ?)";
+        final Random random = new Random(options.seed + 1);
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        int batched = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (final int questionId : questionIds) {
+                for (int a = 0; a < options.answersPerQuestion; a++) {
+                    insert.setString(1, UUID.randomUUID().toString());
+                    insert.setString(2, "Seeded answer " + a);
+                    insert.setTimestamp(3, now);
+                    insert.setInt(4, userIds[random.nextInt(userIds.length)]);
+                    insert.setInt(5, questionId);
+                    insert.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    // the inserted answers bypass the statements keeping the answer counts of their questions
+    private static void countAnswers(final Connection connection, final int[] questionIds) throws SQLException {
+        final String sql = "UPDATE question q SET answer_count = c.answers, last_answer_at = c.last_answer_at"
+                + " FROM (SELECT question_id, count(*) AS answers, max(date) AS last_answer_at FROM answer"
+                + " WHERE question_id = ANY(?) GROUP BY question_id) c WHERE q.id = c.question_id";
+        final Integer[] ids = new Integer[questionIds.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = questionIds[i];
+        }
+        try (PreparedStatement update = connection.prepareStatement(sql)) {
+            update.setArray(1, connection.createArrayOf("integer", ids));
+            update.executeUpdate();
+        }
+    }
+
+    private SeededData load(final Connection connection) throws SQLException {
+        final List<String> userNames = new ArrayList<String>();
+        final List<String> accessTokens = new ArrayList<String>();
+        final Map<Integer, Integer> userIndexById = new HashMap<Integer, Integer>();
+        final String users = "SELECT u.id, u.username, max(a.access_token) FROM users u JOIN user_auth a ON a.user_id = u.id "
+                + "WHERE u.username LIKE ? AND a.logout_at IS NULL AND a.expires_at > now() GROUP BY u.id, u.username ORDER BY u.id";
+        try (PreparedStatement select = connection.prepareStatement(users)) {
+            select.setString(1, userNamePrefix() + "%");
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    userIndexById.put(rs.getInt(1), userNames.size());
+                    userNames.add(rs.getString(2));
+                    accessTokens.add(rs.getString(3));
+                }
+            }
+        }
+        final List<String> questionUuids = new ArrayList<String>();
+        final List<Integer> questionOwners = new ArrayList<Integer>();
+        final String questions = "SELECT q.uuid, q.user_id FROM question q JOIN users u ON u.id = q.user_id WHERE u.username LIKE ? ORDER BY q.id";
+        try (PreparedStatement select = connection.prepareStatement(questions)) {
+            select.setString(1, userNamePrefix() + "%");
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    final Integer owner = userIndexById.get(rs.getInt(2));
+                    if (owner != null) {
+                        questionUuids.add(rs.getString(1));
+                        questionOwners.add(owner);
+                    }
+                }
+            }
+        }
+        if (userNames.isEmpty() || questionUuids.isEmpty()) {
+            throw new IllegalStateException("Nothing seeded for run id " + options.runId + ", run once without --skip-seed");
+        }
+        final SeededData data = new SeededData(userNames.size(), questionUuids.size());
+        userNames.toArray(data.userNames);
+        accessTokens.toArray(data.accessTokens);
+        questionUuids.toArray(data.questionUuids);
+        for (int i = 0; i < questionOwners.size(); i++) {
+            data.questionOwners[i] = questionOwners.get(i);
+        }
+        return data;
+    }
+
+    private String userNamePrefix() {
+        return options.runId + "-user-";
+    }
+
+    private static void readIds(final PreparedStatement insert, final int[] ids, final int last) throws SQLException {
+        final int count = insert.executeBatch().length;
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            for (int i = last - count + 1; keys.next(); i++) {
+                ids[i] = keys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * What the workload picks from: the users with their password and session, and the questions with their owner.
+     */
+    static final class SeededData {
+
+        final String[] userNames;
+        final String[] accessTokens;
+        final String[] questionUuids;
+        final int[] questionOwners;
+
+        SeededData(final int users, final int questions) {
+            userNames = new String[users];
+            accessTokens = new String[users];
+            questionUuids = new String[questions];
+            questionOwners = new int[questions];
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.upgrad.quora.bench.load;
+
+import com.upgrad.quora.api.QuoraApiApplication;
+import com.upgrad.quora.bench.load.DataSeeder.SeededData;
+import com.upgrad.quora.bench.load.Workload.EndpointStats;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end throughput and latency of the endpoints: seeds a local Postgres, starts {@link QuoraApiApplication} on a
+ * random port and drives it with the open-loop {@link Workload}. Reports, per endpoint, the throughput and the
+ * percentiles of the response time (from the scheduled start) and of the service time, and writes the full response
+ * time distributions as {@code <endpoint>.hgrm} plus a {@code summary.csv} to the output directory, e.g.
+ * <pre>
+ * mvn -pl quora-bench -am package -DskipTests
+ * java -cp quora-bench/target/benchmarks.jar com.upgrad.quora.bench.load.LoadHarness --users=5000 --questions=50000 --rate=200
+ * </pre>
+ * See {@link LoadOptions} for the options. The arrival rate should stay under the concurrency limit of the application
+ * unless shedding is what is being measured; it can be turned off with {@code --quora.limiter.enabled=false}.
+ * <p>
+ * With {@code --modes=caller,bounded,virtual} the same load is run once per controller execution mode, each against a
+ * new application, to compare running the controllers on the Tomcat workers, on a bounded pool and on virtual threads
+ * (the latter on Java 21 and later only, older JVMs run the virtual mode on the bounded pool).
+ * <p>
+ * With {@code --base-url} the application is not started but expected at that URL, which is how the listing
+ * endpoints of {@code quora-api-reactive} are measured against the same seeded data.
+ */
+public final class LoadHarness {
+
+    private LoadHarness() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadOptions options = LoadOptions.parse(args);
+        // the JDK keeps 5 idle connections per host by default, one per client thread avoids reconnecting
+        System.setProperty("http.maxConnections", String.valueOf(options.threads));
+
+        long started = System.currentTimeMillis();
+        final SeededData data = new DataSeeder(options).seed();
+        System.out.printf("Seeded %d users, %d questions in %d ms%n", data.userNames.length, data.questionUuids.length,
+                System.currentTimeMillis() - started);
+
+        if (options.baseUrl != null) {
+            System.out.printf("Running %.1f req/s for %d s after %d s of warmup against %s%n", options.rate, options.durationSeconds,
+                    options.warmupSeconds, options.baseUrl);
+            report(options, new Workload(options, data, options.baseUrl).run(), new File(options.out));
+            return;
+        }
+        if (options.modes.isEmpty()) {
+            run(options, data, options.applicationArgs, new File(options.out));
+            return;
+        }
+        // same seed, hence the same request sequence, for every mode
+        for (final String mode : options.modes) {
+            System.out.printf("%n=== quora.controller.execution.mode=%s ===%n", mode);
+            final List<String> applicationArgs = new ArrayList<String>(options.applicationArgs);
+            applicationArgs.add("--quora.controller.execution.mode=" + mode);
+            run(options, data, applicationArgs, new File(options.out, mode));
+        }
+    }
+
+    private static void run(final LoadOptions options, final SeededData data, final List<String> args, final File out)
+            throws IOException, InterruptedException {
+        final List<String> applicationArgs = new ArrayList<String>(args);
+        applicationArgs.add(0, "--server.port=0");
+        final ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                SpringApplication.run(QuoraApiApplication.class, applicationArgs.toArray(new String[applicationArgs.size()]));
+        try {
+            final String baseUrl = "http://localhost:" + context.getWebServer().getPort() + context.getServletContext().getContextPath();
+            System.out.printf("Running %.1f req/s for %d s after %d s of warmup against %s%n", options.rate, options.durationSeconds,
+                    options.warmupSeconds, baseUrl);
+            final Map<Operation, EndpointStats> stats = new Workload(options, data, baseUrl).run();
+            report(options, stats, out);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void report(final LoadOptions options, final Map<Operation, EndpointStats> stats, final File out)
+            throws IOException {
+        if (!out.isDirectory() && !out.mkdirs()) {
+            throw new IOException("Cannot create " + out);
+        }
+        final String header = "endpoint,count,errors,timeouts,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,service_p50_ms,service_p99_ms";
+        System.out.printf("%n%-38s %8s %7s %8s %9s %9s %9s %9s %9s %9s   %9s %9s%n", "endpoint", "count", "errors", "timeouts",
+                "req/s", "p50", "p90", "p99", "p99.9", "max", "svc p50", "svc p99");
+        try (PrintStream csv = new PrintStream(new FileOutputStream(new File(out, "summary.csv")), false, "UTF-8")) {
+            csv.println(header);
+            for (final Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+                final Histogram response = entry.getValue().responseTime;
+                final Histogram service = entry.getValue().serviceTime;
+                if (response.getTotalCount() == 0) {
+                    continue;
+                }
+                final long timeouts = entry.getValue().timeouts.get();
+                // the requests timed out were never served
+                final double throughput = (double) (response.getTotalCount() - timeouts) / options.durationSeconds;
+                final double[] row = {throughput, ms(response, 50), ms(response, 90), ms(response, 99), ms(response, 99.9),
+                        response.getMaxValue() / 1000.0, ms(service, 50), ms(service, 99)};
+                System.out.printf("%-38s %8d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f   %9.2f %9.2f%n", entry.getKey().getEndpoint(),
+                        response.getTotalCount(), entry.getValue().errors.get(), timeouts, row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7]);
+                csv.printf("%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", entry.getKey().getName(), response.getTotalCount(),
+                        entry.getValue().errors.get(), timeouts, row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7]);
+                try (PrintStream hgrm = new PrintStream(new FileOutputStream(new File(out, entry.getKey().getName() + ".hgrm")), false, "UTF-8")) {
+                    response.outputPercentileDistribution(hgrm, 1000.0);
+                }
+                if (entry.getValue().firstError != null) {
+                    System.out.printf("    first error: %s%n", entry.getValue().firstError);
+                }
+            }
+        }
+        System.out.printf("%nResponse times in ms from the scheduled start, timeouts were still queued when the run ended and"
+                + " count the time they waited, distributions written to %s%n", out.getAbsolutePath());
+    }
+
+    private static double ms(final Histogram histogram, final double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.upgrad.quora.bench.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of the {@link LoadHarness}. Options are given as {@code --name=value}; the ones not listed below are
+ * passed on to the application, e.g. {@code --spring.datasource.url=...} or {@code --quora.limiter.enabled=false}.
+ * <pre>
+ * --users=1000                   users seeded, each with one session
+ * --questions=10000              questions seeded, spread over the users
+ * --answers-per-question=5       answers seeded per question
+ * --skip-seed=false              reuse the users, sessions and questions of a previous run with the same --run-id
+ * --run-id=load                  prefix of the seeded user names, so runs don't collide with real data
+ * --rate=100                     requests per second, all operations together
+ * --mix=signin:5,list:40,answers:25,create:15,edit:10,delete:5
+ *                                relative weight of each operation, see {@link Operation}
+ * --warmup=15                    seconds of load before measuring
+ * --duration=60                  seconds of measured load
+ * --threads=64                   client threads, also the maximum number of connections
+ * --seed=42                      seed of the random choices, for reproducible runs
+ * --out=target/load              directory of the report files
+ * --modes=                       controller execution modes compared, e.g. caller,bounded,virtual: the load is run
+ *                                once per mode against a fresh application, reports going to {@code <out>/<mode>}
+ * --base-url=                    drive an application already running at this URL instead of starting one, e.g.
+ *                                http://localhost:8090/api for quora-api-reactive with --mix=list:60,answers:40
+ * </pre>
+ */
+final class LoadOptions {
+
+    int users = 1000;
+    int questions = 10000;
+    int answersPerQuestion = 5;
+    boolean skipSeed;
+    String runId = "load";
+    double rate = 100;
+    final Map<Operation, Integer> mix = new EnumMap<Operation, Integer>(Operation.class);
+    int warmupSeconds = 15;
+    int durationSeconds = 60;
+    int threads = 64;
+    long seed = 42;
+    String out = "target/load";
+    final List<String> modes = new ArrayList<String>();
+    String baseUrl;
+
+    String jdbcUrl = "jdbc:postgresql://localhost:5432/quora";
+    String jdbcUsername = "postgres";
+    String jdbcPassword = "password";
+
+    final List<String> applicationArgs = new ArrayList<String>();
+
+    private LoadOptions() {
+        for (final Operation operation : Operation.values()) {
+            mix.put(operation, operation.getDefaultWeight());
+        }
+    }
+
+    static LoadOptions parse(final String[] args) {
+        final LoadOptions options = new LoadOptions();
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            final String name = arg.substring(2, arg.indexOf('='));
+            final String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "questions":
+                    options.questions = Integer.parseInt(value);
+                    break;
+                case "answers-per-question":
+                    options.answersPerQuestion = Integer.parseInt(value);
+                    break;
+                case "skip-seed":
+                    options.skipSeed = Boolean.parseBoolean(value);
+                    break;
+                case "run-id":
+                    options.runId = value;
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "mix":
+                    options.parseMix(value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "threads":
+                    options.threads = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "out":
+                    options.out = value;
+                    break;
+                case "base-url":
+                    options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "modes":
+                    for (final String mode : value.split(",")) {
+                        if (!mode.trim().isEmpty()) {
+                            options.modes.add(mode.trim().toLowerCase());
+                        }
+                    }
+                    break;
+                default:
+                    // the harness seeds the same database the application connects to
+                    if (name.equals("spring.datasource.url")) {
+                        options.jdbcUrl = value;
+                    } else if (name.equals("spring.datasource.username")) {
+                        options.jdbcUsername = value;
+                    } else if (name.equals("spring.datasource.password")) {
+                        options.jdbcPassword = value;
+                    }
+                    options.applicationArgs.add(arg);
+            }
+        }
+        if (options.users < 1 || options.questions < 1 || options.rate <= 0 || options.durationSeconds < 1) {
+            throw new IllegalArgumentException("users, questions, rate and duration must be positive");
+        }
+        return options;
+    }
+
+    private void parseMix(final String value) {
+        for (final Operation operation : Operation.values()) {
+            mix.put(operation, 0);
+        }
+        for (final String entry : value.split(",")) {
+            final String[] weight = entry.split(":");
+            mix.put(Operation.fromName(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        if (Collections.max(mix.values()) <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+    }
+}
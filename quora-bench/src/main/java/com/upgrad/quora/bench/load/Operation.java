@@ -0,0 +1,47 @@
+package com.upgrad.quora.bench.load;
+
+/**
+ * Operations of the workload, with their endpoint as reported and their default weight in the mix.
+ */
+enum Operation {
+
+    SIGN_IN("signin", "POST /user/signin", 5),
+    LIST_QUESTIONS("list", "GET /question/all", 40),
+    LIST_ANSWERS("answers", "GET /answer/all/{questionId}", 25),
+    CREATE_QUESTION("create", "POST /question/create", 15),
+    EDIT_QUESTION("edit", "PUT /question/edit/{questionId}", 10),
+    DELETE_QUESTION("delete", "DELETE /question/delete/{questionId}", 5);
+
+    private final String name;
+
+    private final String endpoint;
+
+    private final int defaultWeight;
+
+    Operation(final String name, final String endpoint, final int defaultWeight) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    static Operation fromName(final String name) {
+        for (final Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + name + ", expected signin, list, answers, create, edit or delete");
+    }
+}
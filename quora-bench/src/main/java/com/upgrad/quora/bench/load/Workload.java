@@ -0,0 +1,271 @@
+package com.upgrad.quora.bench.load;
+
+import com.upgrad.quora.bench.load.DataSeeder.SeededData;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop workload: requests are scheduled at a fixed arrival rate whatever the response times, the operation of
+ * each one drawn from the mix. The response time of a request is measured from the time it was scheduled at, not from
+ * the time a client thread got to send it, so that a stalled server is charged for all the requests that queued up
+ * behind it (the coordinated omission of closed-loop load generators). The service time, from the actual send, is
+ * recorded too; the gap between the two is the queueing.
+ * <p>
+ * The requests still queued when the run gives up waiting, {@value #DRAIN_MINUTES} minutes after the last one was
+ * scheduled, are counted as timed out and their response time recorded as the time they waited, so that the slowest
+ * requests of an overloaded server are not left out of the percentiles.
+ */
+final class Workload {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final long DRAIN_MINUTES = 2;
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final LoadOptions options;
+
+    private final SeededData data;
+
+    private final String baseUrl;
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<Operation, EndpointStats>(Operation.class);
+
+    // questions created by the run, deleted by the delete operation so that the seeded ones stay put
+    private final ConcurrentLinkedQueue<String[]> createdQuestions = new ConcurrentLinkedQueue<String[]>();
+
+    Workload(final LoadOptions options, final SeededData data, final String baseUrl) {
+        this.options = options;
+        this.data = data;
+        this.baseUrl = baseUrl;
+        for (final Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    Map<Operation, EndpointStats> run() throws InterruptedException {
+        final Operation[] operations = Operation.values();
+        final int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += Math.max(0, options.mix.get(operations[i]));
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(options.threads, options.threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        final Random random = new Random(options.seed);
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        final long start = System.nanoTime();
+        final long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        final long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        for (long i = 0; ; i++) {
+            final long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            final Operation operation = operations[index];
+            final long requestSeed = random.nextLong();
+            final boolean measured = intended >= measureFrom;
+            executor.execute(new Request(operation, requestSeed, intended, measured));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(DRAIN_MINUTES, TimeUnit.MINUTES)) {
+            final long abandoned = System.nanoTime();
+            for (final Runnable queued : executor.shutdownNow()) {
+                final Request request = (Request) queued;
+                if (request.measured) {
+                    stats.get(request.operation).recordTimeout(abandoned - request.intended);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private void execute(Operation operation, final Random random, final long intended, final boolean measured) {
+        final String[] created = operation == Operation.DELETE_QUESTION ? createdQuestions.poll() : null;
+        if (operation == Operation.DELETE_QUESTION && created == null) {
+            // nothing left to delete, keep the arrival rate with a create instead
+            operation = Operation.CREATE_QUESTION;
+        }
+        final long sent = System.nanoTime();
+        int status;
+        String body;
+        try {
+            final HttpURLConnection connection;
+            String token = anyToken(random);
+            switch (operation) {
+                case SIGN_IN:
+                    final String userName = data.userNames[random.nextInt(data.userNames.length)];
+                    final String credentials = Base64.getEncoder().encodeToString((userName + ":" + DataSeeder.PASSWORD).getBytes(StandardCharsets.UTF_8));
+                    connection = open("POST", "/user/signin", "Basic " + credentials);
+                    break;
+                case LIST_QUESTIONS:
+                    connection = open("GET", "/question/all", token);
+                    break;
+                case LIST_ANSWERS:
+                    connection = open("GET", "/answer/all/" + data.questionUuids[random.nextInt(data.questionUuids.length)], token);
+                    break;
+                case CREATE_QUESTION:
+                    connection = open("POST", "/question/create?content=" + content("Load question", random), token);
+                    break;
+                case EDIT_QUESTION:
+                    final int question = random.nextInt(data.questionUuids.length);
+                    token = data.accessTokens[data.questionOwners[question]];
+                    connection = open("PUT", "/question/edit/" + data.questionUuids[question] + "?content=" + content("Edited question", random), token);
+                    break;
+                case DELETE_QUESTION:
+                    connection = open("DELETE", "/question/delete/" + created[0], created[1]);
+                    break;
+                default:
+                    throw new IllegalStateException(operation.name());
+            }
+            status = connection.getResponseCode();
+            body = read(connection);
+            if (operation == Operation.CREATE_QUESTION && status == HttpURLConnection.HTTP_CREATED) {
+                final Matcher id = ID.matcher(body);
+                if (id.find()) {
+                    createdQuestions.add(new String[]{id.group(1), token});
+                }
+            }
+        } catch (IOException e) {
+            status = -1;
+            body = e.toString();
+        }
+        final long done = System.nanoTime();
+        if (measured) {
+            stats.get(operation).record(status, done - intended, done - sent, body);
+        }
+    }
+
+    // a request scheduled, kept by the queue of the client threads until one of them sends it
+    private final class Request implements Runnable {
+
+        private final Operation operation;
+
+        private final long seed;
+
+        private final long intended;
+
+        private final boolean measured;
+
+        private Request(final Operation operation, final long seed, final long intended, final boolean measured) {
+            this.operation = operation;
+            this.seed = seed;
+            this.intended = intended;
+            this.measured = measured;
+        }
+
+        @Override
+        public void run() {
+            execute(operation, new Random(seed), intended, measured);
+        }
+    }
+
+    private String anyToken(final Random random) {
+        return data.accessTokens[random.nextInt(data.accessTokens.length)];
+    }
+
+    private static String content(final String prefix, final Random random) throws IOException {
+        return URLEncoder.encode(prefix + " " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36), "UTF-8");
+    }
+
+    private HttpURLConnection open(final String method, final String path, final String authorization) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("authorization", authorization);
+        connection.setRequestProperty("Accept", "application/json");
+        if (method.equals("POST") || method.equals("PUT")) {
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.flush();
+            }
+        }
+        return connection;
+    }
+
+    // the body is read to the end so that the connection goes back to the keep-alive cache
+    private static String read(final HttpURLConnection connection) throws IOException {
+        final InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in == null) {
+            return "";
+        }
+        try (InputStream body = in) {
+            final StringBuilder text = new StringBuilder();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (text.length() < 4096) {
+                    text.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Response and service time histograms of one endpoint, in microseconds, with the count of failed requests and the
+     * first failure as a sample. The requests never sent are counted as timeouts, the response time histogram holding
+     * the time they waited and the service time histogram nothing.
+     */
+    static final class EndpointStats {
+
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        final AtomicLong errors = new AtomicLong();
+
+        final AtomicLong timeouts = new AtomicLong();
+
+        volatile String firstError;
+
+        void record(final int status, final long responseNanos, final long serviceNanos, final String body) {
+            responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(responseNanos)));
+            serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+            if (status < 200 || status >= 300) {
+                errors.incrementAndGet();
+                if (firstError == null) {
+                    firstError = status + " " + body;
+                }
+            }
+        }
+
+        void recordTimeout(final long waitedNanos) {
+            // a lower bound of the response time the request would have had
+            responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(waitedNanos)));
+            timeouts.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.upgrad.quora.db.generator;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Rows of a {@code COPY ... FROM STDIN} in text format, written to the server in blocks of about 64 KB.
+ */
+final class CopyBuffer {
+
+    private static final int FLUSH_SIZE = 64 * 1024;
+
+    private final CopyIn copyIn;
+
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 1024);
+
+    private boolean firstColumn = true;
+
+    CopyBuffer(final CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    CopyBuffer column(final Object value) {
+        if (!firstColumn) {
+            buffer.append('\t');
+        }
+        firstColumn = false;
+        if (value == null) {
+            buffer.append("\\N");
+            return this;
+        }
+        final String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                default:
+                    buffer.append(c);
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        buffer.append('\n');
+        firstColumn = true;
+        if (buffer.length() >= FLUSH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * @return the number of rows copied
+     */
+    long end() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    private void flush() throws SQLException {
+        final byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,326 @@
+package com.upgrad.quora.db.generator;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Fills the quora schema with synthetic users, sessions, questions and answers for capacity testing, through
+ * {@code COPY ... FROM STDIN}. Run with the {@code generate} profile of this module:
+ * <pre>
+ * mvn -Pgenerate -pl quora-db process-classes -Dgenerate.users=1000000 -Dgenerate.questions=3000000 -Dgenerate.answers=10000000
+ * </pre>
+ * Rows are appended after the existing ones, the tables are copied in foreign key order (users, then sessions and
+ * questions, then answers) and every table is split in chunks copied in parallel over their own connections. The content
+ * of a chunk only depends on the seed, the table and the chunk number, so the same seed generates the same data
+ * whatever the number of threads.
+ * <p>
+ * Question authors, session owners and answered questions are drawn from Zipf distributions, so that a few users ask
+ * most of the questions and a few questions get most of the answers, like in production. The hot rows are spread over
+ * the id range rather than being the first ones. All the users share the password given with
+ * {@code generate.password}.
+ */
+public final class DataGenerator {
+
+    private static final int CHUNK_SIZE = 50_000;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh", "Krishna", "Ishaan",
+            "Ananya", "Diya", "Saanvi", "Aadhya", "Pari", "Myra", "Sara", "Kiara", "John", "Maria", "Wei", "Fatima", "Liam", "Olivia",
+            "Noah", "Emma", "Mateo", "Sofia", "Yuki", "Chen", "Amir", "Leila"};
+
+    private static final String[] LAST_NAMES = {"Sharma", "Verma", "Gupta", "Mehta", "Iyer", "Reddy", "Nair", "Patel", "Singh",
+            "Khan", "Das", "Bose", "Smith", "Garcia", "Wang", "Kim", "Muller", "Rossi", "Silva", "Tanaka", "Okafor", "Haddad"};
+
+    private static final String[] COUNTRIES = {"India", "India", "India", "India", "United States", "United Kingdom", "Canada",
+            "Germany", "Singapore", "Australia", "Brazil", "Japan", "Nigeria", "United Arab Emirates"};
+
+    private static final String[] WORDS = {"what", "how", "why", "when", "which", "is", "the", "best", "way", "to", "learn", "java",
+            "spring", "database", "index", "query", "performance", "career", "interview", "startup", "salary", "city", "travel",
+            "book", "movie", "cricket", "football", "history", "science", "physics", "math", "music", "health", "diet", "running",
+            "investing", "stocks", "market", "college", "exam", "coding", "algorithm", "design", "cloud", "kubernetes", "cache",
+            "latency", "throughput", "team", "manager", "remote", "work", "life", "balance", "language", "english", "hindi", "a",
+            "an", "of", "in", "for", "with", "without", "about", "my", "your", "good", "bad", "first", "year", "people", "time"};
+
+    private final GeneratorOptions options;
+
+    private final String[] saltAndHash;
+
+    private long userBase;
+    private long sessionBase;
+    private long questionBase;
+    private long answerBase;
+
+    private ZipfSampler userSampler;
+    private ZipfSampler questionSampler;
+
+    private long userStride;
+    private long questionStride;
+
+    private DataGenerator(final GeneratorOptions options) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        this.options = options;
+        this.saltAndHash = hashPassword(options.password, options.seed);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new DataGenerator(GeneratorOptions.parse(args)).generate();
+    }
+
+    private void generate() throws SQLException, InterruptedException, ExecutionException {
+        try (Connection connection = connect()) {
+            userBase = nextId(connection, "users");
+            sessionBase = nextId(connection, "user_auth");
+            questionBase = nextId(connection, "question");
+            answerBase = nextId(connection, "answer");
+        }
+        userSampler = new ZipfSampler(options.users, options.skew);
+        questionSampler = new ZipfSampler(Math.max(1, options.questions), options.skew);
+        userStride = stride(options.users);
+        questionStride = stride(options.questions);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(options.threads);
+        try {
+            final long started = System.nanoTime();
+            final List<Future<Long>> users = copy(executor, Table.USERS, options.users);
+            await("users", users);
+            final List<Future<Long>> sessions = copy(executor, Table.USER_AUTH, options.sessions);
+            final List<Future<Long>> questions = copy(executor, Table.QUESTION, options.questions);
+            await("user_auth", sessions);
+            await("question", questions);
+            if (options.questions > 0) {
+                await("answer", copy(executor, Table.ANSWER, options.answers));
+            }
+            System.out.printf("Generated in %d s%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            for (final String table : new String[]{"users", "user_auth", "question", "answer"}) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), (SELECT GREATEST(max(id), 1) FROM " + table + "))");
+            }
+            // the copied answers bypass the statements keeping the answer counts of their questions
+            statement.execute("UPDATE question q SET answer_count = c.answers, last_answer_at = c.last_answer_at"
+                    + " FROM (SELECT question_id, count(*) AS answers, max(date) AS last_answer_at FROM answer"
+                    + " WHERE question_id >= " + questionBase + " GROUP BY question_id) c WHERE q.id = c.question_id");
+            statement.execute("ANALYZE users, user_auth, question, answer");
+        }
+    }
+
+    private List<Future<Long>> copy(final ExecutorService executor, final Table table, final int rows) {
+        final List<Future<Long>> chunks = new ArrayList<Future<Long>>();
+        for (int chunk = 0; (long) chunk * CHUNK_SIZE < rows; chunk++) {
+            final int from = chunk * CHUNK_SIZE;
+            final int to = Math.min(rows, from + CHUNK_SIZE);
+            final Random random = new Random(options.seed * 1_000_003L + table.ordinal() * 7_919L + chunk);
+            chunks.add(executor.submit(() -> copyChunk(table, from, to, random)));
+        }
+        return chunks;
+    }
+
+    private long copyChunk(final Table table, final int from, final int to, final Random random) throws SQLException {
+        try (Connection connection = connect()) {
+            final CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(table.copySql);
+            final CopyBuffer rows = new CopyBuffer(copyIn);
+            try {
+                for (int index = from; index < to; index++) {
+                    switch (table) {
+                        case USERS:
+                            user(rows, index, random);
+                            break;
+                        case USER_AUTH:
+                            session(rows, index, random);
+                            break;
+                        case QUESTION:
+                            question(rows, index, random);
+                            break;
+                        case ANSWER:
+                            answer(rows, index, random);
+                            break;
+                        default:
+                            throw new IllegalStateException(table.name());
+                    }
+                    rows.endRow();
+                }
+                return rows.end();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    private void user(final CopyBuffer rows, final int index, final Random random) {
+        final long id = userBase + index;
+        final String firstName = pick(FIRST_NAMES, random);
+        final String userName = firstName.toLowerCase() + "." + id;
+        rows.column(id)
+                .column(uuid(random))
+                .column(firstName)
+                .column(pick(LAST_NAMES, random))
+                .column(userName)
+                .column(userName + "@example.com")
+                .column(saltAndHash[1])
+                .column(saltAndHash[0])
+                .column(pick(COUNTRIES, random))
+                .column(truncate(sentence(random, 3, 8, '.'), 50))
+                .column(String.format("%02d-%02d-%d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1960 + random.nextInt(45)))
+                .column(random.nextInt(1000) == 0 ? "admin" : "nonadmin")
+                .column(String.valueOf(6_000_000_000L + (random.nextLong() & Long.MAX_VALUE) % 4_000_000_000L));
+    }
+
+    private void session(final CopyBuffer rows, final int index, final Random random) {
+        final long loginAt = System.currentTimeMillis() - (long) (random.nextDouble() * 30 * DAY_MILLIS);
+        final long expiresAt = loginAt + TimeUnit.HOURS.toMillis(8);
+        final boolean loggedOut = random.nextBoolean();
+        rows.column(sessionBase + index)
+                .column(uuid(random))
+                .column(userBase + spread(userSampler.sample(random), userStride, options.users))
+                .column("gen-" + uuid(random))
+                .column(new Timestamp(expiresAt))
+                .column(new Timestamp(loginAt))
+                .column(loggedOut ? new Timestamp(loginAt + (long) (random.nextDouble() * (expiresAt - loginAt))) : null);
+    }
+
+    private void question(final CopyBuffer rows, final int index, final Random random) {
+        rows.column(questionBase + index)
+                .column(uuid(random))
+                .column(truncate(sentence(random, 6, 40, '?'), 500))
+                .column(new Timestamp(questionDate(index)))
+                .column(userBase + spread(userSampler.sample(random), userStride, options.users));
+    }
+
+    private void answer(final CopyBuffer rows, final int index, final Random random) {
+        final int question = spread(questionSampler.sample(random), questionStride, options.questions);
+        final long date = Math.min(System.currentTimeMillis(), questionDate(question) + (long) (random.nextDouble() * 30 * DAY_MILLIS));
+        rows.column(answerBase + index)
+                .column(uuid(random))
+                .column(truncate(sentence(random, 5, 40, '.'), 255))
+                .column(new Timestamp(date))
+                .column(userBase + random.nextInt(options.users))
+                .column(questionBase + question);
+    }
+
+    // questions are spread evenly over the last two years, in id order
+    private long questionDate(final int index) {
+        final long span = 730 * DAY_MILLIS;
+        return System.currentTimeMillis() - span + span * index / Math.max(1, options.questions);
+    }
+
+    // maps a Zipf rank (1 = hottest) to a row index, so that the hot rows are not all at the start of the table
+    private static int spread(final int rank, final long stride, final int rows) {
+        return (int) ((rank - 1) * stride % rows);
+    }
+
+    // a multiplier coprime with the row count, so that the mapping is a permutation, near the golden ratio of the row
+    // count, so that consecutive ranks land far apart
+    private static long stride(final int rows) {
+        long stride = Math.max(1, (long) (rows * 0.6180339887));
+        while (!BigInteger.valueOf(stride).gcd(BigInteger.valueOf(rows)).equals(BigInteger.ONE)) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static String sentence(final Random random, final int minWords, final int maxWords, final char end) {
+        final int words = minWords + random.nextInt(maxWords - minWords + 1);
+        final StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            final String word = pick(WORDS, random);
+            if (i == 0) {
+                sentence.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                sentence.append(' ').append(word);
+            }
+        }
+        return sentence.append(end).toString();
+    }
+
+    private static String truncate(final String text, final int length) {
+        return text.length() <= length ? text : text.substring(0, length);
+    }
+
+    private static String pick(final String[] values, final Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static UUID uuid(final Random random) {
+        final long most = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        final long least = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+
+    private static long nextId(final Connection connection, final String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(max(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(options.url, options.username, options.databasePassword);
+    }
+
+    private static void await(final String table, final List<Future<Long>> chunks) throws InterruptedException, ExecutionException {
+        final AtomicLong rows = new AtomicLong();
+        for (final Future<Long> chunk : chunks) {
+            rows.addAndGet(chunk.get());
+        }
+        System.out.printf("Copied %d rows into %s%n", rows.get(), table);
+    }
+
+    /**
+     * Same hashing as the PasswordCryptographyProvider of quora-service, which this module does not depend on, so
+     * that the generated users can sign in with the configured password.
+     */
+    private static String[] hashPassword(final String password, final long seed) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        final byte[] salt = new byte[32];
+        new Random(seed).nextBytes(salt);
+        final PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, 1000, 64);
+        final byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512").generateSecret(spec).getEncoded();
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : hash) {
+            hex.append(String.format("%02X", b));
+        }
+        return new String[]{Base64.getEncoder().encodeToString(salt), hex.toString()};
+    }
+
+    private enum Table {
+        USERS("COPY users(id, uuid, firstname, lastname, username, email, password, salt, country, aboutme, dob, role, contactnumber) FROM STDIN"),
+        USER_AUTH("COPY user_auth(id, uuid, user_id, access_token, expires_at, login_at, logout_at) FROM STDIN"),
+        QUESTION("COPY question(id, uuid, content, date, user_id) FROM STDIN"),
+        ANSWER("COPY answer(id, uuid, ans, date, user_id, question_id) FROM STDIN");
+
+        private final String copySql;
+
+        Table(final String copySql) {
+            this.copySql = copySql;
+        }
+    }
+}
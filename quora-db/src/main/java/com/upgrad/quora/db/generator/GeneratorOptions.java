@@ -0,0 +1,86 @@
+package com.upgrad.quora.db.generator;
+
+/**
+ * Command line of the {@link DataGenerator}, options given as {@code --name=value}:
+ * <pre>
+ * --users=100000        users
+ * --sessions=200000     user_auth rows
+ * --questions=300000    questions
+ * --answers=1000000     answers
+ * --skew=1.0            Zipf exponent of question authors, session owners and answered questions, higher is hotter
+ * --seed=42             seed of all the generated values
+ * --threads=<cpus>      parallel COPY connections
+ * --password=password   password of all the generated users
+ * --url, --username, --database-password    database to fill
+ * </pre>
+ */
+final class GeneratorOptions {
+
+    int users = 100_000;
+    int sessions = 200_000;
+    int questions = 300_000;
+    int answers = 1_000_000;
+    double skew = 1.0;
+    long seed = 42;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String password = "password";
+
+    String url = "jdbc:postgresql://localhost:5432/quora";
+    String username = "postgres";
+    String databasePassword = "password";
+
+    private GeneratorOptions() {
+    }
+
+    static GeneratorOptions parse(final String[] args) {
+        final GeneratorOptions options = new GeneratorOptions();
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            final String name = arg.substring(2, arg.indexOf('='));
+            final String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "sessions":
+                    options.sessions = Integer.parseInt(value);
+                    break;
+                case "questions":
+                    options.questions = Integer.parseInt(value);
+                    break;
+                case "answers":
+                    options.answers = Integer.parseInt(value);
+                    break;
+                case "skew":
+                    options.skew = Double.parseDouble(value);
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "threads":
+                    options.threads = Integer.parseInt(value);
+                    break;
+                case "password":
+                    options.password = value;
+                    break;
+                case "url":
+                    options.url = value;
+                    break;
+                case "username":
+                    options.username = value;
+                    break;
+                case "database-password":
+                    options.databasePassword = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (options.users < 1 || options.sessions < 0 || options.questions < 0 || options.answers < 0 || options.threads < 1) {
+            throw new IllegalArgumentException("At least one user and one thread are needed, and the row counts cannot be negative");
+        }
+        return options;
+    }
+}
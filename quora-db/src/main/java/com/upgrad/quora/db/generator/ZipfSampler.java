@@ -0,0 +1,78 @@
+package com.upgrad.quora.db.generator;
+
+import java.util.Random;
+
+/**
+ * Samples ranks {@code 1..n} with probability proportional to {@code 1 / rank^exponent}, in constant time and memory
+ * whatever {@code n}, with the rejection-inversion method of Hörmann and Derflinger. An exponent around 1 gives the
+ * usual long tail: a handful of ranks draw a large share of the samples.
+ */
+final class ZipfSampler {
+
+    private final int numberOfElements;
+
+    private final double exponent;
+
+    private final double hIntegralX1;
+
+    private final double hIntegralNumberOfElements;
+
+    private final double s;
+
+    ZipfSampler(final int numberOfElements, final double exponent) {
+        if (numberOfElements < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Zipf needs at least one element and a positive exponent");
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * @return a rank between 1 and the number of elements, 1 being the most frequent
+     */
+    int sample(final Random random) {
+        while (true) {
+            final double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            final double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(final double x) {
+        final double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double h(final double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(final double x) {
+        double t = x * (1 - exponent);
+        if (t < -1) {
+            t = -1;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, accurate near 0
+    private static double helper1(final double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, accurate near 0
+    private static double helper2(final double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
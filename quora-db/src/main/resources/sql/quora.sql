@@ -24,7 +24,37 @@ ALTER TABLE USER_AUTH ADD CONSTRAINT FK_USER_AUTH_USER_ID FOREIGN KEY(USER_ID) R
 DROP TABLE IF EXISTS QUESTION CASCADE;
 CREATE TABLE IF NOT EXISTS QUESTION(id SERIAL,uuid VARCHAR(200) NOT NULL, content VARCHAR(500) NOT NULL, date TIMESTAMP NOT NULL , user_id INTEGER NOT NULL, PRIMARY KEY(id), FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE);
 
+--Full-text search document of the question content, generated by Postgres in the transaction inserting or editing the question
+ALTER TABLE QUESTION ADD COLUMN content_tsv TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+CREATE INDEX IX_QUESTION_CONTENT_TSV ON QUESTION USING GIN(content_tsv);
+
+--SimHash of the question content, computed by the application; each 16 bit band is indexed to find the near-duplicates
+ALTER TABLE QUESTION ADD COLUMN content_simhash BIGINT;
+CREATE INDEX IX_QUESTION_SIMHASH_BAND0 ON QUESTION(((content_simhash >> 48) & 65535));
+CREATE INDEX IX_QUESTION_SIMHASH_BAND1 ON QUESTION(((content_simhash >> 32) & 65535));
+CREATE INDEX IX_QUESTION_SIMHASH_BAND2 ON QUESTION(((content_simhash >> 16) & 65535));
+CREATE INDEX IX_QUESTION_SIMHASH_BAND3 ON QUESTION((content_simhash & 65535));
+
+--Number of answers to the question and date of the latest one, kept by the statements creating and deleting answers and reconciled by the answer count repair
+ALTER TABLE QUESTION ADD COLUMN answer_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE QUESTION ADD COLUMN last_answer_at TIMESTAMP;
+
+--QUESTION_STATS table is created to store the views of the questions, added in batches by the view counters of every node along with the merged HyperLogLog sketch of their viewers
+DROP TABLE IF EXISTS QUESTION_STATS CASCADE;
+CREATE TABLE IF NOT EXISTS QUESTION_STATS(question_id INTEGER NOT NULL, views BIGINT NOT NULL DEFAULT 0, viewers BYTEA, unique_viewers BIGINT NOT NULL DEFAULT 0, PRIMARY KEY(question_id), FOREIGN KEY (question_id) REFERENCES QUESTION(id) ON DELETE CASCADE);
+
+--QUESTION_TRENDING table is created to store the last snapshot of the trending questions, so that a restarted node starts from their scores instead of an empty ranking
+DROP TABLE IF EXISTS QUESTION_TRENDING CASCADE;
+CREATE TABLE IF NOT EXISTS QUESTION_TRENDING(question_id INTEGER NOT NULL, score DOUBLE PRECISION NOT NULL, scored_at TIMESTAMP NOT NULL, PRIMARY KEY(question_id), FOREIGN KEY (question_id) REFERENCES QUESTION(id) ON DELETE CASCADE);
+
 
 --ANSWER table is created to store the answers related information in reply to any question posted in the Application
 DROP TABLE IF EXISTS ANSWER CASCADE;
 CREATE TABLE IF NOT EXISTS ANSWER(id SERIAL,uuid VARCHAR(200) NOT NULL, ans VARCHAR(255) NOT NULL,date TIMESTAMP NOT NULL , user_id INTEGER NOT NULL, question_id INTEGER NOT NULL , PRIMARY KEY(id), FOREIGN KEY (user_id) REFERENCES USERS(id) ON DELETE CASCADE, FOREIGN KEY (question_id) REFERENCES QUESTION(id) ON DELETE CASCADE);
+
+--The answers of a question and the latest of them are read through this index, when the answer count of the question is decremented or repaired
+CREATE INDEX IX_ANSWER_QUESTION ON ANSWER(question_id, date);
+
+--RESOURCE_VERSION table is created to store the version of every stripe of keys of the cached regions, raised by the transactions changing their data, so that all the nodes derive the same versions of the resources they serve
+DROP TABLE IF EXISTS RESOURCE_VERSION CASCADE;
+CREATE TABLE IF NOT EXISTS RESOURCE_VERSION(region CHAR(1) NOT NULL, stripe INTEGER NOT NULL, version BIGINT NOT NULL, PRIMARY KEY(region, stripe));
@@ -1,22 +1,37 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.AccessFrequencies;
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.HeavyHitter;
 import com.upgrad.quora.service.dao.UserAuthDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.metrics.HibernateQueryStatistics;
+import com.upgrad.quora.service.metrics.QueryStatistic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class AdminService {
 
     @Autowired private UserAuthDao userAuthDao;
 
     @Autowired private UserDao userDao;
+
+    @Autowired private CacheInvalidationChannel invalidationChannel;
+
+    @Autowired private HibernateQueryStatistics hibernateQueryStatistics;
+
+    @Autowired private AccessFrequencies accessFrequencies;
+
     /**
      * Delete user endpoint
      *
@@ -29,6 +44,54 @@ public class AdminService {
     @Transactional(propagation = Propagation.REQUIRED)
     public UserEntity deleteUser(final String userId, final String accessToken)
             throws AuthorizationFailedException, UserNotFoundException {
+        authorizeAdmin(accessToken);
+
+        final UserEntity existingUser = userDao.getUserById(userId);
+
+        if(existingUser == null) {
+            throw new UserNotFoundException("USR-001", "User with entered uuid to be deleted does not exist");
+        }
+
+        final UserEntity deletedUser = userDao.deleteUser(userId);
+        invalidationChannel.publish(CacheRegion.USER, userId);
+        return deletedUser;
+    }
+
+    /**
+     * Named queries ranked by the total time spent running them on this node
+     *
+     * @param accessToken : access-token for authorization
+     * @param limit : maximum number of queries returned
+     * @return query statistics, empty when Hibernate statistics are disabled
+     * @throws AuthorizationFailedException : If token is invalid or the user is not an admin
+     */
+    public List<QueryStatistic> getTopQueries(final String accessToken, final int limit)
+            throws AuthorizationFailedException {
+        authorizeAdmin(accessToken);
+        return hibernateQueryStatistics.getTopQueriesByTotalTime(limit);
+    }
+
+    /**
+     * Keys read most often lately on this node
+     *
+     * @param accessToken : access-token for authorization
+     * @param limit : maximum number of keys returned
+     * @return access tokens, users, questions and answer lists by decreasing frequency
+     * @throws AuthorizationFailedException : If token is invalid or the user is not an admin
+     */
+    public List<HeavyHitter> getHeavyHitters(final String accessToken, final int limit)
+            throws AuthorizationFailedException {
+        authorizeAdmin(accessToken);
+        return accessFrequencies.getHeavyHitters(limit);
+    }
+
+    /**
+     * Checks that the access token belongs to a signed in admin
+     *
+     * @param accessToken : access-token for authorization
+     * @throws AuthorizationFailedException : If token is invalid or the user is not an admin
+     */
+    private void authorizeAdmin(final String accessToken) throws AuthorizationFailedException {
         final UserAuthEntity userAuthEntity = userAuthDao.getUserAuthByToken(accessToken);
 
         if(userAuthEntity == null) {
@@ -42,14 +105,5 @@ public class AdminService {
         if(!userAuthEntity.getUserEntity().getRole().equals("admin")) {
             throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
         }
-
-        final UserEntity existingUser = userDao.getUserById(userId);
-
-        if(existingUser == null) {
-            throw new UserNotFoundException("USR-001", "User with entered uuid to be deleted does not exist");
-        }
-
-        final UserEntity deletedUser = userDao.deleteUser(userId);
-        return deletedUser;
     }
 }
\ No newline at end of file
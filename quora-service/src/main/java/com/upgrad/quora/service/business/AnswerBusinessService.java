@@ -1,5 +1,7 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
 import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionEntity;
@@ -8,6 +10,7 @@ import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.stats.TrendingQuestions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -21,6 +24,12 @@ public class AnswerBusinessService {
     @Autowired
     private AnswerDao answerDao;
 
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Autowired
+    private TrendingQuestions trendingQuestions;
+
     /**
      * @param answerEntity
      * @param authorization
@@ -35,6 +44,11 @@ public class AnswerBusinessService {
         }
         final UserAuthEntity userAuthToken = answerDao.getUserAuthToken(authorization);
         answerEntity.setUser(userAuthToken.getUserEntity());
+        invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, answerEntity.getQuestion().getUuid());
+        // the question lists of the owner show the answer count
+        invalidationChannel.publish(CacheRegion.USER_QUESTIONS, answerEntity.getQuestion().getUser().getUuid());
+        // scored once the answer is committed
+        trendingQuestions.recordAnswer(answerEntity.getQuestion().getUuid(), answerEntity.getQuestion().getContent());
         return answerDao.createAnswer(answerEntity);
     }
 
@@ -42,6 +56,7 @@ public class AnswerBusinessService {
      * @param answerUuid
      * @return
      */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public AnswerEntity getAnswerbyUuid(final String answerUuid, final String authorization)
             throws AnswerNotFoundException, AuthorizationFailedException, AuthenticationFailedException {
 
@@ -68,6 +83,8 @@ public class AnswerBusinessService {
     @Transactional(propagation = Propagation.REQUIRED)
     public AnswerEntity deleteAnswer(final AnswerEntity answerEntity) {
         final AnswerEntity deletedAnswer = answerDao.deleteAnswer(answerEntity);
+        invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, answerEntity.getQuestion().getUuid());
+        invalidationChannel.publish(CacheRegion.USER_QUESTIONS, answerEntity.getQuestion().getUser().getUuid());
         return deletedAnswer;
     }
 
@@ -77,6 +94,7 @@ public class AnswerBusinessService {
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public AnswerEntity editAnswer(final AnswerEntity answerEntity) {
+        invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, answerEntity.getQuestion().getUuid());
         return answerDao.editAnswer(answerEntity);
     }
 
@@ -85,6 +103,7 @@ public class AnswerBusinessService {
      * @return
      * @throws AuthorizationFailedException
      */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public List<AnswerEntity> getAllAnswersToQuestion(final QuestionEntity questionEntity) {
         return answerDao.getAllAnswersToQuestion(questionEntity.getUuid());
     }
@@ -30,9 +30,26 @@ public class CommonUserService {
      * @throws AuthorizationFailedException
      * @throws UserNotFoundException
      */
-    @Transactional(propagation = Propagation.REQUIRED)
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public UserEntity getUserProfile(final String userUuid,
                                      final String authorizationToken) throws AuthorizationFailedException, UserNotFoundException {
+        authorize(authorizationToken);
+
+        final UserEntity userEntity = userDao.getUserById(userUuid);
+        if (userEntity == null) {
+            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist");
+        }
+
+        return userEntity;
+    }
+
+    /**
+     * Checks that the user may read profiles, for the requests answered without loading the profile
+     * @param authorizationToken
+     * @throws AuthorizationFailedException
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void authorize(final String authorizationToken) throws AuthorizationFailedException {
         final UserAuthEntity userAuthEntity = userAuthDao.getUserAuthByToken(authorizationToken);
 
         if (userAuthEntity == null) {
@@ -48,12 +65,5 @@ public class CommonUserService {
         if (userAuthEntity.getExpiresAt().isBefore(currentTime)) {
             throw new AuthorizationFailedException("ATHR-004", "Invalid access token.");
         }
-
-        final UserEntity userEntity = userDao.getUserById(userUuid);
-        if (userEntity == null) {
-            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist");
-        }
-
-        return userEntity;
     }
-}
\ No newline at end of file
+}
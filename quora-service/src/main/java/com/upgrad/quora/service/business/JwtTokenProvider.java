@@ -4,11 +4,14 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.upgrad.quora.service.common.GenericErrorCode;
 import com.upgrad.quora.service.common.UnexpectedException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoField;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used in the project to provide JWT token after successful authentication
@@ -16,6 +19,11 @@ import java.util.UUID;
 public class JwtTokenProvider {
     private static final String TOKEN_ISSUER = "https://quora.io";
 
+    private static final Timer SIGN_TIMER = Timer.builder("quora.auth.jwt.sign")
+            .description("Time spent building and signing access tokens")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
     private final Algorithm algorithm;
 
     /**
@@ -45,10 +53,15 @@ public class JwtTokenProvider {
         final Date issuedAt = new Date(issuedDateTime.getLong(ChronoField.INSTANT_SECONDS));
         final Date expiresAt = new Date(expiresDateTime.getLong(ChronoField.INSTANT_SECONDS));
 
-        return JWT.create().withIssuer(TOKEN_ISSUER) //
-                .withKeyId(UUID.randomUUID().toString())
-                .withAudience(userUuid) //
-                .withIssuedAt(issuedAt).withExpiresAt(expiresAt).sign(algorithm);
+        final long start = System.nanoTime();
+        try {
+            return JWT.create().withIssuer(TOKEN_ISSUER) //
+                    .withKeyId(UUID.randomUUID().toString())
+                    .withAudience(userUuid) //
+                    .withIssuedAt(issuedAt).withExpiresAt(expiresAt).sign(algorithm);
+        } finally {
+            SIGN_TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
 }
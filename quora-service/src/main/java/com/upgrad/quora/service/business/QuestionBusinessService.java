@@ -1,52 +1,125 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.AccessFrequencies;
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.DuplicateQuestionException;
+import com.upgrad.quora.service.exception.InvalidCursorException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.page.AnswerCursor;
+import com.upgrad.quora.service.page.QuestionAnswerRow;
+import com.upgrad.quora.service.page.QuestionWithAnswers;
+import com.upgrad.quora.service.search.SimHash;
+import com.upgrad.quora.service.search.SimilarQuestion;
+import com.upgrad.quora.service.stats.QuestionStats;
+import com.upgrad.quora.service.stats.QuestionViewCounters;
+import com.upgrad.quora.service.stats.TrendingQuestion;
+import com.upgrad.quora.service.stats.TrendingQuestions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class QuestionBusinessService {
 
+    public static final int MAX_ANSWER_PAGE_SIZE = 100;
+
     @Autowired
     private QuestionDao questionDao;
 
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Autowired
+    private QuestionViewCounters questionViewCounters;
+
+    @Autowired
+    private TrendingQuestions trendingQuestions;
+
+    @Autowired
+    private AccessFrequencies accessFrequencies;
+
+    // SimHash distances, at most SimHash.MAX_INDEXED_DISTANCE: questions this close are rejected as duplicates, a
+    // negative distance rejects none
+    @Value("${quora.question.duplicates.reject-distance:1}")
+    private int duplicateRejectDistance;
+
+    // questions this close are returned as possible duplicates of the question posted
+    @Value("${quora.question.duplicates.candidate-distance:3}")
+    private int duplicateCandidateDistance;
+
     /**
-     * This method persists the new question to the db
+     * This method persists the new question to the db, unless a question with nearly the same content exists already.
+     * The questions with a similar content are set as the similar questions of the new question. Near-duplicates
+     * posted at the same time are created one after the other, so that the later ones are rejected.
      *
      * @param questionEntity - new question which has to be persisted
      * @param s
      * @param authorization  - logged-in user
      * @return persisted new question
      * @throws AuthorizationFailedException - if the user fails to authenticate
+     * @throws DuplicateQuestionException   - if the question is a near-duplicate of another question
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public QuestionEntity createQuestion(final QuestionEntity questionEntity,
                                          final String authorization,
-                                         final String additionalErrorMsg) throws AuthorizationFailedException, AuthenticationFailedException {
+                                         final String additionalErrorMsg) throws AuthorizationFailedException, AuthenticationFailedException, DuplicateQuestionException {
         isUserAuthenticated(authorization);
         isUserLoggedOut(authorization, additionalErrorMsg);
         UserAuthEntity userAuthToken = questionDao.getUserAuthToken(authorization);
         questionEntity.setUser(userAuthToken.getUserEntity());
+        questionEntity.setContentSimHash(SimHash.of(questionEntity.getContent()));
+        if (questionEntity.getContentSimHash() != null && duplicateRejectDistance >= 0) {
+            // a near-duplicate created concurrently is either committed before the lookup or waits for this transaction
+            questionDao.lockSimHashBands(questionEntity.getContentSimHash());
+        }
+        final List<SimilarQuestion> similarQuestions = getSimilarQuestions(questionEntity.getContentSimHash());
+        if (!similarQuestions.isEmpty()
+                && SimHash.distance(similarQuestions.get(0).getSimHash(), questionEntity.getContentSimHash()) <= duplicateRejectDistance) {
+            throw new DuplicateQuestionException("QUES-002", "A question with the same content has already been posted");
+        }
+        questionEntity.setSimilarQuestions(similarQuestions);
+        invalidationChannel.publish(CacheRegion.QUESTION, questionEntity.getUuid());
+        invalidationChannel.publish(CacheRegion.USER_QUESTIONS, questionEntity.getUser().getUuid());
         return questionDao.createQuestion(questionEntity);
     }
 
+    /**
+     * Checks that the user is signed in, for the endpoints whose response is served from a cache
+     *
+     * @param authorization      - logged-in user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @throws AuthorizationFailedException - if the user is not authenticated
+     * @throws AuthenticationFailedException - if the user is signed out
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void authorize(final String authorization,
+                          final String additionalErrorMsg) throws AuthorizationFailedException, AuthenticationFailedException {
+        isUserAuthenticated(authorization);
+        isUserLoggedOut(authorization, additionalErrorMsg);
+    }
+
     /**
      * This method fetches the question from dbm corresponding to a given id.
      *
      * @param questionUuid - id of the question which has to be fetched from db
      * @return - asked question
      */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public QuestionEntity getQuestionEntity(final String questionUuid,
                                             final String authorization,
                                             final String additionalErrorMsg)
@@ -58,6 +131,45 @@ public class QuestionBusinessService {
     }
 
 
+    /**
+     * Fetches the question viewed by the signed in user and counts the view, in memory until the next flush of the view
+     * counters.
+     *
+     * @param questionUuid       - id of the question viewed
+     * @param authorization      - logged-in user
+     * @param additionalErrorMsg - appended to the message of the error if the user is signed out
+     * @return - viewed question
+     * @throws AuthorizationFailedException - if the user is not authenticated
+     * @throws InvalidQuestionException     - if the question does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public QuestionEntity viewQuestion(final String questionUuid,
+                                       final String authorization,
+                                       final String additionalErrorMsg)
+            throws AuthorizationFailedException, InvalidQuestionException, AuthenticationFailedException {
+        final QuestionEntity questionEntity = getQuestionEntity(questionUuid, authorization, additionalErrorMsg);
+        questionViewCounters.record(questionUuid, questionDao.getUserAuthToken(authorization).getUserEntity().getUuid());
+        trendingQuestions.recordView(questionUuid, questionEntity.getContent());
+        accessFrequencies.record(CacheRegion.QUESTION, questionUuid);
+        return questionEntity;
+    }
+
+    /**
+     * @param questionUuid - id of the question
+     * @return views and estimated unique viewers of the question, including the views not flushed yet by this node
+     */
+    public QuestionStats getQuestionStats(final String questionUuid) {
+        return questionViewCounters.getStats(questionUuid);
+    }
+
+    /**
+     * @param limit - maximum number of questions, at most the configured top k
+     * @return questions with the most recent views and answers of this node, highest score first
+     */
+    public List<TrendingQuestion> getTrendingQuestions(final int limit) {
+        return trendingQuestions.getTrending(Math.max(1, Math.min(limit, trendingQuestions.getTopK())));
+    }
+
     /**
      * Returns all questions from the database
      *
@@ -65,6 +177,7 @@ public class QuestionBusinessService {
      * @return list of all questions
      * @throws AuthorizationFailedException - if the user is not authenticated.
      */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public List<QuestionEntity> getAllQuestions(final String authorization,
                                                 final String additionalErrorMsg) throws AuthorizationFailedException, AuthenticationFailedException {
         isUserAuthenticated(authorization);
@@ -72,6 +185,61 @@ public class QuestionBusinessService {
         return questionDao.getAllQuestions();
     }
 
+    /**
+     * Fetches the question for a caller authorized already, see {@link #authorize(String, String)}
+     *
+     * @param questionUuid - id of the question which has to be fetched from db
+     * @return - asked question
+     * @throws InvalidQuestionException - if the question does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public QuestionEntity getQuestion(final String questionUuid) throws InvalidQuestionException {
+        doesQuestionExist(questionUuid);
+        return questionDao.getQuestionByUUId(questionUuid);
+    }
+
+    /**
+     * Fetches the question and a page of its answers with a single query, for a caller authorized already, see
+     * {@link #authorize(String, String)}
+     *
+     * @param questionUuid - id of the question
+     * @param cursor       - cursor of the page of answers, null for the first page
+     * @param limit        - size of the page, at most {@link #MAX_ANSWER_PAGE_SIZE}
+     * @return the question and its answers, oldest first
+     * @throws InvalidQuestionException - if the question does not exist
+     * @throws InvalidCursorException   - if the cursor is not the cursor of an answer page
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public QuestionWithAnswers getQuestionWithAnswers(final String questionUuid, final String cursor, final int limit)
+            throws InvalidQuestionException, InvalidCursorException {
+        final AnswerCursor after = cursor == null || cursor.isEmpty() ? null : AnswerCursor.decode(cursor);
+        final int pageSize = Math.max(1, Math.min(limit, MAX_ANSWER_PAGE_SIZE));
+
+        // one more than the page tells whether a next page exists
+        final List<QuestionAnswerRow> rows = questionDao.getQuestionWithAnswers(questionUuid, after, pageSize + 1);
+        if (rows.isEmpty()) {
+            throw new InvalidQuestionException("QUES-001", "Entered question uuid does not exist");
+        }
+        if (rows.get(0).getAnswerId() == null) {
+            return new QuestionWithAnswers(rows.get(0), Collections.<QuestionAnswerRow>emptyList(), null);
+        }
+        if (rows.size() <= pageSize) {
+            return new QuestionWithAnswers(rows.get(0), rows, null);
+        }
+        final List<QuestionAnswerRow> page = rows.subList(0, pageSize);
+        return new QuestionWithAnswers(rows.get(0), page, AnswerCursor.after(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Returns all questions from the database for a caller authorized already, see {@link #authorize(String, String)}
+     *
+     * @return list of all questions
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<QuestionEntity> getAllQuestions() {
+        return questionDao.getAllQuestions();
+    }
+
     /**
      * Returns all questions from the database belonging to a particular user
      *
@@ -81,6 +249,7 @@ public class QuestionBusinessService {
      * @return list of all questions
      * @throws AuthorizationFailedException - if the user is not authenticated.
      */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
     public List<QuestionEntity> getAllQuestionsByUser(final String userId,
                                                       final String authorization,
                                                       final String additionalErrorMsg) throws AuthorizationFailedException, AuthenticationFailedException, UserNotFoundException {
@@ -102,6 +271,8 @@ public class QuestionBusinessService {
         doesQuestionExist(questionId);
         final QuestionEntity questionEntity = questionDao.getQuestionByUUId(questionId);
         isUserOwnerOrAdmin(authorization, questionEntity, additionalErrorMsg);
+        invalidationChannel.publish(CacheRegion.QUESTION, questionId);
+        invalidationChannel.publish(CacheRegion.USER_QUESTIONS, questionEntity.getUser().getUuid());
         return questionDao.deleteQuestion(questionId);
     }
 
@@ -112,7 +283,9 @@ public class QuestionBusinessService {
      * @param questionEntity - question entity carrying the new content
      * @return question entity after successfully persisting
      */
-    @Transactional(propagation = Propagation.REQUIRED)
+    // the question arrives already modified and managed by the request's persistence context, a rejected edit must roll
+    // back rather than flush it
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = AuthorizationFailedException.class)
     public QuestionEntity editQuestionContent(final String authorization, final QuestionEntity questionEntity) throws AuthorizationFailedException {
         final UserAuthEntity userAuthEntity = questionDao.getUserAuthToken(authorization);
         final UserEntity userEntity = userAuthEntity.getUserEntity();
@@ -123,9 +296,33 @@ public class QuestionBusinessService {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner can edit the question");
         }
 
+        questionEntity.setContentSimHash(SimHash.of(questionEntity.getContent()));
+        invalidationChannel.publish(CacheRegion.QUESTION, questionEntity.getUuid());
+        invalidationChannel.publish(CacheRegion.USER_QUESTIONS, userEntity.getUuid());
         return questionDao.editQuestionContent(questionEntity);
     }
 
+    /**
+     * Looks the near-duplicates of a content up in the band indexes of the SimHashes, without reading the other questions
+     *
+     * @param simHash - SimHash of the content, null for a content without words
+     * @return questions within the candidate distance, closest first
+     */
+    private List<SimilarQuestion> getSimilarQuestions(final Long simHash) {
+        if (simHash == null) {
+            return Collections.emptyList();
+        }
+        final int maxDistance = Math.min(SimHash.MAX_INDEXED_DISTANCE, Math.max(duplicateCandidateDistance, duplicateRejectDistance));
+        final List<SimilarQuestion> similarQuestions = new ArrayList<SimilarQuestion>();
+        for (final SimilarQuestion candidate : questionDao.getSimilarQuestions(simHash)) {
+            if (SimHash.distance(candidate.getSimHash(), simHash) <= maxDistance) {
+                similarQuestions.add(candidate);
+            }
+        }
+        similarQuestions.sort(Comparator.comparingInt(similarQuestion -> SimHash.distance(similarQuestion.getSimHash(), simHash)));
+        return similarQuestions;
+    }
+
     /**
      * Method checks if user is authenticated
      *
@@ -0,0 +1,73 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.exception.InvalidSearchException;
+import com.upgrad.quora.service.search.PrefixSuggester;
+import com.upgrad.quora.service.search.QuestionSearchHit;
+import com.upgrad.quora.service.search.QuestionSearchIndex;
+import com.upgrad.quora.service.search.QuestionSearchPage;
+import com.upgrad.quora.service.search.QuestionSuggester;
+import com.upgrad.quora.service.search.SearchCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Full-text search of the questions, paged with {@link SearchCursor}s. The matching and ranking is done by the
+ * configured {@link QuestionSearchIndex}: by default the tsvector Postgres generates from the question content whenever
+ * a question is created or edited, always up to date with the content in the same transaction; or the in-memory index
+ * of the node, which keeps the searches off the database. Suggestions of the questions starting with a prefix come from the
+ * {@link QuestionSuggester} of the node.
+ */
+@Service
+public class QuestionSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private QuestionSearchIndex searchIndex;
+
+    @Autowired
+    private QuestionSuggester questionSuggester;
+
+    /**
+     * Searches the questions for a caller authorized already, see {@link QuestionBusinessService#authorize(String, String)}
+     *
+     * @param query  - words to search for
+     * @param cursor - cursor of the page, null for the first page
+     * @param limit  - size of the page, at most {@link #MAX_PAGE_SIZE}
+     * @return matching questions, most relevant first
+     * @throws InvalidSearchException - if the query is blank or the cursor is not the cursor of a search page
+     */
+    public QuestionSearchPage searchQuestions(final String query, final String cursor, final int limit) throws InvalidSearchException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidSearchException("SRCH-001", "Search query cannot be empty");
+        }
+        final SearchCursor after = cursor == null || cursor.isEmpty() ? null : SearchCursor.decode(cursor);
+        final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // one more than the page tells whether a next page exists
+        final List<QuestionSearchHit> hits = searchIndex.search(query, after, pageSize + 1);
+        if (hits.size() <= pageSize) {
+            return new QuestionSearchPage(hits, null);
+        }
+        final List<QuestionSearchHit> page = hits.subList(0, pageSize);
+        return new QuestionSearchPage(page, SearchCursor.after(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Suggests the questions starting with a prefix, for a caller authorized already, see
+     * {@link QuestionBusinessService#authorize(String, String)}
+     *
+     * @param prefix - beginning of the question content
+     * @param limit  - maximum number of suggestions, at most the configured top k
+     * @return most answered questions starting with the prefix, none for a blank prefix
+     */
+    public List<PrefixSuggester.Suggestion> suggestQuestions(final String prefix, final int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return questionSuggester.suggest(prefix, Math.max(1, Math.min(limit, questionSuggester.getTopK())));
+    }
+}
@@ -1,5 +1,7 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
 import com.upgrad.quora.service.dao.UserAuthDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthEntity;
@@ -28,6 +30,9 @@ public class UserBusinessService {
     @Autowired
     private PasswordCryptographyProvider cryptographyProvider;
 
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
     /**
      * SignUp method for users and add salt, encryption to password
      *
@@ -97,7 +102,8 @@ public class UserBusinessService {
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public UserEntity signOut(final String accessToken) throws SignOutRestrictedException {
-        final UserAuthEntity userAuthEntity = userAuthDao.getUserAuthByToken(accessToken);
+        // the cached session is shared with the requests in flight, the logout is set on a private instance
+        final UserAuthEntity userAuthEntity = userAuthDao.getUserAuthByTokenForUpdate(accessToken);
 
         if(userAuthEntity == null) {
             throw new SignOutRestrictedException("SGR-001", "User is not Signed in");
@@ -105,6 +111,8 @@ public class UserBusinessService {
 
         userAuthEntity.setLogoutAt(ZonedDateTime.now());
         userAuthDao.updateUserAuth(userAuthEntity);
+        // dropped again once committed, on every node, in case the session was cached meanwhile
+        invalidationChannel.publish(CacheRegion.SESSION, accessToken);
         return userAuthEntity.getUserEntity();
     }
 
@@ -0,0 +1,230 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node local estimate of how often the access tokens, users and questions are read lately, keyed by
+ * {@link CacheRegion}, in a single {@link FrequencySketch}.
+ * <p>
+ * Every session lookup, cached response and question view is recorded, so the reads do not update the sketch
+ * themselves: they go to a lossy {@link ReadBuffer} without blocking, and whichever thread fills a stripe of the buffer
+ * drains it into the sketch if no other thread is draining already. A cache about to store a value drains the buffer
+ * the same way, so that the admission compares frequencies counting the latest reads, the miss of the candidate key
+ * among them. The frequencies are read without locking, an estimate either way.
+ * <p>
+ * The frequencies drive the TinyLFU admission of the local caches: once a cache is full, a value is only cached when
+ * its key is read more often than the key of the entry it would evict, so that a burst of one-off reads of cold keys
+ * goes through without flushing the hot entries. Set {@code quora.cache.admission.enabled} to false to go back to
+ * plain LRU; the frequencies are still estimated.
+ * <p>
+ * The {@code quora.cache.frequency.heavy-hitters} keys of highest frequency are tracked along the way, to spot the
+ * viral questions and the abusive users or tokens. Access tokens are credentials, they are reported as a digest.
+ */
+@Component
+public class AccessFrequencies {
+
+    @Value("${quora.cache.admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${quora.cache.frequency.counters:16384}")
+    private int counters;
+
+    @Value("${quora.cache.frequency.sample-size:163840}")
+    private int sampleSize;
+
+    @Value("${quora.cache.frequency.heavy-hitters:32}")
+    private int maxHeavyHitters;
+
+    private final Map<CacheRegion, Counter> rejections = new EnumMap<CacheRegion, Counter>(CacheRegion.class);
+
+    // guards the sketch updates and the heavy hitters, held by the thread draining the read buffer
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private ReadBuffer readBuffer;
+
+    private FrequencySketch sketch;
+
+    // frequency of the heavy hitters by key in the sketch, as of their last access
+    private final Map<String, Integer> heavyHitters = new HashMap<String, Integer>();
+
+    private int minHeavyHitterFrequency;
+
+    private long resets;
+
+    @PostConstruct
+    public void init() {
+        readBuffer = new ReadBuffer(4 * Runtime.getRuntime().availableProcessors());
+        sketch = new FrequencySketch(counters, sampleSize);
+        for (final CacheRegion region : CacheRegion.values()) {
+            rejections.put(region, Counter.builder("quora.cache.admission.rejected")
+                    .description("Values not cached because their key is read less often than the one they would evict")
+                    .tag("region", region.name()).register(Metrics.globalRegistry));
+        }
+    }
+
+    /**
+     * Counts an access to the key, unless the read buffer is contended, in which case the access may be dropped.
+     *
+     * @param region - region of the key
+     * @param key    - key accessed
+     */
+    public void record(final CacheRegion region, final String key) {
+        if (readBuffer.offer(region.getCode() + key)) {
+            drain();
+        }
+    }
+
+    /**
+     * Counts the accesses still buffered, unless another thread is counting them already.
+     */
+    public void drain() {
+        if (drainLock.tryLock()) {
+            try {
+                readBuffer.drainTo(this::increment);
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    // called with the drain lock held
+    private void increment(final String sketchKey) {
+        final int frequency = sketch.increment(sketchKey);
+        if (sketch.getResets() != resets) {
+            resets = sketch.getResets();
+            for (final Map.Entry<String, Integer> heavyHitter : heavyHitters.entrySet()) {
+                heavyHitter.setValue(heavyHitter.getValue() >>> 1);
+            }
+            minHeavyHitterFrequency >>>= 1;
+        }
+        if (heavyHitters.containsKey(sketchKey) || heavyHitters.size() < maxHeavyHitters) {
+            heavyHitters.put(sketchKey, frequency);
+        } else if (maxHeavyHitters > 0 && frequency > minHeavyHitterFrequency) {
+            replaceColdestHeavyHitter(sketchKey, frequency);
+        }
+    }
+
+    /**
+     * @param region - region of the key
+     * @param key    - key
+     * @return estimated accesses to the key lately
+     */
+    public int frequency(final CacheRegion region, final String key) {
+        return sketch.frequency(region.getCode() + key);
+    }
+
+    /**
+     * @param region    - region of the keys
+     * @param candidate - key of the value to be cached
+     * @param victim    - key of the entry which would be evicted for it
+     * @return whether the candidate is read more often than the victim, always true when admission is disabled
+     */
+    public boolean admit(final CacheRegion region, final String candidate, final String victim) {
+        if (!admissionEnabled || frequency(region, candidate) > frequency(region, victim)) {
+            return true;
+        }
+        rejections.get(region).increment();
+        return false;
+    }
+
+    /**
+     * @param region - region of the keys of the cache
+     * @return admission of a cache keyed like the region
+     */
+    public CacheAdmission admission(final CacheRegion region) {
+        return new CacheAdmission() {
+            @Override
+            public void recordAccess(final String key) {
+                record(region, key);
+            }
+
+            @Override
+            public void catchUp() {
+                drain();
+            }
+
+            @Override
+            public boolean admit(final String candidate, final String victim) {
+                return AccessFrequencies.this.admit(region, candidate, victim);
+            }
+        };
+    }
+
+    /**
+     * @param limit - maximum number of keys
+     * @return keys of highest frequency, most frequent first
+     */
+    public List<HeavyHitter> getHeavyHitters(final int limit) {
+        final List<Map.Entry<String, Integer>> ranked;
+        drainLock.lock();
+        try {
+            // the reads still buffered count too
+            readBuffer.drainTo(this::increment);
+            ranked = new ArrayList<Map.Entry<String, Integer>>(heavyHitters.size());
+            for (final String sketchKey : heavyHitters.keySet()) {
+                // the frequency stored on the last access may be outdated by collisions and halvings
+                ranked.add(new HashMap.SimpleImmutableEntry<String, Integer>(sketchKey, sketch.frequency(sketchKey)));
+            }
+        } finally {
+            drainLock.unlock();
+        }
+        ranked.sort((left, right) -> Integer.compare(right.getValue(), left.getValue()));
+
+        final List<HeavyHitter> hitters = new ArrayList<HeavyHitter>(Math.min(limit, ranked.size()));
+        for (final Map.Entry<String, Integer> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            final CacheRegion region = CacheRegion.fromCode(entry.getKey().charAt(0));
+            final String key = entry.getKey().substring(1);
+            hitters.add(new HeavyHitter(region, region == CacheRegion.SESSION ? digest(key) : key, entry.getValue()));
+        }
+        return hitters;
+    }
+
+    private void replaceColdestHeavyHitter(final String sketchKey, final int frequency) {
+        String coldest = null;
+        int coldestFrequency = Integer.MAX_VALUE;
+        for (final Map.Entry<String, Integer> heavyHitter : heavyHitters.entrySet()) {
+            if (heavyHitter.getValue() < coldestFrequency) {
+                coldest = heavyHitter.getKey();
+                coldestFrequency = heavyHitter.getValue();
+            }
+        }
+        if (frequency > coldestFrequency) {
+            heavyHitters.remove(coldest);
+            heavyHitters.put(sketchKey, frequency);
+        }
+        // a lower bound only, the remaining keys may be accessed again before the next scan
+        minHeavyHitterFrequency = Integer.MAX_VALUE;
+        for (final int heavyHitterFrequency : heavyHitters.values()) {
+            minHeavyHitterFrequency = Math.min(minHeavyHitterFrequency, heavyHitterFrequency);
+        }
+    }
+
+    private static String digest(final String accessToken) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder("sha256:");
+            for (int i = 0; i < 8; i++) {
+                hex.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        }
+    }
+}
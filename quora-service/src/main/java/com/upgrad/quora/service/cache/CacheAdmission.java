@@ -0,0 +1,28 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Decides which entries a full {@link LocalCache} keeps, from how often their keys are read.
+ */
+public interface CacheAdmission {
+
+    /**
+     * Counts a lookup of the key, whether it hit the cache or not.
+     *
+     * @param key - key looked up
+     */
+    void recordAccess(String key);
+
+    /**
+     * Brings the frequencies up to date with the lookups counted so far, when it can without waiting. Called before a
+     * value is cached, outside of the lock of the cache.
+     */
+    default void catchUp() {
+    }
+
+    /**
+     * @param candidate - key of the value to be cached
+     * @param victim    - key of the entry the cache would evict to make room for it
+     * @return whether the candidate is worth evicting the victim
+     */
+    boolean admit(String candidate, String victim);
+}
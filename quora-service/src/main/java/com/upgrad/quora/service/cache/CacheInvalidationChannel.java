@@ -0,0 +1,434 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.dao.ResourceVersionDao;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the local caches of all the nodes coherent by publishing invalidations through Postgres NOTIFY and consuming
+ * them over a dedicated LISTEN connection on every node.
+ * <p>
+ * A message is a compact text of the form {@code <node id>|<region code><key>|<region code><key>...}. Invalidations
+ * published inside a transaction are collected and de-duplicated until commit, sent with a single NOTIFY in the same
+ * transaction and applied to the local caches only after the commit succeeded. On the receiving side bursts of
+ * notifications are coalesced, and a burst bigger than {@code max-batch-keys} is turned into a full flush. After the
+ * LISTEN connection is lost and re-established every cache is flushed since messages sent in the gap are lost.
+ * <p>
+ * The keys of the regions having {@link VersionListener}s are hashed into {@link #STRIPES} stripes whose versions are
+ * kept in the database: a transaction publishing invalidations raises the versions of their stripes just before it
+ * commits, and the raised versions travel along the invalidations as entries of the form
+ * {@code #<region code><stripe>:<version>}. Every node thus ends up with the same versions, which it reloads from the
+ * database whenever it may have missed some.
+ */
+@Component
+public class CacheInvalidationChannel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationChannel.class);
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final char SEPARATOR = '|';
+
+    private static final char VERSION_MARK = '#';
+
+    private static final char VERSION_SEPARATOR = ':';
+
+    /**
+     * Number of stripes the keys of a versioned region are hashed into.
+     */
+    public static final int STRIPES = 1024;
+
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private static final long CONNECTION_CHECK_INTERVAL_MILLIS = 10000;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<CacheRegion, List<InvalidationListener>> listeners = new ConcurrentHashMap<CacheRegion, List<InvalidationListener>>();
+
+    private final Map<CacheRegion, List<VersionListener>> versionListeners = new ConcurrentHashMap<CacheRegion, List<VersionListener>>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResourceVersionDao resourceVersionDao;
+
+    @Value("${quora.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.cache.invalidation.channel:quora_invalidation}")
+    private String channel;
+
+    @Value("${quora.cache.invalidation.poll-interval-ms:500}")
+    private int pollIntervalMillis;
+
+    @Value("${quora.cache.invalidation.coalesce-window-ms:20}")
+    private int coalesceWindowMillis;
+
+    @Value("${quora.cache.invalidation.max-batch-keys:1000}")
+    private int maxBatchKeys;
+
+    @Value("${quora.cache.invalidation.reconnect-backoff-max-ms:30000}")
+    private long maxReconnectBackoffMillis;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private volatile boolean running;
+
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("Invalid invalidation channel name: " + channel);
+        }
+        if (!enabled) {
+            LOG.info("Cross-node cache invalidation is disabled, invalidations are applied to this node only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "quora-cache-invalidation");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread.join(pollIntervalMillis * 2L);
+        }
+    }
+
+    /**
+     * Registers a local cache for the invalidations of the given regions.
+     *
+     * @param listener - local cache to be invalidated
+     * @param regions  - regions the cache depends on
+     */
+    public void register(final InvalidationListener listener, final CacheRegion... regions) {
+        for (final CacheRegion region : regions) {
+            listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<InvalidationListener>()).add(listener);
+        }
+    }
+
+    /**
+     * Registers a listener for the versions of the stripes of the given regions, starting with their current versions.
+     *
+     * @param listener - listener of the versions
+     * @param regions  - regions to be versioned
+     */
+    public void registerVersions(final VersionListener listener, final CacheRegion... regions) {
+        for (final CacheRegion region : regions) {
+            versionListeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<VersionListener>()).add(listener);
+        }
+        for (final StripeVersion version : resourceVersionDao.getVersions(Arrays.asList(regions))) {
+            listener.versionChanged(version);
+        }
+    }
+
+    /**
+     * @param key - key of a versioned region
+     * @return stripe the key is hashed into
+     */
+    public static int stripe(final String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    /**
+     * Publishes the invalidation of a key to this and all the other nodes. Inside a transaction the invalidation is
+     * deferred until the transaction commits and dropped if it rolls back. The version of the stripe of a key of a
+     * versioned region is raised in the transaction, or on its own outside of one.
+     *
+     * @param region - region of the changed data
+     * @param key    - key of the changed data
+     */
+    public void publish(final CacheRegion region, final String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInvalidations().add(region, key);
+            return;
+        }
+        final Invalidations invalidations = new Invalidations();
+        invalidations.add(region, key);
+        raiseVersions(invalidations);
+        notifyNodes(invalidations);
+        dispatch(invalidations);
+    }
+
+    private Invalidations pendingInvalidations() {
+        Invalidations pending = (Invalidations) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            final Invalidations invalidations = new Invalidations();
+            TransactionSynchronizationManager.bindResource(this, invalidations);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void beforeCommit(final boolean readOnly) {
+                    // the raised stripes stay locked until the commit, which comes right after
+                    raiseVersions(invalidations);
+                    // NOTIFY is transactional, the other nodes receive it only if this transaction commits
+                    notifyNodes(invalidations);
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationChannel.this);
+                    if (status == STATUS_COMMITTED) {
+                        dispatch(invalidations);
+                    }
+                }
+            });
+            pending = invalidations;
+        }
+        return pending;
+    }
+
+    private void raiseVersions(final Invalidations invalidations) {
+        final Map<CacheRegion, Set<Integer>> stripes = new EnumMap<CacheRegion, Set<Integer>>(CacheRegion.class);
+        for (final Map.Entry<CacheRegion, Set<String>> regionKeys : invalidations.keys.entrySet()) {
+            if (!versionListeners.containsKey(regionKeys.getKey())) {
+                continue;
+            }
+            // sorted, so that concurrent transactions lock the stripes in the same order
+            final Set<Integer> regionStripes = new TreeSet<Integer>();
+            for (final String key : regionKeys.getValue()) {
+                regionStripes.add(stripe(key));
+            }
+            stripes.put(regionKeys.getKey(), regionStripes);
+        }
+        if (!stripes.isEmpty()) {
+            invalidations.versions.addAll(resourceVersionDao.raiseVersions(stripes));
+        }
+    }
+
+    private void notifyNodes(final Invalidations invalidations) {
+        if (!enabled) {
+            return;
+        }
+        for (final String payload : invalidations.toPayloads(nodeId)) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) resultSet -> null, channel, payload);
+        }
+    }
+
+    private void dispatch(final Invalidations invalidations) {
+        // the versions come first, a version read after an invalidation must not be the one of the invalidated data
+        dispatchVersions(invalidations.versions);
+        if (invalidations.size() > maxBatchKeys) {
+            dispatchInvalidateAll();
+            return;
+        }
+        for (final Map.Entry<CacheRegion, Set<String>> regionKeys : invalidations.keys.entrySet()) {
+            final List<InvalidationListener> regionListeners = listeners.get(regionKeys.getKey());
+            if (regionListeners == null) {
+                continue;
+            }
+            for (final InvalidationListener listener : regionListeners) {
+                for (final String key : regionKeys.getValue()) {
+                    listener.invalidate(regionKeys.getKey(), key);
+                }
+            }
+        }
+    }
+
+    private void dispatchVersions(final List<StripeVersion> versions) {
+        for (final StripeVersion version : versions) {
+            final List<VersionListener> regionListeners = versionListeners.get(version.getRegion());
+            if (regionListeners == null) {
+                continue;
+            }
+            for (final VersionListener listener : regionListeners) {
+                listener.versionChanged(version);
+            }
+        }
+    }
+
+    private void dispatchInvalidateAll() {
+        final Set<InvalidationListener> all = Collections.newSetFromMap(new IdentityHashMap<InvalidationListener, Boolean>());
+        for (final List<InvalidationListener> regionListeners : listeners.values()) {
+            all.addAll(regionListeners);
+        }
+        for (final InvalidationListener listener : all) {
+            listener.invalidateAll();
+        }
+    }
+
+    /**
+     * Body of the listener thread. Keeps a LISTEN connection open, reconnecting with an exponential back-off.
+     */
+    private void listen() {
+        long backoffMillis = 100;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                backoffMillis = 100;
+                // Invalidations sent while this node was not listening are lost, start over with empty caches
+                dispatchInvalidateAll();
+                dispatchVersions(resourceVersionDao.getVersions(versionListeners.keySet()));
+                receive(connection.unwrap(PGConnection.class), connection);
+            } catch (SQLException e) {
+                if (running) {
+                    LOG.warn("Cache invalidation LISTEN connection failed, reconnecting in {} ms", backoffMillis, e);
+                }
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, maxReconnectBackoffMillis);
+        }
+    }
+
+    private void receive(final PGConnection pgConnection, final Connection connection) throws SQLException {
+        long lastCheckedAt = System.currentTimeMillis();
+        while (running) {
+            // a timeout of 0 would block until the next notification arrives
+            PGNotification[] notifications = pgConnection.getNotifications(Math.max(1, pollIntervalMillis));
+            if (notifications == null || notifications.length == 0) {
+                // a silent connection may be a dead one, the check makes a broken socket surface as an exception
+                if (System.currentTimeMillis() - lastCheckedAt > CONNECTION_CHECK_INTERVAL_MILLIS) {
+                    if (!connection.isValid(5)) {
+                        throw new SQLException("LISTEN connection is no longer valid");
+                    }
+                    lastCheckedAt = System.currentTimeMillis();
+                }
+                continue;
+            }
+            final Invalidations received = new Invalidations();
+            // keep draining for a short window so that a burst is applied as a single batch
+            while (notifications != null && notifications.length > 0 && received.size() <= maxBatchKeys) {
+                for (final PGNotification notification : notifications) {
+                    received.parse(notification.getParameter(), nodeId);
+                }
+                notifications = pgConnection.getNotifications(Math.max(1, coalesceWindowMillis));
+            }
+            dispatch(received);
+        }
+    }
+
+    /**
+     * Set of invalidated keys per region, in the order they were first published, with the versions they raised.
+     */
+    private static final class Invalidations {
+
+        private final Map<CacheRegion, Set<String>> keys = new EnumMap<CacheRegion, Set<String>>(CacheRegion.class);
+
+        private final List<StripeVersion> versions = new ArrayList<StripeVersion>();
+
+        private int size;
+
+        private void add(final CacheRegion region, final String key) {
+            if (keys.computeIfAbsent(region, r -> new LinkedHashSet<String>()).add(key)) {
+                size++;
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private List<String> toPayloads(final String nodeId) {
+            final List<String> payloads = new ArrayList<String>();
+            StringBuilder payload = new StringBuilder(nodeId);
+            for (final Map.Entry<CacheRegion, Set<String>> regionKeys : keys.entrySet()) {
+                for (final String key : regionKeys.getValue()) {
+                    if (payload.length() + key.length() + 2 > MAX_PAYLOAD_LENGTH && payload.length() > nodeId.length()) {
+                        payloads.add(payload.toString());
+                        payload = new StringBuilder(nodeId);
+                    }
+                    payload.append(SEPARATOR).append(regionKeys.getKey().getCode()).append(key);
+                }
+            }
+            for (final StripeVersion version : versions) {
+                final String entry = VERSION_MARK + String.valueOf(version.getRegion().getCode()) + version.getStripe()
+                        + VERSION_SEPARATOR + version.getVersion();
+                if (payload.length() + entry.length() + 1 > MAX_PAYLOAD_LENGTH && payload.length() > nodeId.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(nodeId);
+                }
+                payload.append(SEPARATOR).append(entry);
+            }
+            if (payload.length() > nodeId.length()) {
+                payloads.add(payload.toString());
+            }
+            return payloads;
+        }
+
+        private void parse(final String payload, final String ownNodeId) {
+            final String[] fields = payload.split("\\" + SEPARATOR);
+            // invalidations of this node have already been applied locally after commit
+            if (fields.length == 0 || fields[0].equals(ownNodeId)) {
+                return;
+            }
+            for (int i = 1; i < fields.length; i++) {
+                if (fields[i].isEmpty()) {
+                    continue;
+                }
+                if (fields[i].charAt(0) == VERSION_MARK) {
+                    parseVersion(fields[i]);
+                    continue;
+                }
+                final CacheRegion region = CacheRegion.fromCode(fields[i].charAt(0));
+                if (region != null) {
+                    add(region, fields[i].substring(1));
+                }
+            }
+        }
+
+        private void parseVersion(final String field) {
+            final int separator = field.indexOf(VERSION_SEPARATOR);
+            final CacheRegion region = field.length() > 1 ? CacheRegion.fromCode(field.charAt(1)) : null;
+            if (region == null || separator < 3) {
+                return;
+            }
+            try {
+                versions.add(new StripeVersion(region, Integer.parseInt(field.substring(2, separator)),
+                        Long.parseLong(field.substring(separator + 1))));
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring malformed version {} of an invalidation message", field);
+            }
+        }
+    }
+}
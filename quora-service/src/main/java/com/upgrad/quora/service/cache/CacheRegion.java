@@ -0,0 +1,62 @@
+package com.upgrad.quora.service.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Regions of locally cached data which can be invalidated across all nodes of the application.
+ * Every region has a single character code which is used in the compact invalidation messages.
+ */
+public enum CacheRegion {
+
+    /**
+     * Key: access token of the user session.
+     */
+    SESSION('S'),
+
+    /**
+     * Key: uuid of the user.
+     */
+    USER('U'),
+
+    /**
+     * Key: uuid of the question which has been created, edited or deleted.
+     */
+    QUESTION('Q'),
+
+    /**
+     * Key: uuid of the question whose answers have been created, edited or deleted.
+     */
+    QUESTION_ANSWERS('A'),
+
+    /**
+     * Key: uuid of the user whose questions have been created, edited or deleted.
+     */
+    USER_QUESTIONS('O');
+
+    private static final Map<Character, CacheRegion> LOOKUP = new HashMap<Character, CacheRegion>();
+
+    static {
+        for (final CacheRegion region : CacheRegion.values()) {
+            LOOKUP.put(region.getCode(), region);
+        }
+    }
+
+    private final char code;
+
+    CacheRegion(final char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    /**
+     * @param code - single character code of the region
+     * @return region of the given code, null if the code is unknown
+     */
+    public static CacheRegion fromCode(final char code) {
+        return LOOKUP.get(code);
+    }
+}
@@ -0,0 +1,110 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Count-Min Sketch estimating how often keys were seen lately, in a fixed amount of memory whatever the number of
+ * keys.
+ * <p>
+ * A key increments one counter in each of the four rows, picked by double hashing, and its frequency is the smallest
+ * of them: collisions can only make it higher than the real one. Increments are conservative, only raising the
+ * counters which are at the minimum, which halves the overestimation of the cold keys sharing counters with hot ones.
+ * <p>
+ * After {@code sampleSize} increments every counter is halved, so that the frequencies follow the recent accesses
+ * rather than the whole history of the node (the aging of TinyLFU, Einziger et al., 2017).
+ * <p>
+ * Increments are not thread safe, a single thread at a time may call {@link #increment} and {@link #reset}. Frequencies
+ * may be read meanwhile from other threads, they are then estimated from counters being updated.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+
+    private final int[] counters;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    private long resets;
+
+    /**
+     * @param width      - counters per row, rounded up to a power of two
+     * @param sampleSize - increments between two halvings of the counters
+     */
+    public FrequencySketch(final int width, final int sampleSize) {
+        final int rowLength = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.counters = new int[DEPTH * rowLength];
+        this.mask = rowLength - 1;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Counts one more access to the key.
+     *
+     * @param key - accessed key
+     * @return estimated frequency of the key, this access included
+     * @see #frequency(String)
+     */
+    public int increment(final String key) {
+        final int[] indexes = indexes(key);
+        int min = Integer.MAX_VALUE;
+        for (final int index : indexes) {
+            min = Math.min(min, counters[index]);
+        }
+        for (final int index : indexes) {
+            if (counters[index] == min) {
+                counters[index]++;
+            }
+        }
+        if (++additions >= sampleSize) {
+            reset();
+        }
+        return min + 1;
+    }
+
+    /**
+     * @param key - key
+     * @return estimated number of accesses to the key since the counters were halved, halved counts included
+     */
+    public int frequency(final String key) {
+        int min = Integer.MAX_VALUE;
+        for (final int index : indexes(key)) {
+            min = Math.min(min, counters[index]);
+        }
+        return min;
+    }
+
+    /**
+     * @return number of halvings of the counters so far
+     */
+    public long getResets() {
+        return resets;
+    }
+
+    /**
+     * Halves every counter.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        additions >>>= 1;
+        resets++;
+    }
+
+    private int[] indexes(final String key) {
+        // the two hashes of double hashing come from the two halves of a 64 bit mix of the hash code
+        long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        final int hash1 = (int) hash;
+        final int hash2 = (int) (hash >>> 32) | 1;
+        final int[] indexes = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            indexes[row] = row * (mask + 1) + ((hash1 + row * hash2) & mask);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Key read more often than the others lately, as estimated by {@link AccessFrequencies}.
+ */
+public class HeavyHitter {
+
+    private final CacheRegion region;
+
+    private final String key;
+
+    private final int frequency;
+
+    public HeavyHitter(final CacheRegion region, final String key, final int frequency) {
+        this.region = region;
+        this.key = key;
+        this.frequency = frequency;
+    }
+
+    public CacheRegion getRegion() {
+        return region;
+    }
+
+    /**
+     * @return key in the region, a digest of the access token for sessions
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return estimated accesses since the frequencies were last halved, halved counts included
+     */
+    public int getFrequency() {
+        return frequency;
+    }
+}
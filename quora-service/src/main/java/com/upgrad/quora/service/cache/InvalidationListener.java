@@ -0,0 +1,20 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Implemented by the local caches which have to drop entries when the data behind them changes on any node.
+ */
+public interface InvalidationListener {
+
+    /**
+     * Drop the entries of the given key in the given region.
+     *
+     * @param region - region of the changed data
+     * @param key    - key of the changed data
+     */
+    void invalidate(CacheRegion region, String key);
+
+    /**
+     * Drop every entry. Called when invalidations may have been missed, e.g. after a lost LISTEN connection.
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,134 @@
+package com.upgrad.quora.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small size bounded LRU cache whose entries expire after a fixed time to live.
+ * <p>
+ * Every invalidation moves the cache to a new generation. A value loaded from the database is only stored when the
+ * cache is still in the generation read before the load, so that a load racing with an invalidation cannot put the
+ * stale value back into the cache.
+ * <p>
+ * With a {@link CacheAdmission}, a full cache only stores a new key when the admission prefers it to the least
+ * recently used entry, which is then evicted; otherwise the value is returned uncached and the entry stays.
+ *
+ * @param <V> - type of the cached values
+ */
+public class LocalCache<V> {
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final CacheAdmission admission;
+
+    private final Map<String, Entry<V>> entries;
+
+    private long generation;
+
+    public LocalCache(final int maxEntries, final long ttl, final TimeUnit ttlUnit) {
+        this(maxEntries, ttl, ttlUnit, null);
+    }
+
+    /**
+     * @param admission - decides which keys a full cache stores, null for plain LRU
+     */
+    public LocalCache(final int maxEntries, final long ttl, final TimeUnit ttlUnit, final CacheAdmission admission) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlUnit.toNanos(ttl);
+        this.admission = admission;
+        this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key - key of the value
+     * @return cached value, null if there is no live entry for the key
+     */
+    public V get(final String key) {
+        // recorded outside of the lock of the cache, the admissions of all the caches share their frequencies
+        if (admission != null) {
+            admission.recordAccess(key);
+        }
+        return lookup(key);
+    }
+
+    private synchronized V lookup(final String key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * @return current generation, to be read before loading a value which is later passed to {@link #put}
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores the value unless the cache has been invalidated since the given generation was read.
+     *
+     * @param key        - key of the value
+     * @param value      - value to be cached
+     * @param generation - generation read before the value was loaded
+     */
+    public void put(final String key, final V value, final long generation) {
+        // outside of the lock of the cache, like the recording of the accesses
+        if (admission != null) {
+            admission.catchUp();
+        }
+        store(key, value, generation);
+    }
+
+    private synchronized void store(final String key, final V value, final long generation) {
+        if (this.generation == generation && isAdmitted(key)) {
+            entries.put(key, new Entry<V>(value, System.nanoTime()));
+        }
+    }
+
+    private boolean isAdmitted(final String key) {
+        if (admission == null || entries.size() < maxEntries || entries.containsKey(key)) {
+            return true;
+        }
+        // the first entry of the access ordered map is the least recently used one, the next to be evicted
+        final Map.Entry<String, Entry<V>> eldest = entries.entrySet().iterator().next();
+        return System.nanoTime() - eldest.getValue().createdAt > ttlNanos || admission.admit(key, eldest.getKey());
+    }
+
+    public synchronized void invalidate(final String key) {
+        entries.remove(key);
+        generation++;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(final V value, final long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
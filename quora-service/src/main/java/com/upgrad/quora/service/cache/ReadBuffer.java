@@ -0,0 +1,100 @@
+package com.upgrad.quora.service.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy buffer of the keys read, between the request threads and the single thread at a time updating the
+ * {@link FrequencySketch}.
+ * <p>
+ * The buffer is striped by thread, each stripe being a small bounded ring. Adding a key never blocks: a key offered to
+ * a full stripe, or racing with another thread for the same slot, is dropped. The frequencies are then estimated from
+ * a sample of the reads, which is all the admission needs, and a burst of reads on many threads never waits on the
+ * sketch.
+ */
+final class ReadBuffer {
+
+    // slots per stripe, a power of two
+    private static final int STRIPE_SIZE = 16;
+
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    /**
+     * @param stripes - number of stripes, rounded up to a power of two
+     */
+    ReadBuffer(final int stripes) {
+        final int length = Integer.highestOneBit(Math.max(2, stripes - 1)) << 1;
+        this.stripes = new Stripe[length];
+        for (int i = 0; i < length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = length - 1;
+    }
+
+    /**
+     * @param key - key read
+     * @return whether the stripe of the current thread is full and should be drained, the key is dropped when it was
+     * already full
+     */
+    boolean offer(final String key) {
+        // thread ids are sequential, mixing them spreads the threads started together over the stripes
+        final long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (id >>> 32) & mask].offer(key);
+    }
+
+    /**
+     * Passes the buffered keys to the consumer. Called by a single thread at a time.
+     *
+     * @param consumer - receives the keys, in the order they were added per stripe
+     */
+    void drainTo(final Consumer<String> consumer) {
+        for (final Stripe stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static final class Stripe {
+
+        private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<String>(STRIPE_SIZE);
+
+        // slots taken by the writers and slots read by the drain, only ever growing
+        private final AtomicLong writes = new AtomicLong();
+
+        private final AtomicLong reads = new AtomicLong();
+
+        private boolean offer(final String key) {
+            final long head = reads.get();
+            final long tail = writes.get();
+            final long size = tail - head;
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writes.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & STRIPE_MASK), key);
+                return size + 1 >= STRIPE_SIZE;
+            }
+            return false;
+        }
+
+        private void drainTo(final Consumer<String> consumer) {
+            long head = reads.get();
+            final long tail = writes.get();
+            for (; head < tail; head++) {
+                final int index = (int) (head & STRIPE_MASK);
+                final String key = slots.get(index);
+                if (key == null) {
+                    // the slot is taken but its key not yet written, it is read by the next drain
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(key);
+            }
+            reads.lazySet(head);
+        }
+    }
+}
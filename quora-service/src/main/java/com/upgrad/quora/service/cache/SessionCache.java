@@ -0,0 +1,77 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node local cache of the user sessions by access token. Every endpoint looks up the session of the caller, often
+ * several times per request, so this saves most of the user_auth queries. Entries are dropped on sign-out of the
+ * session and when the user is deleted, on whichever node that happens. Once full, the cache keeps the tokens used
+ * most often, see {@link AccessFrequencies}. Set {@code quora.cache.session.enabled} to false to read every session
+ * from the database.
+ */
+@Component
+public class SessionCache implements InvalidationListener {
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Autowired
+    private AccessFrequencies accessFrequencies;
+
+    @Value("${quora.cache.session.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.cache.session.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${quora.cache.session.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private LocalCache<UserAuthEntity> sessions;
+
+    @PostConstruct
+    public void init() {
+        sessions = new LocalCache<UserAuthEntity>(maxEntries, ttlSeconds, TimeUnit.SECONDS, accessFrequencies.admission(CacheRegion.SESSION));
+        invalidationChannel.register(this, CacheRegion.SESSION, CacheRegion.USER);
+    }
+
+    public UserAuthEntity get(final String accessToken) {
+        // looked up even when disabled, the cache is then empty but the reads of the token are still counted
+        return sessions.get(accessToken);
+    }
+
+    public long generation() {
+        return sessions.generation();
+    }
+
+    /**
+     * @param userAuthEntity - session detached from the persistence context it was loaded in
+     * @param generation     - generation read before the session was loaded
+     */
+    public void put(final UserAuthEntity userAuthEntity, final long generation) {
+        if (enabled) {
+            sessions.put(userAuthEntity.getAccessToken(), userAuthEntity, generation);
+        }
+    }
+
+    @Override
+    public void invalidate(final CacheRegion region, final String key) {
+        if (region == CacheRegion.SESSION) {
+            sessions.invalidate(key);
+        } else {
+            // sessions are keyed by token, all of them go when a user changes
+            sessions.invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        sessions.invalidateAll();
+    }
+}
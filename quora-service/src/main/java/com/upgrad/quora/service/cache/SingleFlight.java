@@ -0,0 +1,151 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent identical loads: the first caller of a key runs the load, the callers arriving while it is in
+ * flight wait for it and share its result or its exception. Meant for the loads behind a cache miss, which a burst of
+ * readers of the same popular data would otherwise all send to the database at once.
+ * <p>
+ * The result is handed to other threads, so it has to be immutable and must not be attached to the persistence
+ * context of the loading caller: share serialized or mapped data, never managed entities. Authorization stays with
+ * every caller, before joining a flight.
+ * <p>
+ * Loads are grouped by the kind of data they read. A caller waits at most {@code quora.single-flight.timeout-ms}, or
+ * {@code quora.single-flight.groups.<group>.timeout-ms} when set, for the load it joined and then runs the load
+ * itself. Calls are counted under {@code quora.singleflight.calls}, tagged with the group and whether the caller led
+ * the load, followed it or gave up waiting; {@code quora.singleflight.coalescing.ratio} is the share of the calls of a
+ * group which were served by the load of another caller.
+ */
+@Component
+public class SingleFlight {
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${quora.single-flight.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quora.single-flight.timeout-ms:2000}")
+    private long defaultTimeoutMillis;
+
+    // group|key -> load in flight
+    private final ConcurrentMap<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+
+    private final ConcurrentMap<String, FlightGroup> groups = new ConcurrentHashMap<String, FlightGroup>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("quora.singleflight.in.flight", flights, ConcurrentMap::size)
+                .description("Loads in flight")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param group  - kind of data loaded, selects the timeout and tags the metrics
+     * @param key    - identifies the data within the group, e.g. the cache key the result is stored under
+     * @param loader - loads the data, run by the caller itself when no load of the key is in flight
+     * @return result of the load this call led or joined
+     * @throws Exception - thrown by the load this call led or joined
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(final String group, final String key, final Callable<V> loader) throws Exception {
+        if (!enabled) {
+            return loader.call();
+        }
+        final FlightGroup flightGroup = groups.computeIfAbsent(group, FlightGroup::new);
+        final String flightKey = group + '|' + key;
+        final CompletableFuture<Object> flight = new CompletableFuture<Object>();
+        final CompletableFuture<Object> inFlight = flights.putIfAbsent(flightKey, flight);
+        if (inFlight == null) {
+            flightGroup.leaders.increment();
+            try {
+                final V value = loader.call();
+                flight.complete(value);
+                return value;
+            } catch (Throwable e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(flightKey, flight);
+            }
+        }
+        try {
+            final Object value = inFlight.get(flightGroup.timeoutMillis, TimeUnit.MILLISECONDS);
+            flightGroup.followers.increment();
+            return (V) value;
+        } catch (ExecutionException e) {
+            flightGroup.followers.increment();
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            // the load we joined may be stuck, do not let it hold this caller any longer
+            flightGroup.timeouts.increment();
+            return loader.call();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    private static Exception rethrow(final Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new UnexpectedException(GenericErrorCode.GEN_001, cause);
+    }
+
+    private final class FlightGroup {
+
+        private final long timeoutMillis;
+
+        private final Counter leaders;
+
+        private final Counter followers;
+
+        private final Counter timeouts;
+
+        FlightGroup(final String name) {
+            timeoutMillis = environment.getProperty("quora.single-flight.groups." + name + ".timeout-ms", Long.class, defaultTimeoutMillis);
+            leaders = counter(name, "leader");
+            followers = counter(name, "follower");
+            timeouts = counter(name, "timeout");
+            Gauge.builder("quora.singleflight.coalescing.ratio", this, FlightGroup::coalescingRatio)
+                    .description("Share of the calls served by the load of another caller")
+                    .tag("group", name)
+                    .register(Metrics.globalRegistry);
+        }
+
+        private Counter counter(final String name, final String outcome) {
+            return Counter.builder("quora.singleflight.calls")
+                    .description("Calls for a load, by whether they led it, followed it or gave up waiting for it")
+                    .tag("group", name)
+                    .tag("outcome", outcome)
+                    .register(Metrics.globalRegistry);
+        }
+
+        private double coalescingRatio() {
+            final double calls = leaders.count() + followers.count() + timeouts.count();
+            return calls == 0 ? 0 : followers.count() / calls;
+        }
+    }
+}
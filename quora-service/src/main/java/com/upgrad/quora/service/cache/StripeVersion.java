@@ -0,0 +1,31 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Version of a stripe of the keys of a region, raised by every change of the data of one of its keys.
+ */
+public class StripeVersion {
+
+    private final CacheRegion region;
+
+    private final int stripe;
+
+    private final long version;
+
+    public StripeVersion(final CacheRegion region, final int stripe, final long version) {
+        this.region = region;
+        this.stripe = stripe;
+        this.version = version;
+    }
+
+    public CacheRegion getRegion() {
+        return region;
+    }
+
+    public int getStripe() {
+        return stripe;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,16 @@
+package com.upgrad.quora.service.cache;
+
+/**
+ * Implemented by the components deriving the versions of cached data from the {@link StripeVersion}s of its regions,
+ * which are kept in the database and hence the same on every node.
+ */
+public interface VersionListener {
+
+    /**
+     * Takes a version of a stripe. Versions may arrive out of order, one lower than a version already taken is
+     * outdated.
+     *
+     * @param version - version of a stripe of a region the listener is registered for
+     */
+    void versionChanged(StripeVersion version);
+}
@@ -10,7 +10,14 @@ public enum GenericErrorCode implements ErrorCode {
      * <b>Cause:</b> This error could have occurred due to undetermined runtime errors.<br>
      * <b>Action: None</b><br>
      */
-    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator");
+    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator"),
+
+    /**
+     * Error message: <b>The server is overloaded. Please retry later</b><br>
+     * <b>Cause:</b> The request was shed because the server was already serving as many requests as it can handle.<br>
+     * <b>Action: Retry after the delay given in the Retry-After header</b><br>
+     */
+    GEN_002("GEN-002", "The server is overloaded. Please retry later");
 
     private static final Map<String, GenericErrorCode> LOOKUP = new HashMap<String, GenericErrorCode>();
 
@@ -0,0 +1,34 @@
+package com.upgrad.quora.service.common;
+
+/**
+ * 64 bit hash of a string: FNV-1a, then the finalizer of MurmurHash3 since FNV alone leaves the high bits of short
+ * strings poorly mixed. Used where every bit of the hash counts, such as the features of a SimHash or the register and
+ * rank of a HyperLogLog. The hashes are stored in the database, the function must not change.
+ */
+public final class StringHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StringHash() {
+    }
+
+    /**
+     * @param value - string to hash
+     * @return well mixed 64 bit hash of the string
+     */
+    public static long of(final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -2,6 +2,7 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -15,14 +16,22 @@ public class AnswerDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private UserAuthDao userAuthDao;
+
+    @Autowired
+    private NamedQueryTimer namedQueryTimer;
+
     /**
-     * Create new answer if question exists
+     * Create new answer if question exists, and count it in the answer count of the question
      *
      * @param answerEntity
      * @return
      */
     public AnswerEntity createAnswer(final AnswerEntity answerEntity) {
         entityManager.persist(answerEntity);
+        namedQueryTimer.executeUpdate("incrementAnswerCount", entityManager.createNamedQuery("incrementAnswerCount")
+                .setParameter("questionId", answerEntity.getQuestion().getId()).setParameter("answeredAt", answerEntity.getDate()));
         return answerEntity;
     }
 
@@ -34,20 +43,23 @@ public class AnswerDao {
      */
     public AnswerEntity getAnswerByUuId(final String answerUuid) {
         try {
-            return entityManager.createNamedQuery("answerFromUuid", AnswerEntity.class).setParameter("answerUuid", answerUuid).getSingleResult();
+            return namedQueryTimer.getSingleResult("answerFromUuid", entityManager.createNamedQuery("answerFromUuid", AnswerEntity.class).setParameter("answerUuid", answerUuid));
         } catch (NoResultException nre) {
             return null;
         }
     }
 
     /**
-     * Delte the answer from the persistence storage
+     * Delte the answer from the persistence storage, and uncount it from the answer count of the question
      *
      * @param answerEntity
      * @return
      */
     public AnswerEntity deleteAnswer(final AnswerEntity answerEntity) {
         entityManager.remove(answerEntity);
+        // the removal is flushed before the statement, which reads the latest remaining answer
+        namedQueryTimer.executeUpdate("decrementAnswerCount", entityManager.createNamedQuery("decrementAnswerCount")
+                .setParameter("questionId", answerEntity.getQuestion().getId()));
         return answerEntity;
     }
 
@@ -66,7 +78,7 @@ public class AnswerDao {
      */
     public List<AnswerEntity> getAllAnswersToQuestion(final String questionUuid) {
         try {
-            return entityManager.createNamedQuery("allAnswersToQuestion", AnswerEntity.class).setParameter("questionUuid", questionUuid).getResultList();
+            return namedQueryTimer.getResultList("allAnswersToQuestion", entityManager.createNamedQuery("allAnswersToQuestion", AnswerEntity.class).setParameter("questionUuid", questionUuid));
         } catch (NoResultException nre) {
             return null;
         }
@@ -77,10 +89,6 @@ public class AnswerDao {
      * @return
      */
     public UserAuthEntity getUserAuthToken(final String accessToken) {
-        try {
-            return entityManager.createNamedQuery("userAuthByAccessToken", UserAuthEntity.class).setParameter("accessToken", accessToken).getSingleResult();
-        } catch (NoResultException nre) {
-            return null;
-        }
+        return userAuthDao.getUserAuthByToken(accessToken);
     }
 }
\ No newline at end of file
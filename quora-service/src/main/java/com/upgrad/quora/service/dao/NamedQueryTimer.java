@@ -0,0 +1,113 @@
+package com.upgrad.quora.service.dao;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the named queries of the DAOs, timing each execution under {@code quora.db.query} tagged with the name of
+ * the query. The timers publish a percentile histogram and are registered with the global registry, which the
+ * registries of the application are added to.
+ * <p>
+ * An execution slower than {@code quora.db.slow-query-threshold-ms} is logged with the query name, the duration and
+ * the shape of the bind parameters: their names and types, and the length of strings and collections, never their
+ * values since those include access tokens and password hashes.
+ */
+@Component
+public class NamedQueryTimer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NamedQueryTimer.class);
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+    @Value("${quora.db.slow-query-threshold-ms:200}")
+    private long slowQueryThresholdMillis;
+
+    /**
+     * @param queryName - name of the named query, used as the tag of the timer
+     * @param query     - query created from the named query, parameters set
+     * @return the single result, {@link javax.persistence.NoResultException} is thrown as usual
+     */
+    public <T> T getSingleResult(final String queryName, final TypedQuery<T> query) {
+        final long start = System.nanoTime();
+        try {
+            return query.getSingleResult();
+        } finally {
+            record(queryName, query, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param queryName - name of the named query, used as the tag of the timer
+     * @param query     - query created from the named query, parameters set
+     * @return the results
+     */
+    public <T> List<T> getResultList(final String queryName, final TypedQuery<T> query) {
+        final long start = System.nanoTime();
+        try {
+            return query.getResultList();
+        } finally {
+            record(queryName, query, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param queryName - name of the named query, used as the tag of the timer
+     * @param query     - update or delete statement created from the named query, parameters set
+     * @return the number of rows updated or deleted
+     */
+    public int executeUpdate(final String queryName, final Query query) {
+        final long start = System.nanoTime();
+        try {
+            return query.executeUpdate();
+        } finally {
+            record(queryName, query, System.nanoTime() - start);
+        }
+    }
+
+    private void record(final String queryName, final Query query, final long durationNanos) {
+        timers.computeIfAbsent(queryName, name -> Timer.builder("quora.db.query")
+                .description("Execution time of the named queries")
+                .tag("query", name)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        final long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        if (durationMillis >= slowQueryThresholdMillis && LOG.isWarnEnabled()) {
+            LOG.warn("Slow query {} took {} ms, parameters [{}]", queryName, durationMillis, parameterShape(query));
+        }
+    }
+
+    private static String parameterShape(final Query query) {
+        final StringBuilder shape = new StringBuilder();
+        for (final Parameter<?> parameter : query.getParameters()) {
+            if (shape.length() > 0) {
+                shape.append(", ");
+            }
+            shape.append(parameter.getName() != null ? parameter.getName() : "?" + parameter.getPosition()).append('=');
+            final Object value = query.isBound(parameter) ? query.getParameterValue(parameter) : null;
+            if (value == null) {
+                shape.append("null");
+            } else if (value instanceof CharSequence) {
+                shape.append(value.getClass().getSimpleName()).append('(').append(((CharSequence) value).length()).append(')');
+            } else if (value instanceof Collection) {
+                shape.append(value.getClass().getSimpleName()).append('[').append(((Collection<?>) value).size()).append(']');
+            } else {
+                shape.append(value.getClass().getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+}
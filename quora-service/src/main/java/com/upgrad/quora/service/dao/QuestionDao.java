@@ -2,6 +2,13 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.entity.UserAuthEntity;
+import com.upgrad.quora.service.page.AnswerCursor;
+import com.upgrad.quora.service.page.QuestionAnswerRow;
+import com.upgrad.quora.service.search.QuestionSearchHit;
+import com.upgrad.quora.service.search.SearchCursor;
+import com.upgrad.quora.service.search.SimHash;
+import com.upgrad.quora.service.search.SimilarQuestion;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -15,6 +22,12 @@ public class QuestionDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private UserAuthDao userAuthDao;
+
+    @Autowired
+    private NamedQueryTimer namedQueryTimer;
+
     /**
      * This method persists a new question to db
      *
@@ -35,7 +48,7 @@ public class QuestionDao {
      */
     public QuestionEntity getQuestionByUUId(final String uuid) {
         try {
-            return entityManager.createNamedQuery("questionById", QuestionEntity.class).setParameter("questionUUId", uuid).getSingleResult();
+            return namedQueryTimer.getSingleResult("questionById", entityManager.createNamedQuery("questionById", QuestionEntity.class).setParameter("questionUUId", uuid));
         } catch (NoResultException nre) {
             return null;
         }
@@ -49,7 +62,7 @@ public class QuestionDao {
      */
     public List<QuestionEntity> getAllQuestionsByUser(final String userUuid) {
         try {
-            return entityManager.createNamedQuery("allQuestionsByUser", QuestionEntity.class).setParameter("userUuid", userUuid).getResultList();
+            return namedQueryTimer.getResultList("allQuestionsByUser", entityManager.createNamedQuery("allQuestionsByUser", QuestionEntity.class).setParameter("userUuid", userUuid));
         } catch (NoResultException nre) {
             return null;
         }
@@ -62,12 +75,75 @@ public class QuestionDao {
      */
     public List<QuestionEntity> getAllQuestions() {
         try {
-            return entityManager.createNamedQuery("allQuestions", QuestionEntity.class).getResultList();
+            return namedQueryTimer.getResultList("allQuestions", entityManager.createNamedQuery("allQuestions", QuestionEntity.class));
         } catch (NoResultException nre) {
             return null;
         }
     }
 
+    /**
+     * Full-text search of the question contents, most relevant first.
+     *
+     * @param query - web search syntax: words, quoted phrases, "or" and words excluded with a leading "-"
+     * @param after - position of the last question of the previous page, null for the first page
+     * @param limit - maximum number of questions returned
+     * @return matching questions
+     */
+    public List<QuestionSearchHit> searchQuestions(final String query, final SearchCursor after, final int limit) {
+        if (after == null) {
+            return namedQueryTimer.getResultList("searchQuestions", entityManager.createNamedQuery("searchQuestions", QuestionSearchHit.class)
+                    .setParameter("query", query).setParameter("limit", limit));
+        }
+        return namedQueryTimer.getResultList("searchQuestionsAfter", entityManager.createNamedQuery("searchQuestionsAfter", QuestionSearchHit.class)
+                .setParameter("query", query).setParameter("afterRank", after.getRank()).setParameter("afterId", after.getId())
+                .setParameter("limit", limit));
+    }
+
+    /**
+     * A question and a page of its answers, oldest first, in a single query.
+     *
+     * @param questionUuid - uuid of the question
+     * @param after        - position of the last answer of the previous page, null for the first page
+     * @param limit        - maximum number of answers returned
+     * @return a row per answer of the page, a single row without answer when there is none, no row when the question
+     * does not exist
+     */
+    public List<QuestionAnswerRow> getQuestionWithAnswers(final String questionUuid, final AnswerCursor after, final int limit) {
+        if (after == null) {
+            return namedQueryTimer.getResultList("questionWithAnswers", entityManager.createNamedQuery("questionWithAnswers", QuestionAnswerRow.class)
+                    .setParameter("questionUuid", questionUuid).setParameter("limit", limit));
+        }
+        return namedQueryTimer.getResultList("questionWithAnswersAfter", entityManager.createNamedQuery("questionWithAnswersAfter", QuestionAnswerRow.class)
+                .setParameter("questionUuid", questionUuid).setParameter("afterDate", after.getDate()).setParameter("afterId", after.getId())
+                .setParameter("limit", limit));
+    }
+
+    /**
+     * Questions sharing at least one band of the given SimHash, which includes every question at a distance of at most
+     * {@link SimHash#MAX_INDEXED_DISTANCE}.
+     *
+     * @param simHash - SimHash of the content compared
+     * @return candidate near-duplicates, to be filtered by distance
+     */
+    public List<SimilarQuestion> getSimilarQuestions(final long simHash) {
+        return namedQueryTimer.getResultList("similarQuestions", entityManager.createNamedQuery("similarQuestions", SimilarQuestion.class)
+                .setParameter("band0", SimHash.band(simHash, 0)).setParameter("band1", SimHash.band(simHash, 1))
+                .setParameter("band2", SimHash.band(simHash, 2)).setParameter("band3", SimHash.band(simHash, 3)));
+    }
+
+    /**
+     * Locks the bands of the given SimHash until the end of the current transaction, waiting for the transactions
+     * holding any of them. Two transactions locking SimHashes at a distance of at most
+     * {@link SimHash#MAX_INDEXED_DISTANCE} share a band and run one after the other.
+     *
+     * @param simHash - SimHash of the content of a question about to be created
+     */
+    public void lockSimHashBands(final long simHash) {
+        namedQueryTimer.getResultList("lockSimHashBands", entityManager.createNamedQuery("lockSimHashBands", String.class)
+                .setParameter("band0", SimHash.band(simHash, 0)).setParameter("band1", SimHash.band(simHash, 1))
+                .setParameter("band2", SimHash.band(simHash, 2)).setParameter("band3", SimHash.band(simHash, 3)));
+    }
+
     /**
      * Returns user belonging to the access token from db
      *
@@ -75,11 +151,7 @@ public class QuestionDao {
      * @return - user
      */
     public UserAuthEntity getUserAuthToken(final String accesstoken) {
-        try {
-            return entityManager.createNamedQuery("userAuthByAccessToken", UserAuthEntity.class).setParameter("accessToken", accesstoken).getSingleResult();
-        } catch (NoResultException nre) {
-            return null;
-        }
+        return userAuthDao.getUserAuthByToken(accesstoken);
     }
 
     /**
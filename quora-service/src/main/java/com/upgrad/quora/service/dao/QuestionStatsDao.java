@@ -0,0 +1,163 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.stats.HyperLogLog;
+import com.upgrad.quora.service.stats.QuestionViewDelta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the question_stats table through JDBC: the flushes of the view counters are batches of upserts
+ * merging bytea sketches, which the entity manager would run one statement at a time. The repair of the answer counts
+ * of the question table updates whole ranges of questions in a statement as well.
+ */
+@Repository
+public class QuestionStatsDao {
+
+    private static final String SELECT_STATS = "SELECT s.views, s.viewers FROM question_stats s"
+            + " JOIN question q ON q.id = s.question_id WHERE q.uuid = ?";
+
+    private static final String INSERT_MISSING_STATS = "INSERT INTO question_stats (question_id, views, unique_viewers)"
+            + " SELECT id, 0, 0 FROM question WHERE uuid = ANY(?) ORDER BY id ON CONFLICT (question_id) DO NOTHING";
+
+    private static final String LOCK_STATS = "SELECT q.uuid, s.question_id, s.viewers FROM question_stats s"
+            + " JOIN question q ON q.id = s.question_id WHERE q.uuid = ANY(?) ORDER BY s.question_id FOR UPDATE OF s";
+
+    private static final String UPDATE_STATS = "UPDATE question_stats SET views = views + ?, viewers = ?, unique_viewers = ?"
+            + " WHERE question_id = ?";
+
+    private static final String SELECT_BATCH_END = "SELECT max(id) FROM (SELECT id FROM question WHERE id > ? ORDER BY id LIMIT ?) batch";
+
+    private static final String LOCK_QUESTIONS = "SELECT id FROM question WHERE id > ? AND id <= ? ORDER BY id FOR UPDATE";
+
+    private static final String REPAIR_ANSWER_COUNTS = "UPDATE question q SET answer_count = c.answers, last_answer_at = c.last_answer_at"
+            + " FROM (SELECT b.id, count(a.id) AS answers, max(a.date) AS last_answer_at FROM question b"
+            + " LEFT JOIN answer a ON a.question_id = b.id WHERE b.id > ? AND b.id <= ? GROUP BY b.id) c, users u"
+            + " WHERE q.id = c.id AND u.id = q.user_id"
+            + " AND (q.answer_count <> c.answers OR q.last_answer_at IS DISTINCT FROM c.last_answer_at)"
+            + " RETURNING q.uuid, u.uuid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param questionUuid - question whose views are read
+     * @return views flushed so far and the sketch of their viewers, null if the question has not been viewed yet
+     */
+    public StoredStats getStats(final String questionUuid) {
+        final List<StoredStats> stats = jdbcTemplate.query(SELECT_STATS, (resultSet, rowNum) -> {
+            final byte[] viewers = resultSet.getBytes(2);
+            return new StoredStats(resultSet.getLong(1), viewers == null ? null : HyperLogLog.fromBytes(viewers));
+        }, questionUuid);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    /**
+     * Adds views to the stats of their questions, in three statements whatever the number of questions. The rows are
+     * created first then locked, so that the sketches merged by concurrent flushes of several nodes are never
+     * overwritten, in id order so that these flushes do not deadlock. Views of deleted questions are dropped.
+     *
+     * @param deltas - views recorded since the last flush, one per question
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void addViews(final List<QuestionViewDelta> deltas) {
+        final String[] uuids = new String[deltas.size()];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = deltas.get(i).getQuestionUuid();
+        }
+        jdbcTemplate.update(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(INSERT_MISSING_STATS);
+            statement.setArray(1, connection.createArrayOf("varchar", uuids));
+            return statement;
+        });
+        final Map<String, Object[]> locked = new HashMap<String, Object[]>();
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(LOCK_STATS);
+            statement.setArray(1, connection.createArrayOf("varchar", uuids));
+            return statement;
+        }, resultSet -> {
+            locked.put(resultSet.getString(1), new Object[]{resultSet.getInt(2), resultSet.getBytes(3)});
+        });
+
+        final List<Object[]> updates = new ArrayList<Object[]>(locked.size());
+        for (final QuestionViewDelta delta : deltas) {
+            final Object[] row = locked.get(delta.getQuestionUuid());
+            if (row == null) {
+                continue;
+            }
+            final HyperLogLog viewers = new HyperLogLog(delta.getViewers().getPrecision());
+            final byte[] storedViewers = (byte[]) row[1];
+            // the estimates of unique viewers start over when the precision of the sketches is changed
+            if (storedViewers != null && storedViewers.length == 1 << viewers.getPrecision()) {
+                viewers.merge(HyperLogLog.fromBytes(storedViewers));
+            }
+            viewers.merge(delta.getViewers());
+            updates.add(new Object[]{delta.getViews(), viewers.toBytes(), viewers.estimate(), row[0]});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_STATS, updates);
+    }
+
+    /**
+     * @param afterId   - id of the last question of the previous batch, 0 for the first batch
+     * @param batchSize - number of questions of the batch
+     * @return id of the last question of the batch, null once every question has been covered
+     */
+    public Integer getBatchEnd(final int afterId, final int batchSize) {
+        return jdbcTemplate.queryForObject(SELECT_BATCH_END, Integer.class, afterId, batchSize);
+    }
+
+    /**
+     * Sets the answer count and the date of the latest answer of a range of questions to the ones of their answers,
+     * where they drifted, e.g. when answers were deleted along with their author. The questions are locked first: the
+     * update then counts the answers committed by the transactions it waited for, which it would miss if it waited on
+     * the rows itself.
+     *
+     * @param afterId - questions after this id are repaired
+     * @param lastId  - up to this id
+     * @return owner uuid by uuid of the repaired questions
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public Map<String, String> repairAnswerCounts(final int afterId, final int lastId) {
+        jdbcTemplate.query(LOCK_QUESTIONS, resultSet -> {
+        }, afterId, lastId);
+        final Map<String, String> repaired = new HashMap<String, String>();
+        jdbcTemplate.query(REPAIR_ANSWER_COUNTS, resultSet -> {
+            repaired.put(resultSet.getString(1), resultSet.getString(2));
+        }, afterId, lastId);
+        return repaired;
+    }
+
+    /**
+     * Stats of a question as last flushed.
+     */
+    public static class StoredStats {
+
+        private final long views;
+
+        private final HyperLogLog viewers;
+
+        public StoredStats(final long views, final HyperLogLog viewers) {
+            this.views = views;
+            this.viewers = viewers;
+        }
+
+        public long getViews() {
+            return views;
+        }
+
+        /**
+         * @return sketch of the viewers, null before the first flush
+         */
+        public HyperLogLog getViewers() {
+            return viewers;
+        }
+    }
+}
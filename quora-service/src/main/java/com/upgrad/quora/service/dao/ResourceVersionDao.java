@@ -0,0 +1,78 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.StripeVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and raises the {@link StripeVersion}s of the cached regions in the resource_version table through JDBC. The
+ * stripes of a raise are upserted with a single insert of arrays, whatever their number.
+ */
+@Repository
+public class ResourceVersionDao {
+
+    private static final String SELECT_VERSIONS = "SELECT region, stripe, version FROM resource_version WHERE region = ANY(?)";
+
+    // the rows are locked in the order of the arrays
+    private static final String RAISE_VERSIONS = "INSERT INTO resource_version (region, stripe, version)"
+            + " SELECT s.region, s.stripe, 1 FROM unnest(?, ?) AS s(region, stripe)"
+            + " ON CONFLICT (region, stripe) DO UPDATE SET version = resource_version.version + 1"
+            + " RETURNING region, stripe, version";
+
+    private static final RowMapper<StripeVersion> STRIPE_VERSION = (resultSet, rowNum) -> new StripeVersion(
+            CacheRegion.fromCode(resultSet.getString(1).charAt(0)), resultSet.getInt(2), resultSet.getLong(3));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param regions - cached regions
+     * @return versions of the stripes of the regions which have been raised at least once
+     */
+    public List<StripeVersion> getVersions(final Collection<CacheRegion> regions) {
+        final String[] codes = new String[regions.size()];
+        int i = 0;
+        for (final CacheRegion region : regions) {
+            codes[i++] = String.valueOf(region.getCode());
+        }
+        return jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(SELECT_VERSIONS);
+            statement.setArray(1, connection.createArrayOf("varchar", codes));
+            return statement;
+        }, STRIPE_VERSION);
+    }
+
+    /**
+     * Raises the versions of the given stripes by one, in the transaction of the caller if there is one. The rows stay
+     * locked until that transaction completes, so the callers pass the stripes sorted for concurrent raises to lock
+     * them in the same order.
+     *
+     * @param stripes - distinct stripes to be raised by region
+     * @return raised versions of the stripes
+     */
+    public List<StripeVersion> raiseVersions(final Map<CacheRegion, ? extends Collection<Integer>> stripes) {
+        final List<String> codes = new ArrayList<String>();
+        final List<Integer> numbers = new ArrayList<Integer>();
+        for (final Map.Entry<CacheRegion, ? extends Collection<Integer>> regionStripes : stripes.entrySet()) {
+            for (final Integer stripe : regionStripes.getValue()) {
+                codes.add(String.valueOf(regionStripes.getKey().getCode()));
+                numbers.add(stripe);
+            }
+        }
+        return jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(RAISE_VERSIONS);
+            statement.setArray(1, connection.createArrayOf("varchar", codes.toArray()));
+            statement.setArray(2, connection.createArrayOf("int4", numbers.toArray()));
+            return statement;
+        }, STRIPE_VERSION);
+    }
+}
@@ -0,0 +1,133 @@
+package com.upgrad.quora.service.dao;
+
+import com.upgrad.quora.service.stats.TrendingQuestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the snapshots of the trending questions in the question_trending table through JDBC: a snapshot
+ * replaces the previous one with a single insert of arrays, whatever the number of questions.
+ */
+@Repository
+public class TrendingQuestionDao {
+
+    private static final String SELECT_SNAPSHOT = "SELECT q.uuid, q.content, t.score, t.scored_at FROM question_trending t"
+            + " JOIN question q ON q.id = t.question_id";
+
+    // blocks the other snapshots, but not the reads of the current one, until this one commits
+    private static final String LOCK_SNAPSHOT = "LOCK TABLE question_trending IN EXCLUSIVE MODE";
+
+    private static final String DELETE_SNAPSHOT = "DELETE FROM question_trending";
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO question_trending (question_id, score, scored_at)"
+            + " SELECT q.id, s.score, ? FROM unnest(?, ?) AS s(uuid, score) JOIN question q ON q.uuid = s.uuid";
+
+    private static final String SELECT_CONTENTS = "SELECT uuid, content FROM question WHERE uuid = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return trending questions of the last snapshot which still exist, with their score at the time of the snapshot
+     */
+    public List<StoredTrend> getSnapshot() {
+        return jdbcTemplate.query(SELECT_SNAPSHOT, (resultSet, rowNum) -> new StoredTrend(resultSet.getString(1),
+                resultSet.getString(2), resultSet.getDouble(3), resultSet.getTimestamp(4).getTime()));
+    }
+
+    /**
+     * Replaces the snapshot of the trending questions. Questions deleted since they were scored are left out. Concurrent
+     * snapshots, of several nodes or of contexts closing together, wait for each other, the last one replacing the
+     * others.
+     *
+     * @param trends   - trending questions with their score at the time of the snapshot
+     * @param scoredAt - time of the snapshot, in milliseconds since the epoch
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void saveSnapshot(final List<TrendingQuestion> trends, final long scoredAt) {
+        final String[] uuids = new String[trends.size()];
+        final Double[] scores = new Double[trends.size()];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = trends.get(i).getUuid();
+            scores[i] = trends.get(i).getScore();
+        }
+        jdbcTemplate.execute(LOCK_SNAPSHOT);
+        jdbcTemplate.update(DELETE_SNAPSHOT);
+        jdbcTemplate.update(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(INSERT_SNAPSHOT);
+            statement.setTimestamp(1, new Timestamp(scoredAt));
+            statement.setArray(2, connection.createArrayOf("varchar", uuids));
+            statement.setArray(3, connection.createArrayOf("float8", scores));
+            return statement;
+        });
+    }
+
+    /**
+     * @param uuids - uuids of questions
+     * @return current content by uuid of the questions, the deleted ones missing
+     */
+    public Map<String, String> getContents(final Collection<String> uuids) {
+        final Map<String, String> contents = new HashMap<String, String>();
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(SELECT_CONTENTS);
+            statement.setArray(1, connection.createArrayOf("varchar", uuids.toArray()));
+            return statement;
+        }, resultSet -> {
+            contents.put(resultSet.getString(1), resultSet.getString(2));
+        });
+        return contents;
+    }
+
+    /**
+     * Trending question as last snapshot.
+     */
+    public static class StoredTrend {
+
+        private final String uuid;
+
+        private final String content;
+
+        private final double score;
+
+        private final long scoredAt;
+
+        public StoredTrend(final String uuid, final String content, final double score, final long scoredAt) {
+            this.uuid = uuid;
+            this.content = content;
+            this.score = score;
+            this.scoredAt = scoredAt;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        /**
+         * @return score at the time of the snapshot
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return time of the snapshot, in milliseconds since the epoch
+         */
+        public long getScoredAt() {
+            return scoredAt;
+        }
+    }
+}
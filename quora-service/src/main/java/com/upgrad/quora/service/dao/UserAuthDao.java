@@ -1,6 +1,10 @@
 package com.upgrad.quora.service.dao;
 
+import com.upgrad.quora.service.cache.AccessFrequencies;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.SessionCache;
 import com.upgrad.quora.service.entity.UserAuthEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -12,22 +16,59 @@ public class UserAuthDao {
 
     @PersistenceContext private EntityManager entityManager;
 
+    @Autowired private SessionCache sessionCache;
+
+    @Autowired private AccessFrequencies accessFrequencies;
+
+    @Autowired private NamedQueryTimer namedQueryTimer;
+
     /**
-     * get User auth by token
+     * get User auth by token. Sessions are served from the node local session cache when present, the
+     * returned entity is then detached. The access is counted for the user of the session.
      *
      * @param accessToken : access token to authenticate
      * @return single user auth details
      */
     public UserAuthEntity getUserAuthByToken(final String accessToken) {
+        final UserAuthEntity cachedUserAuthEntity = sessionCache.get(accessToken);
+        if (cachedUserAuthEntity != null) {
+            accessFrequencies.record(CacheRegion.USER, cachedUserAuthEntity.getUserEntity().getUuid());
+            return cachedUserAuthEntity;
+        }
+        final long generation = sessionCache.generation();
         try {
-            return entityManager
+            final UserAuthEntity userAuthEntity = namedQueryTimer.getSingleResult("userAuthByAccessToken", entityManager
                     .createNamedQuery("userAuthByAccessToken", UserAuthEntity.class)
-                    .setParameter("accessToken", accessToken)
-                    .getSingleResult();
+                    .setParameter("accessToken", accessToken));
+            // the cached instance is shared between requests, it must not stay attached to this persistence context
+            entityManager.detach(userAuthEntity);
+            sessionCache.put(userAuthEntity, generation);
+            accessFrequencies.record(CacheRegion.USER, userAuthEntity.getUserEntity().getUuid());
+            return userAuthEntity;
         } catch (NoResultException nre) {
             return null;
         }
     }
+
+    /**
+     * get User auth by token from the database, to be changed in the current transaction. The session is dropped
+     * from the session cache of this node first, the instance returned is managed and never the one shared through
+     * the cache.
+     *
+     * @param accessToken : access token of the session to change
+     * @return user auth details, null if the token does not exist
+     */
+    public UserAuthEntity getUserAuthByTokenForUpdate(final String accessToken) {
+        sessionCache.invalidate(CacheRegion.SESSION, accessToken);
+        try {
+            return namedQueryTimer.getSingleResult("userAuthByAccessToken", entityManager
+                    .createNamedQuery("userAuthByAccessToken", UserAuthEntity.class)
+                    .setParameter("accessToken", accessToken));
+        } catch (NoResultException nre) {
+            return null;
+        }
+    }
+
     /**
      * Persists user auth entity in database.
      *
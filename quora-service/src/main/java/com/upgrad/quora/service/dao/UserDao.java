@@ -2,6 +2,7 @@ package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.UserAuthEntity;
 import com.upgrad.quora.service.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -13,6 +14,9 @@ public class UserDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private NamedQueryTimer namedQueryTimer;
+
     /**
      * Create new user in database.
      *
@@ -32,7 +36,7 @@ public class UserDao {
      */
     public UserEntity getUserByUserName(final String userName) {
         try {
-            return entityManager.createNamedQuery("userByUserName", UserEntity.class).setParameter("userName", userName).getSingleResult();
+            return namedQueryTimer.getSingleResult("userByUserName", entityManager.createNamedQuery("userByUserName", UserEntity.class).setParameter("userName", userName));
         }catch(NoResultException nre){
             return  null;
         }
@@ -46,7 +50,7 @@ public class UserDao {
      */
     public UserEntity getUserByEmail(final String email) {
         try{
-            return entityManager.createNamedQuery("userByEmail", UserEntity.class).setParameter("email", email).getSingleResult();
+            return namedQueryTimer.getSingleResult("userByEmail", entityManager.createNamedQuery("userByEmail", UserEntity.class).setParameter("email", email));
         }catch (NoResultException nre) {
             return null;
         }
@@ -60,7 +64,7 @@ public class UserDao {
      */
     public UserEntity getUserById(final String uuid) {
         try{
-            return entityManager.createNamedQuery("userByUserId", UserEntity.class).setParameter("uuid", uuid).getSingleResult();
+            return namedQueryTimer.getSingleResult("userByUserId", entityManager.createNamedQuery("userByUserId", UserEntity.class).setParameter("uuid", uuid));
         }catch (NoResultException nre) {
             return null;
         }
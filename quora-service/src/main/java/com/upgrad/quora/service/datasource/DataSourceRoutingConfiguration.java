@@ -0,0 +1,100 @@
+package com.upgrad.quora.service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured datasource with a pool for the primary, one pool per configured replica and the
+ * {@link ReadWriteRoutingDataSource} choosing between them. Without replicas everything goes to the primary as before.
+ * <p>
+ * When a meter registry is available every pool publishes the Hikari metrics (hikaricp.connections.active, idle,
+ * pending, acquire, usage...) tagged with its pool name, and a quora.datasource.healthy gauge tells whether the target
+ * is in rotation.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public RoutingTargets routingTargets(final DataSourceProperties dataSourceProperties,
+                                         final DataSourceRoutingProperties routingProperties,
+                                         final Environment environment,
+                                         final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        final HikariDataSource primaryPool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        // keep the spring.datasource.hikari settings working for the primary pool
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryPool));
+        if (primaryPool.getPoolName() == null) {
+            primaryPool.setPoolName("quora-primary");
+        }
+        final RoutingTarget primary = new RoutingTarget(primaryPool.getPoolName(), primaryPool, false);
+
+        final List<RoutingTarget> replicas = new ArrayList<RoutingTarget>();
+        for (final DataSourceRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            final HikariDataSource replicaPool = new HikariDataSource();
+            replicaPool.setPoolName("quora-replica-" + (replicas.size() + 1));
+            replicaPool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replicaPool.setJdbcUrl(replica.getUrl());
+            replicaPool.setUsername(StringUtils.defaultIfEmpty(replica.getUsername(), dataSourceProperties.determineUsername()));
+            replicaPool.setPassword(StringUtils.defaultIfEmpty(replica.getPassword(), dataSourceProperties.determinePassword()));
+            replicaPool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            replicaPool.setConnectionTimeout(replica.getConnectionTimeoutMs());
+            replicaPool.setReadOnly(true);
+            // a replica that is down at start-up is ejected by the health checks instead of failing the start-up
+            replicaPool.setInitializationFailTimeout(-1);
+            replicas.add(new RoutingTarget(replicaPool.getPoolName(), replicaPool, true));
+        }
+        final RoutingTargets routingTargets = new RoutingTargets(primary, replicas, routingProperties.getHealth());
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            bindMetrics(routingTargets, meterRegistry);
+        }
+        return routingTargets;
+    }
+
+    private void bindMetrics(final RoutingTargets routingTargets, final MeterRegistry meterRegistry) {
+        final List<RoutingTarget> targets = new ArrayList<RoutingTarget>(routingTargets.getReplicas());
+        targets.add(0, routingTargets.getPrimary());
+        for (final RoutingTarget target : targets) {
+            // the pools are started lazily, the tracker factory is in place before the first connection
+            target.getDataSource().setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            Gauge.builder("quora.datasource.healthy", target, t -> t.isHealthy() ? 1 : 0)
+                    .description("Whether the datasource is in rotation (1) or ejected (0)")
+                    .tag("pool", target.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * The datasource used by JPA and JDBC. The proxy defers fetching the physical connection until the first statement,
+     * by then the transaction has been flagged read-only or not and the routing can pick the right target.
+     */
+    @Bean
+    public DataSource dataSource(final RoutingTargets routingTargets, final DataSourceRoutingProperties routingProperties) {
+        final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(routingTargets,
+                routingProperties.getStrategy(), routingProperties.getHealth().getFailureThreshold());
+        routingDataSource.afterPropertiesSet();
+        final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        // set the defaults up front, otherwise the proxy fetches a connection to find them out
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
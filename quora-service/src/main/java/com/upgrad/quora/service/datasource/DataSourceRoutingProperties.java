@@ -0,0 +1,141 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replicas and health check settings of the routing datasource, bound from {@code quora.datasource.*}. The primary is
+ * the regular {@code spring.datasource}.
+ */
+@ConfigurationProperties(prefix = "quora.datasource")
+public class DataSourceRoutingProperties {
+
+    private ReplicaSelectionStrategy strategy = ReplicaSelectionStrategy.ROUND_ROBIN;
+
+    private List<Replica> replicas = new ArrayList<Replica>();
+
+    private final Health health = new Health();
+
+    public ReplicaSelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(ReplicaSelectionStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Health getHealth() {
+        return health;
+    }
+
+    public static class Replica {
+
+        private String url;
+
+        // credentials default to the ones of the primary
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        // kept short so that a request gives up on an unreachable replica quickly and falls back to the primary
+        private long connectionTimeoutMs = 3000;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+
+    public static class Health {
+
+        private int validationTimeoutSeconds = 2;
+
+        // consecutive failed checks after which a target is ejected
+        private int failureThreshold = 3;
+
+        // consecutive successful checks after which an ejected target is taken back
+        private int recoveryThreshold = 2;
+
+        // a replica lagging further behind the primary is ejected
+        private long maxLagSeconds = 10;
+
+        public int getValidationTimeoutSeconds() {
+            return validationTimeoutSeconds;
+        }
+
+        public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public int getRecoveryThreshold() {
+            return recoveryThreshold;
+        }
+
+        public void setRecoveryThreshold(int recoveryThreshold) {
+            this.recoveryThreshold = recoveryThreshold;
+        }
+
+        public long getMaxLagSeconds() {
+            return maxLagSeconds;
+        }
+
+        public void setMaxLagSeconds(long maxLagSeconds) {
+            this.maxLagSeconds = maxLagSeconds;
+        }
+    }
+}
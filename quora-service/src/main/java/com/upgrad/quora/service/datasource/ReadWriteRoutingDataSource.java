@@ -0,0 +1,114 @@
+package com.upgrad.quora.service.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datasource sending read-only transactions to the replicas and everything else to the primary.
+ * <p>
+ * The decision is taken when a connection is requested, so this datasource must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager then starts the
+ * transaction, flagging it read-only, before the physical connection is fetched. A read-write transaction pins the
+ * rest of the request to the primary (see {@link RoutingContext}). Read-only transactions fall back to the primary
+ * when no replica is healthy and, the other way round, may be served by a replica while the primary is ejected.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final RoutingTarget primary;
+
+    private final List<RoutingTarget> replicas;
+
+    private final ReplicaSelectionStrategy strategy;
+
+    private final int failureThreshold;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(final RoutingTargets targets,
+                                      final ReplicaSelectionStrategy strategy,
+                                      final int failureThreshold) {
+        this.primary = targets.getPrimary();
+        this.replicas = targets.getReplicas();
+        this.strategy = strategy;
+        this.failureThreshold = failureThreshold;
+        final Map<Object, Object> lookup = new HashMap<Object, Object>();
+        lookup.put(primary.getName(), primary.getDataSource());
+        for (final RoutingTarget replica : replicas) {
+            lookup.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(lookup);
+        setDefaultTargetDataSource(primary.getDataSource());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return selectTarget().getName();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final RoutingTarget target = selectTarget();
+        if (!target.isReplica()) {
+            return target.getDataSource().getConnection();
+        }
+        try {
+            return target.getDataSource().getConnection();
+        } catch (SQLException e) {
+            // the replica is down or saturated, count it towards the ejection and serve the read from the primary
+            target.recordFailure(failureThreshold, e.getMessage());
+            LOG.debug("Could not get a connection from {}, falling back to the primary", target.getName(), e);
+            return primary.getDataSource().getConnection();
+        }
+    }
+
+    RoutingTarget selectTarget() {
+        final boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!readOnly) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                RoutingContext.pinToPrimary();
+            }
+            return primary;
+        }
+        if (RoutingContext.isPinnedToPrimary() && primary.isHealthy()) {
+            return primary;
+        }
+        final RoutingTarget replica = selectReplica();
+        return replica == null ? primary : replica;
+    }
+
+    private RoutingTarget selectReplica() {
+        final int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        final int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        RoutingTarget selected = null;
+        int selectedActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final RoutingTarget candidate = replicas.get((start + i) % size);
+            if (!candidate.isHealthy()) {
+                continue;
+            }
+            if (strategy == ReplicaSelectionStrategy.ROUND_ROBIN) {
+                return candidate;
+            }
+            final int active = candidate.getActiveConnections();
+            if (active < selectedActive) {
+                selected = candidate;
+                selectedActive = active;
+            }
+        }
+        return selected;
+    }
+}
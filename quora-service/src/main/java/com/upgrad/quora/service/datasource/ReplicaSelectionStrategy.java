@@ -0,0 +1,17 @@
+package com.upgrad.quora.service.datasource;
+
+/**
+ * How a read-only transaction picks one of the healthy replicas.
+ */
+public enum ReplicaSelectionStrategy {
+
+    /**
+     * Each replica in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The replica with the fewest connections in use, ties resolved in turn.
+     */
+    LEAST_CONNECTIONS
+}
@@ -0,0 +1,50 @@
+package com.upgrad.quora.service.datasource;
+
+/**
+ * Per-thread state of the datasource routing for the request being served.
+ * <p>
+ * Once a request has used the primary for a read-write transaction, all its following read-only transactions are sent
+ * to the primary as well so that the request reads its own writes regardless of the replication lag. The pin is only
+ * recorded between {@link #begin()} and {@link #end()}, outside a request scope a thread is never pinned.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<State>();
+
+    private RoutingContext() {
+    }
+
+    /**
+     * Opens the routing scope of a request on the current thread.
+     */
+    public static void begin() {
+        STATE.set(new State());
+    }
+
+    /**
+     * Closes the routing scope of the current thread.
+     */
+    public static void end() {
+        STATE.remove();
+    }
+
+    /**
+     * Sends all the following transactions of the current request to the primary.
+     */
+    public static void pinToPrimary() {
+        final State state = STATE.get();
+        if (state != null) {
+            state.pinnedToPrimary = true;
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        final State state = STATE.get();
+        return state != null && state.pinnedToPrimary;
+    }
+
+    private static final class State {
+
+        private boolean pinnedToPrimary;
+    }
+}
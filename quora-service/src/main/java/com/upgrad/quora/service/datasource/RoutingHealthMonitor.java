@@ -0,0 +1,20 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the health checks of the routing targets at a fixed delay.
+ */
+@Component
+public class RoutingHealthMonitor {
+
+    @Autowired
+    private RoutingTargets routingTargets;
+
+    @Scheduled(fixedDelayString = "${quora.datasource.health.check-interval-ms:5000}")
+    public void checkHealth() {
+        routingTargets.checkHealth();
+    }
+}
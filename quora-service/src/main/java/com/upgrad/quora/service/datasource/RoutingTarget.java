@@ -0,0 +1,77 @@
+package com.upgrad.quora.service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection pool the routing datasource can send transactions to, along with its health state.
+ * <p>
+ * A target is ejected after a number of consecutive failures, reported either by the periodic health check or by a
+ * failed connection attempt, and taken back after a number of consecutive successful health checks.
+ */
+public class RoutingTarget {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoutingTarget.class);
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    private final boolean replica;
+
+    private volatile boolean healthy = true;
+
+    private int consecutiveFailures;
+
+    private int consecutiveSuccesses;
+
+    public RoutingTarget(final String name, final HikariDataSource dataSource, final boolean replica) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.replica = replica;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isReplica() {
+        return replica;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * @return connections of the pool currently handed out, 0 before the pool has been started
+     */
+    public int getActiveConnections() {
+        final HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    public synchronized void recordSuccess(final int recoveryThreshold) {
+        consecutiveFailures = 0;
+        if (!healthy && ++consecutiveSuccesses >= recoveryThreshold) {
+            healthy = true;
+            consecutiveSuccesses = 0;
+            LOG.info("Datasource {} is healthy again and back in rotation", name);
+        }
+    }
+
+    public synchronized void recordFailure(final int failureThreshold, final String reason) {
+        consecutiveSuccesses = 0;
+        if (healthy && ++consecutiveFailures >= failureThreshold) {
+            healthy = false;
+            consecutiveFailures = 0;
+            LOG.warn("Datasource {} ejected after {} consecutive failures, last one: {}", name, failureThreshold, reason);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.upgrad.quora.service.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The connection pools of the primary and the replicas, owned by this holder rather than registered as datasource
+ * beans so that only the routing datasource is visible to JPA and the datasource auto-configuration.
+ */
+public class RoutingTargets {
+
+    // replay lag of a replica in seconds, 0 when the replica has replayed everything it received
+    private static final String REPLICATION_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final RoutingTarget primary;
+
+    private final List<RoutingTarget> replicas;
+
+    private final DataSourceRoutingProperties.Health health;
+
+    public RoutingTargets(final RoutingTarget primary,
+                          final List<RoutingTarget> replicas,
+                          final DataSourceRoutingProperties.Health health) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<RoutingTarget>(replicas));
+        this.health = health;
+    }
+
+    public RoutingTarget getPrimary() {
+        return primary;
+    }
+
+    public List<RoutingTarget> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Checks every target once, validating a pooled connection and, for a replica, its replication lag.
+     */
+    public void checkHealth() {
+        check(primary);
+        for (final RoutingTarget replica : replicas) {
+            check(replica);
+        }
+    }
+
+    private void check(final RoutingTarget target) {
+        try (Connection connection = target.getDataSource().getConnection()) {
+            if (!connection.isValid(health.getValidationTimeoutSeconds())) {
+                target.recordFailure(health.getFailureThreshold(), "connection is not valid");
+                return;
+            }
+            if (target.isReplica()) {
+                final double lagSeconds = replicationLag(connection);
+                if (lagSeconds > health.getMaxLagSeconds()) {
+                    target.recordFailure(health.getFailureThreshold(), String.format("replication lag of %.1f s", lagSeconds));
+                    return;
+                }
+            }
+            target.recordSuccess(health.getRecoveryThreshold());
+        } catch (SQLException e) {
+            target.recordFailure(health.getFailureThreshold(), e.getMessage());
+        }
+    }
+
+    private double replicationLag(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(health.getValidationTimeoutSeconds());
+            try (ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)) {
+                return resultSet.next() ? resultSet.getDouble(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Closes the pools of all the targets.
+     */
+    public void close() {
+        primary.getDataSource().close();
+        for (final RoutingTarget replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.upgrad.quora.service.entity;
 
+import com.upgrad.quora.service.page.QuestionAnswerRow;
+import com.upgrad.quora.service.search.QuestionSearchHit;
+import com.upgrad.quora.service.search.SimilarQuestion;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -9,7 +12,10 @@ import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
 
 @Entity
 @Table(name = "question")
@@ -18,6 +24,79 @@ import java.time.ZonedDateTime;
         @NamedQuery(name = "allQuestions", query = "select q from QuestionEntity q"),
         @NamedQuery(name = "allQuestionsByUser", query = "select q from QuestionEntity q where q.user.uuid=:userUuid"),
 })
+// full-text search on the generated content_tsv column and its GIN index, ranked by relevance then id for the keyset paging
+@NamedNativeQueries({
+        @NamedNativeQuery(name = "searchQuestions", resultSetMapping = "questionSearchHit",
+                query = "select q.id, q.uuid, q.content, ts_rank(q.content_tsv, tsq) as rank"
+                        + " from question q, websearch_to_tsquery('english', :query) tsq"
+                        + " where q.content_tsv @@ tsq"
+                        + " order by rank desc, q.id desc limit :limit"),
+        @NamedNativeQuery(name = "searchQuestionsAfter", resultSetMapping = "questionSearchHit",
+                query = "select q.id, q.uuid, q.content, ts_rank(q.content_tsv, tsq) as rank"
+                        + " from question q, websearch_to_tsquery('english', :query) tsq"
+                        + " where q.content_tsv @@ tsq and (ts_rank(q.content_tsv, tsq), q.id) < (:afterRank, :afterId)"
+                        + " order by rank desc, q.id desc limit :limit"),
+        // near-duplicate candidates: the questions sharing a band of the SimHash, found through the expression index of each band
+        @NamedNativeQuery(name = "similarQuestions", resultSetMapping = "similarQuestion",
+                query = "select q.uuid, q.content, q.content_simhash from question q"
+                        + " where ((q.content_simhash >> 48) & 65535) = :band0"
+                        + " or ((q.content_simhash >> 32) & 65535) = :band1"
+                        + " or ((q.content_simhash >> 16) & 65535) = :band2"
+                        + " or (q.content_simhash & 65535) = :band3"),
+        // transaction scoped advisory locks keyed by the bands of a SimHash, (0x5348 << 16) + band index then the bits of
+        // the band, taken in the order of the bands so that two transactions waiting for each other cannot deadlock
+        @NamedNativeQuery(name = "lockSimHashBands", resultSetMapping = "advisoryLock",
+                query = "select cast(pg_advisory_xact_lock(b.lock_space, b.band) as varchar) as locked"
+                        + " from (values (1397227520, :band0), (1397227521, :band1), (1397227522, :band2),"
+                        + " (1397227523, :band3)) b(lock_space, band)"),
+        // answer counts, changed by a single statement in the transaction creating or deleting the answer so that
+        // concurrent answers to the same question queue on its row instead of overwriting each other's count
+        @NamedNativeQuery(name = "incrementAnswerCount",
+                query = "update question set answer_count = answer_count + 1,"
+                        + " last_answer_at = greatest(last_answer_at, :answeredAt) where id = :questionId"),
+        @NamedNativeQuery(name = "decrementAnswerCount",
+                query = "update question set answer_count = answer_count - 1,"
+                        + " last_answer_at = (select max(a.date) from answer a where a.question_id = :questionId) where id = :questionId"),
+        // a question and a page of its answers in one statement: the lateral join reads the page from the
+        // (question_id, date) index, and still returns the question, with null answer columns, when the page is empty
+        @NamedNativeQuery(name = "questionWithAnswers", resultSetMapping = "questionAnswerRow",
+                query = "select q.uuid as question_uuid, q.content as question_content, q.answer_count, q.last_answer_at,"
+                        + " a.id as answer_id, a.uuid as answer_uuid, a.ans as answer_content, a.date as answer_date"
+                        + " from question q left join lateral (select a.id, a.uuid, a.ans, a.date from answer a"
+                        + " where a.question_id = q.id order by a.date, a.id limit :limit) a on true"
+                        + " where q.uuid = :questionUuid order by a.date, a.id"),
+        @NamedNativeQuery(name = "questionWithAnswersAfter", resultSetMapping = "questionAnswerRow",
+                query = "select q.uuid as question_uuid, q.content as question_content, q.answer_count, q.last_answer_at,"
+                        + " a.id as answer_id, a.uuid as answer_uuid, a.ans as answer_content, a.date as answer_date"
+                        + " from question q left join lateral (select a.id, a.uuid, a.ans, a.date from answer a"
+                        + " where a.question_id = q.id and (a.date, a.id) > (:afterDate, :afterId)"
+                        + " order by a.date, a.id limit :limit) a on true"
+                        + " where q.uuid = :questionUuid order by a.date, a.id"),
+})
+@SqlResultSetMappings({
+        @SqlResultSetMapping(name = "questionSearchHit", classes = @ConstructorResult(targetClass = QuestionSearchHit.class, columns = {
+                @ColumnResult(name = "id", type = Integer.class),
+                @ColumnResult(name = "uuid", type = String.class),
+                @ColumnResult(name = "content", type = String.class),
+                @ColumnResult(name = "rank", type = Float.class)
+        })),
+        @SqlResultSetMapping(name = "similarQuestion", classes = @ConstructorResult(targetClass = SimilarQuestion.class, columns = {
+                @ColumnResult(name = "uuid", type = String.class),
+                @ColumnResult(name = "content", type = String.class),
+                @ColumnResult(name = "content_simhash", type = Long.class)
+        })),
+        @SqlResultSetMapping(name = "advisoryLock", columns = @ColumnResult(name = "locked", type = String.class)),
+        @SqlResultSetMapping(name = "questionAnswerRow", classes = @ConstructorResult(targetClass = QuestionAnswerRow.class, columns = {
+                @ColumnResult(name = "question_uuid", type = String.class),
+                @ColumnResult(name = "question_content", type = String.class),
+                @ColumnResult(name = "answer_count", type = Integer.class),
+                @ColumnResult(name = "last_answer_at", type = LocalDateTime.class),
+                @ColumnResult(name = "answer_id", type = Integer.class),
+                @ColumnResult(name = "answer_uuid", type = String.class),
+                @ColumnResult(name = "answer_content", type = String.class),
+                @ColumnResult(name = "answer_date", type = LocalDateTime.class)
+        })),
+})
 public class QuestionEntity implements Serializable {
 
     @Id
@@ -34,13 +113,28 @@ public class QuestionEntity implements Serializable {
     @Size(max = 500)
     private String content;
 
+    // SimHash of the content, null for a content without words
+    @Column(name = "content_simhash")
+    private Long contentSimHash;
+
     @Column(name = "date")
     private ZonedDateTime date;
 
+    // written by the answer count statements only, a merge of the question must not overwrite them
+    @Column(name = "answer_count", insertable = false, updatable = false)
+    private Integer answerCount;
+
+    // null until the question is answered
+    @Column(name = "last_answer_at", insertable = false, updatable = false)
+    private ZonedDateTime lastAnswerAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private UserEntity user;
 
+    // not persisted: the possible duplicates found when the question was posted
+    private transient List<SimilarQuestion> similarQuestions = Collections.emptyList();
+
     public Integer getId() {
         return id;
     }
@@ -65,6 +159,14 @@ public class QuestionEntity implements Serializable {
         this.content = content;
     }
 
+    public Long getContentSimHash() {
+        return contentSimHash;
+    }
+
+    public void setContentSimHash(Long contentSimHash) {
+        this.contentSimHash = contentSimHash;
+    }
+
     public ZonedDateTime getDate() {
         return date;
     }
@@ -73,6 +175,22 @@ public class QuestionEntity implements Serializable {
         this.date = date;
     }
 
+    public Integer getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(Integer answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public ZonedDateTime getLastAnswerAt() {
+        return lastAnswerAt;
+    }
+
+    public void setLastAnswerAt(ZonedDateTime lastAnswerAt) {
+        this.lastAnswerAt = lastAnswerAt;
+    }
+
     public UserEntity getUser() {
         return user;
     }
@@ -81,14 +199,22 @@ public class QuestionEntity implements Serializable {
         this.user = user;
     }
 
+    public List<SimilarQuestion> getSimilarQuestions() {
+        return similarQuestions;
+    }
+
+    public void setSimilarQuestions(List<SimilarQuestion> similarQuestions) {
+        this.similarQuestions = similarQuestions;
+    }
+
     @Override
     public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
+        return EqualsBuilder.reflectionEquals(this, obj);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this).hashCode();
+        return HashCodeBuilder.reflectionHashCode(this);
     }
 
     @Override
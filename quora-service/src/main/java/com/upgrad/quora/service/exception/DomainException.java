@@ -0,0 +1,31 @@
+package com.upgrad.quora.service.exception;
+
+/**
+ * DomainException is the base of the exceptions the business services throw to end a request with an error code.
+ * <p>
+ * They are expected outcomes mapped to error responses, never logged with their trace, so they are created without a
+ * stack trace: filling it in walks the whole Tomcat, filter and proxy stack and dominates the cost of a failed request.
+ * Start the JVM with {@code -Dquora.exceptions.stack-traces=true} to capture them while debugging.
+ */
+public abstract class DomainException extends Exception {
+
+    private static final boolean STACK_TRACES = Boolean.getBoolean("quora.exceptions.stack-traces");
+
+    private final String code;
+    private final String errorMessage;
+
+    protected DomainException(final String code, final String errorMessage) {
+        super(errorMessage, null, false, STACK_TRACES);
+        this.code = code;
+        this.errorMessage = errorMessage;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.upgrad.quora.service.exception;
+
+/**
+ * DuplicateQuestionException is thrown when a question posted is a near-duplicate of a question already posted.
+ */
+public class DuplicateQuestionException extends DomainException {
+
+    public DuplicateQuestionException(final String code, final String errorMessage) {
+        super(code, errorMessage);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.upgrad.quora.service.exception;
+
+/**
+ * InvalidCursorException is thrown when the cursor of a page of answers is not the cursor of an answer page.
+ */
+public class InvalidCursorException extends DomainException {
+
+    public InvalidCursorException(final String code, final String errorMessage) {
+        super(code, errorMessage);
+    }
+
+}
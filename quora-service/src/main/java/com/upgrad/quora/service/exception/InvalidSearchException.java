@@ -0,0 +1,12 @@
+package com.upgrad.quora.service.exception;
+
+/**
+ * InvalidSearchException is thrown when the search query is empty or its cursor is not the cursor of a search page.
+ */
+public class InvalidSearchException extends DomainException {
+
+    public InvalidSearchException(final String code, final String errorMessage) {
+        super(code, errorMessage);
+    }
+
+}
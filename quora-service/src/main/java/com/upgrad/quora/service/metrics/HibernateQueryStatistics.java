@@ -0,0 +1,117 @@
+package com.upgrad.quora.service.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the Hibernate statistics as metrics and ranks the named queries by the time spent running them.
+ * <p>
+ * Hibernate collects statistics only when {@code spring.jpa.properties.hibernate.generate_statistics} is set, since
+ * collecting them costs some contention on every query. When enabled, the session factory metrics (entity loads,
+ * flushes, transactions...) are bound along with, for every named query, its execution count, mean and max time and
+ * returned rows tagged with the query name. Hibernate keys the query statistics by HQL, the names are mapped back from
+ * the {@link NamedQuery} declarations of the entities.
+ */
+@Component
+public class HibernateQueryStatistics implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // query name -> HQL, in declaration order
+    private final Map<String, String> namedQueries = new LinkedHashMap<String, String>();
+
+    @PostConstruct
+    public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (final EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            final Class<?> entityClass = entityType.getJavaType();
+            final NamedQueries declared = entityClass.getAnnotation(NamedQueries.class);
+            if (declared != null) {
+                for (final NamedQuery namedQuery : declared.value()) {
+                    namedQueries.put(namedQuery.name(), namedQuery.query());
+                }
+            }
+            final NamedQuery single = entityClass.getAnnotation(NamedQuery.class);
+            if (single != null) {
+                namedQueries.put(single.name(), single.query());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        if (!isEnabled()) {
+            return;
+        }
+        new HibernateMetrics(entityManagerFactory, "entityManagerFactory", Tags.empty()).bindTo(registry);
+        for (final Map.Entry<String, String> namedQuery : namedQueries.entrySet()) {
+            final String hql = namedQuery.getValue();
+            final Tags tags = Tags.of("query", namedQuery.getKey());
+            FunctionCounter.builder("hibernate.named.query.executions", statistics, s -> s.getQueryStatistics(hql).getExecutionCount())
+                    .description("Executions of the named query").tags(tags).register(registry);
+            FunctionCounter.builder("hibernate.named.query.rows", statistics, s -> s.getQueryStatistics(hql).getExecutionRowCount())
+                    .description("Rows returned by the named query").tags(tags).register(registry);
+            TimeGauge.builder("hibernate.named.query.execution.mean", statistics, TimeUnit.MILLISECONDS,
+                    s -> s.getQueryStatistics(hql).getExecutionAvgTimeAsDouble())
+                    .description("Mean execution time of the named query").tags(tags).register(registry);
+            TimeGauge.builder("hibernate.named.query.execution.max", statistics, TimeUnit.MILLISECONDS,
+                    s -> s.getQueryStatistics(hql).getExecutionMaxTime())
+                    .description("Max execution time of the named query").tags(tags).register(registry);
+        }
+    }
+
+    /**
+     * @param limit - maximum number of queries returned
+     * @return the named queries that ran at least once, by decreasing total execution time; empty while the
+     * statistics are disabled
+     */
+    public List<QueryStatistic> getTopQueriesByTotalTime(final int limit) {
+        if (!isEnabled()) {
+            return Collections.emptyList();
+        }
+        final List<QueryStatistic> queries = new ArrayList<QueryStatistic>();
+        for (final Map.Entry<String, String> namedQuery : namedQueries.entrySet()) {
+            final QueryStatistics queryStatistics = statistics.getQueryStatistics(namedQuery.getValue());
+            if (queryStatistics.getExecutionCount() == 0) {
+                continue;
+            }
+            queries.add(new QueryStatistic(namedQuery.getKey(),
+                    queryStatistics.getExecutionCount(),
+                    queryStatistics.getExecutionTotalTime(),
+                    queryStatistics.getExecutionAvgTimeAsDouble(),
+                    queryStatistics.getExecutionMaxTime(),
+                    queryStatistics.getExecutionRowCount()));
+        }
+        queries.sort(Comparator.comparingLong(QueryStatistic::getTotalTimeMillis).reversed());
+        return queries.size() > limit ? queries.subList(0, Math.max(0, limit)) : queries;
+    }
+}
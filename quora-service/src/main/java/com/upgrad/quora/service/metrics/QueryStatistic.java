@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.metrics;
+
+/**
+ * Execution statistics of one named query since the start of the node, as collected by Hibernate.
+ */
+public class QueryStatistic {
+
+    private final String name;
+
+    private final long executionCount;
+
+    private final long totalTimeMillis;
+
+    private final double meanTimeMillis;
+
+    private final long maxTimeMillis;
+
+    private final long rowCount;
+
+    public QueryStatistic(final String name, final long executionCount, final long totalTimeMillis,
+                          final double meanTimeMillis, final long maxTimeMillis, final long rowCount) {
+        this.name = name;
+        this.executionCount = executionCount;
+        this.totalTimeMillis = totalTimeMillis;
+        this.meanTimeMillis = meanTimeMillis;
+        this.maxTimeMillis = maxTimeMillis;
+        this.rowCount = rowCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getTotalTimeMillis() {
+        return totalTimeMillis;
+    }
+
+    public double getMeanTimeMillis() {
+        return meanTimeMillis;
+    }
+
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+}
@@ -0,0 +1,71 @@
+package com.upgrad.quora.service.page;
+
+import com.upgrad.quora.service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of the last answer of a page of the answers to a question: its date and id, the order of the answers. The
+ * next page starts right after it and is read from the (question_id, date) index of the answers whatever its depth.
+ * <p>
+ * Sent to the clients as an opaque string. The date is kept to the microsecond, as stored by Postgres, and without
+ * time zone, so that a cursor is read back the same on every node.
+ */
+public final class AnswerCursor {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final LocalDateTime date;
+
+    private final int id;
+
+    public AnswerCursor(final LocalDateTime date, final int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * @param row - last answer of a page
+     * @return cursor of the page following it
+     */
+    public static AnswerCursor after(final QuestionAnswerRow row) {
+        return new AnswerCursor(row.getAnswerLocalDateTime(), row.getAnswerId());
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        final long micros = date.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + date.getNano() / 1000;
+        final String position = Long.toHexString(micros) + "." + Integer.toHexString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param cursor - cursor sent by a client
+     * @return the decoded cursor
+     * @throws InvalidCursorException - if the cursor was not encoded by {@link #encode()}
+     */
+    public static AnswerCursor decode(final String cursor) throws InvalidCursorException {
+        try {
+            final String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            final int separator = position.indexOf('.');
+            final long micros = Long.parseUnsignedLong(position.substring(0, separator), 16);
+            final int id = Integer.parseUnsignedInt(position.substring(separator + 1), 16);
+            final LocalDateTime date = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                    (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+            return new AnswerCursor(date, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new InvalidCursorException("ANS-002", "Entered cursor is not the cursor of an answer page");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.upgrad.quora.service.page;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * A question with one of its answers, as read by the {@code questionWithAnswers} native queries of
+ * {@link com.upgrad.quora.service.entity.QuestionEntity} without loading the entities nor their users. A question
+ * without answers on the page comes as a single row whose answer columns are null.
+ */
+public class QuestionAnswerRow {
+
+    private final String questionUuid;
+
+    private final String questionContent;
+
+    private final Integer answerCount;
+
+    private final LocalDateTime lastAnswerAt;
+
+    private final Integer answerId;
+
+    private final String answerUuid;
+
+    private final String answerContent;
+
+    private final LocalDateTime answerDate;
+
+    public QuestionAnswerRow(final String questionUuid, final String questionContent, final Integer answerCount,
+                             final LocalDateTime lastAnswerAt, final Integer answerId, final String answerUuid,
+                             final String answerContent, final LocalDateTime answerDate) {
+        this.questionUuid = questionUuid;
+        this.questionContent = questionContent;
+        this.answerCount = answerCount;
+        this.lastAnswerAt = lastAnswerAt;
+        this.answerId = answerId;
+        this.answerUuid = answerUuid;
+        this.answerContent = answerContent;
+        this.answerDate = answerDate;
+    }
+
+    public String getQuestionUuid() {
+        return questionUuid;
+    }
+
+    public String getQuestionContent() {
+        return questionContent;
+    }
+
+    public Integer getAnswerCount() {
+        return answerCount;
+    }
+
+    /**
+     * @return date of the latest answer to the question, null until the question is answered
+     */
+    public ZonedDateTime getLastAnswerAt() {
+        return toZonedDateTime(lastAnswerAt);
+    }
+
+    /**
+     * @return id of the answer, null on the row of a question without answers on the page
+     */
+    public Integer getAnswerId() {
+        return answerId;
+    }
+
+    public String getAnswerUuid() {
+        return answerUuid;
+    }
+
+    public String getAnswerContent() {
+        return answerContent;
+    }
+
+    public ZonedDateTime getAnswerDate() {
+        return toZonedDateTime(answerDate);
+    }
+
+    /**
+     * @return date of the answer as stored, without time zone, for the cursor of the next page
+     */
+    LocalDateTime getAnswerLocalDateTime() {
+        return answerDate;
+    }
+
+    // timestamps without time zone are read in the zone of the JVM, as Hibernate does for the entities
+    private static ZonedDateTime toZonedDateTime(final LocalDateTime date) {
+        return date == null ? null : ZonedDateTime.of(date, ZoneId.systemDefault());
+    }
+}
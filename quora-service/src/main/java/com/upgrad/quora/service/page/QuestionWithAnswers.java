@@ -0,0 +1,57 @@
+package com.upgrad.quora.service.page;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A question and a page of its answers, oldest first.
+ */
+public class QuestionWithAnswers {
+
+    private final QuestionAnswerRow question;
+
+    private final List<QuestionAnswerRow> answers;
+
+    private final AnswerCursor next;
+
+    /**
+     * @param question - any row of the question
+     * @param answers  - rows of the answers of the page
+     * @param next     - cursor of the next page, null on the last page
+     */
+    public QuestionWithAnswers(final QuestionAnswerRow question, final List<QuestionAnswerRow> answers, final AnswerCursor next) {
+        this.question = question;
+        this.answers = answers;
+        this.next = next;
+    }
+
+    public String getQuestionUuid() {
+        return question.getQuestionUuid();
+    }
+
+    public String getQuestionContent() {
+        return question.getQuestionContent();
+    }
+
+    public Integer getAnswerCount() {
+        return question.getAnswerCount();
+    }
+
+    public ZonedDateTime getLastAnswerAt() {
+        return question.getLastAnswerAt();
+    }
+
+    /**
+     * @return answers of the page, their question columns repeating the question
+     */
+    public List<QuestionAnswerRow> getAnswers() {
+        return answers;
+    }
+
+    /**
+     * @return cursor of the next page, null on the last page
+     */
+    public AnswerCursor getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,206 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.InvalidationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Serves the search from an {@link InvertedIndex} of every question held by this node, so that searches never reach
+ * Postgres.
+ * <p>
+ * The index is bulk loaded at startup: the question table is split in id ranges read and analyzed in parallel, then
+ * added in id order. It follows the question changes of every node through the question invalidations of the
+ * {@link CacheInvalidationChannel}: the changed question is read again and replaces its document, or removes it when
+ * it is gone. The questions of a deleted user go with the user's invalidation, and a flush of the caches reloads the
+ * whole index. Changes are applied in order by a single thread, a few milliseconds after their commit.
+ */
+@Component
+@ConditionalOnProperty(name = "quora.search.engine", havingValue = "memory")
+public class InMemoryQuestionSearchIndex implements QuestionSearchIndex, InvalidationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryQuestionSearchIndex.class);
+
+    private static final String SELECT_ID_RANGE = "SELECT min(id), max(id) FROM question";
+
+    private static final String SELECT_QUESTIONS = "SELECT q.id, q.uuid, q.content, u.uuid FROM question q"
+            + " JOIN users u ON u.id = q.user_id WHERE q.id >= ? AND q.id < ? ORDER BY q.id";
+
+    private static final String SELECT_QUESTION = "SELECT q.id, q.uuid, q.content, u.uuid FROM question q"
+            + " JOIN users u ON u.id = q.user_id WHERE q.uuid = ?";
+
+    private static final RowMapper<InvertedIndex.Document> DOCUMENT_MAPPER = (resultSet, rowNum) ->
+            InvertedIndex.Document.analyze(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Value("${quora.search.memory.load-threads:4}")
+    private int loadThreads;
+
+    @Value("${quora.search.memory.k1:1.2}")
+    private float k1;
+
+    @Value("${quora.search.memory.b:0.75}")
+    private float b;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index;
+
+    private ExecutorService indexer;
+
+    @PostConstruct
+    public void start() throws Exception {
+        indexer = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "quora-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // changes committed during the load are queued behind it
+        invalidationChannel.register(this, CacheRegion.QUESTION, CacheRegion.USER);
+        indexer.submit(this::reload).get();
+
+        Gauge.builder("quora.search.index.documents", this, searchIndex -> searchIndex.read(InvertedIndex::size))
+                .description("Questions in the in-memory search index").register(Metrics.globalRegistry);
+        Gauge.builder("quora.search.index.bytes", this, searchIndex -> searchIndex.read(InvertedIndex::estimatedBytes))
+                .description("Estimated heap held by the in-memory search index").register(Metrics.globalRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        indexer.shutdownNow();
+    }
+
+    @Override
+    public List<QuestionSearchHit> search(final String query, final SearchCursor after, final int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(final CacheRegion region, final String key) {
+        if (region == CacheRegion.QUESTION) {
+            indexer.execute(() -> refresh(key));
+        } else {
+            indexer.execute(() -> {
+                for (final String questionUuid : read(searchIndex -> searchIndex.questionsOf(key))) {
+                    refresh(questionUuid);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        indexer.execute(this::reload);
+    }
+
+    private void refresh(final String questionUuid) {
+        try {
+            final List<InvertedIndex.Document> documents = jdbcTemplate.query(SELECT_QUESTION, DOCUMENT_MAPPER, questionUuid);
+            lock.writeLock().lock();
+            try {
+                if (documents.isEmpty()) {
+                    index.remove(questionUuid);
+                } else {
+                    index.add(documents.get(0));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Question {} could not be indexed again, search results may be stale until the next reload", questionUuid, e);
+        }
+    }
+
+    private void reload() {
+        try {
+            final InvertedIndex loaded = load();
+            lock.writeLock().lock();
+            try {
+                index = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            if (index == null) {
+                throw new IllegalStateException("Search index could not be loaded", e);
+            }
+            LOG.warn("Search index could not be reloaded, the previous one is kept", e);
+        }
+    }
+
+    private InvertedIndex load() throws Exception {
+        final long start = System.nanoTime();
+        final InvertedIndex loaded = new InvertedIndex(k1, b);
+        final Map<String, Object> range = jdbcTemplate.queryForMap(SELECT_ID_RANGE);
+        final Number low = (Number) range.get("min");
+        final Number high = (Number) range.get("max");
+        if (low != null) {
+            final long first = low.longValue();
+            final long end = high.longValue() + 1;
+            final long step = Math.max(1, (end - first + loadThreads - 1) / loadThreads);
+            final ExecutorService loaders = Executors.newFixedThreadPool(loadThreads);
+            try {
+                final List<Future<List<InvertedIndex.Document>>> partitions = new ArrayList<Future<List<InvertedIndex.Document>>>();
+                for (long from = first; from < end; from += step) {
+                    final long to = Math.min(end, from + step);
+                    final long partitionStart = from;
+                    partitions.add(loaders.submit(() -> jdbcTemplate.query(SELECT_QUESTIONS, DOCUMENT_MAPPER, partitionStart, to)));
+                }
+                // in id order, the document numbers follow the question ids
+                for (final Future<List<InvertedIndex.Document>> partition : partitions) {
+                    for (final InvertedIndex.Document document : partition.get()) {
+                        loaded.add(document);
+                    }
+                }
+            } finally {
+                loaders.shutdownNow();
+            }
+            loaded.trim();
+        }
+        LOG.info("Search index loaded in {} ms: {} questions, {} terms, {} bytes of postings, about {} bytes in total",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loaded.size(), loaded.terms(),
+                loaded.postingBytes(), loaded.estimatedBytes());
+        return loaded;
+    }
+
+    private <T> T read(final Function<InvertedIndex, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
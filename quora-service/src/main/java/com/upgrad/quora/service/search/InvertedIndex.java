@@ -0,0 +1,376 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory inverted index of the question contents, scored with Okapi BM25.
+ * <p>
+ * Each question is a document numbered in the order it was added. The term dictionary maps every term to the
+ * {@link PostingList} of the documents containing it. A search intersects the posting lists of its terms, shortest
+ * first, and keeps the best scoring documents in a bounded heap. Results are sorted by score then question id, both
+ * descending, like the Postgres search, so that the same {@link SearchCursor} pages through either.
+ * <p>
+ * Posting lists are append only. Editing a question removes its document and adds a new one. Removed documents are
+ * skipped by the searches until they outnumber the live ones, and then the index is rebuilt from the live documents.
+ * <p>
+ * Queries are words, all of which must match. A word with a leading "-" excludes the questions containing it. Quoted
+ * phrases are matched as their words, and "or" is a stop word here.
+ * <p>
+ * Not thread safe: see {@link InMemoryQuestionSearchIndex} for the locking.
+ */
+public class InvertedIndex {
+
+    private static final Comparator<QuestionSearchHit> WORST_FIRST =
+            Comparator.comparing(QuestionSearchHit::getRank).thenComparing(QuestionSearchHit::getId);
+
+    private final float k1;
+
+    private final float b;
+
+    private final Map<String, Term> dictionary = new HashMap<String, Term>();
+
+    // document number -> question
+    private int[] ids = new int[16];
+    private String[] uuids = new String[16];
+    private String[] contents = new String[16];
+    private String[] userUuids = new String[16];
+    private int[] lengths = new int[16];
+    private final BitSet deleted = new BitSet();
+    private int documentCount;
+
+    // question uuid -> live document number
+    private final Map<String, Integer> liveDocuments = new HashMap<String, Integer>();
+
+    // user uuid, shared by the questions of the user
+    private final Map<String, String> users = new HashMap<String, String>();
+
+    private long liveLength;
+
+    /**
+     * @param k1 - term frequency saturation, 1.2 usually
+     * @param b  - document length normalization, 0.75 usually
+     */
+    public InvertedIndex(final float k1, final float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Adds a question, replacing the question with the same uuid if any.
+     *
+     * @param document - analyzed question
+     */
+    public void add(final Document document) {
+        remove(document.uuid);
+        final int doc = documentCount++;
+        ensureCapacity(documentCount);
+        ids[doc] = document.id;
+        uuids[doc] = document.uuid;
+        contents[doc] = document.content;
+        userUuids[doc] = document.userUuid == null ? null : users.computeIfAbsent(document.userUuid, u -> u);
+        lengths[doc] = document.length;
+        for (int i = 0; i < document.terms.length; i++) {
+            final Term term = dictionary.computeIfAbsent(document.terms[i], t -> new Term());
+            term.postings.add(doc, document.frequencies[i]);
+            term.liveDocumentFrequency++;
+        }
+        liveDocuments.put(document.uuid, doc);
+        liveLength += document.length;
+    }
+
+    /**
+     * @param uuid - uuid of the question
+     * @return whether the question was in the index
+     */
+    public boolean remove(final String uuid) {
+        final Integer doc = liveDocuments.remove(uuid);
+        if (doc == null) {
+            return false;
+        }
+        deleted.set(doc);
+        liveLength -= lengths[doc];
+        for (final String term : new LinkedHashSet<String>(TextAnalyzer.analyze(contents[doc]))) {
+            dictionary.get(term).liveDocumentFrequency--;
+        }
+        if (deleted.cardinality() > liveDocuments.size() && documentCount > 1024) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * @param userUuid - uuid of a user
+     * @return uuids of the questions of the user in the index
+     */
+    public List<String> questionsOf(final String userUuid) {
+        final List<String> questions = new ArrayList<String>();
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (!deleted.get(doc) && userUuid.equals(userUuids[doc])) {
+                questions.add(uuids[doc]);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * @param query - words to search for
+     * @param after - position of the last question of the previous page, null for the first page
+     * @param limit - maximum number of questions returned
+     * @return matching questions, best scoring first
+     */
+    public List<QuestionSearchHit> search(final String query, final SearchCursor after, final int limit) {
+        final Set<String> required = new LinkedHashSet<String>();
+        final Set<String> excluded = new LinkedHashSet<String>();
+        for (final String word : query.split("\\s+")) {
+            if (word.startsWith("-")) {
+                excluded.addAll(TextAnalyzer.analyze(word));
+            } else {
+                required.addAll(TextAnalyzer.analyze(word));
+            }
+        }
+        required.removeAll(excluded);
+        if (required.isEmpty() || liveDocuments.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Term[] terms = new Term[required.size()];
+        int t = 0;
+        for (final String word : required) {
+            final Term term = dictionary.get(word);
+            if (term == null || term.liveDocumentFrequency == 0) {
+                return Collections.emptyList();
+            }
+            terms[t++] = term;
+        }
+        // the shortest list leads the intersection, the others are only advanced to its documents
+        Arrays.sort(terms, Comparator.comparingInt(term -> term.postings.count()));
+
+        final int liveCount = liveDocuments.size();
+        final float averageLength = Math.max(1f, (float) liveLength / liveCount);
+        final PostingList.Reader[] readers = new PostingList.Reader[terms.length];
+        final float[] idf = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            readers[i] = terms[i].postings.reader();
+            final int df = terms[i].liveDocumentFrequency;
+            idf[i] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+        }
+        final List<PostingList.Reader> exclusions = new ArrayList<PostingList.Reader>();
+        for (final String word : excluded) {
+            final Term term = dictionary.get(word);
+            if (term != null) {
+                exclusions.add(term.postings.reader());
+            }
+        }
+
+        final PriorityQueue<QuestionSearchHit> best = new PriorityQueue<QuestionSearchHit>(limit + 1, WORST_FIRST);
+        int doc = readers[0].next();
+        candidates:
+        while (doc != PostingList.NO_MORE_DOCS) {
+            for (int i = 1; i < readers.length; i++) {
+                final int other = readers[i].advance(doc);
+                if (other > doc) {
+                    doc = readers[0].advance(other);
+                    continue candidates;
+                }
+            }
+            if (!deleted.get(doc) && !isExcluded(exclusions, doc)) {
+                final float norm = k1 * (1 - b + b * lengths[doc] / averageLength);
+                float score = 0;
+                for (int i = 0; i < readers.length; i++) {
+                    final int frequency = readers[i].frequency();
+                    score += idf[i] * frequency * (k1 + 1) / (frequency + norm);
+                }
+                offer(best, doc, score, after, limit);
+            }
+            doc = readers[0].next();
+        }
+
+        final List<QuestionSearchHit> hits = new ArrayList<QuestionSearchHit>(best);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    private static boolean isExcluded(final List<PostingList.Reader> exclusions, final int doc) {
+        for (final PostingList.Reader exclusion : exclusions) {
+            if (exclusion.advance(doc) == doc) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void offer(final PriorityQueue<QuestionSearchHit> best, final int doc, final float score,
+                       final SearchCursor after, final int limit) {
+        final int id = ids[doc];
+        if (after != null && (score > after.getRank() || (score == after.getRank() && id >= after.getId()))) {
+            // on a previous page
+            return;
+        }
+        if (best.size() == limit) {
+            final QuestionSearchHit worst = best.peek();
+            if (score < worst.getRank() || (score == worst.getRank() && id < worst.getId())) {
+                return;
+            }
+            best.poll();
+        }
+        best.add(new QuestionSearchHit(id, uuids[doc], contents[doc], score));
+    }
+
+    /**
+     * @return questions in the index
+     */
+    public int size() {
+        return liveDocuments.size();
+    }
+
+    /**
+     * @return terms in the dictionary
+     */
+    public int terms() {
+        return dictionary.size();
+    }
+
+    /**
+     * @return bytes of the compressed posting lists
+     */
+    public long postingBytes() {
+        long bytes = 0;
+        for (final Term term : dictionary.values()) {
+            bytes += term.postings.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Rough heap footprint of the index on a 64-bit JVM with compressed references: posting lists, dictionary entries,
+     * the per document arrays and the contents kept to answer the searches.
+     *
+     * @return estimated bytes held by the index
+     */
+    public long estimatedBytes() {
+        long bytes = postingBytes();
+        for (final String term : dictionary.keySet()) {
+            // hash map node, string, term and posting list objects, array headers
+            bytes += 32 + 40 + 2L * term.length() + 16 + 24 + 16;
+        }
+        for (int doc = 0; doc < documentCount; doc++) {
+            bytes += 4 + 4 + 4 * 4;
+            if (!deleted.get(doc)) {
+                // content and uuid strings, uuid map node with its boxed document number
+                bytes += 40 + 2L * contents[doc].length() + 40 + 2L * uuids[doc].length() + 32 + 16;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Rewrites the posting lists without the removed documents.
+     */
+    private void compact() {
+        final List<Document> live = new ArrayList<Document>(liveDocuments.size());
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (!deleted.get(doc)) {
+                live.add(Document.analyze(ids[doc], uuids[doc], contents[doc], userUuids[doc]));
+            }
+        }
+        dictionary.clear();
+        liveDocuments.clear();
+        users.clear();
+        deleted.clear();
+        documentCount = 0;
+        liveLength = 0;
+        Arrays.fill(uuids, null);
+        Arrays.fill(contents, null);
+        Arrays.fill(userUuids, null);
+        for (final Document document : live) {
+            add(document);
+        }
+        trim();
+    }
+
+    /**
+     * Releases the spare capacity of the posting lists, after a bulk load.
+     */
+    public void trim() {
+        for (final Term term : dictionary.values()) {
+            term.postings.trim();
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > ids.length) {
+            final int newLength = Math.max(ids.length * 2, capacity);
+            ids = Arrays.copyOf(ids, newLength);
+            uuids = Arrays.copyOf(uuids, newLength);
+            contents = Arrays.copyOf(contents, newLength);
+            userUuids = Arrays.copyOf(userUuids, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    private static final class Term {
+
+        private final PostingList postings = new PostingList();
+
+        private int liveDocumentFrequency;
+    }
+
+    /**
+     * A question analyzed into its distinct terms and their frequencies, ready to be added. Analysis is the costly
+     * part of indexing and needs no lock, so bulk loads analyze in parallel.
+     */
+    public static final class Document {
+
+        private final int id;
+        private final String uuid;
+        private final String content;
+        private final String userUuid;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int length;
+
+        private Document(final int id, final String uuid, final String content, final String userUuid,
+                         final String[] terms, final int[] frequencies, final int length) {
+            this.id = id;
+            this.uuid = uuid;
+            this.content = content;
+            this.userUuid = userUuid;
+            this.terms = terms;
+            this.frequencies = frequencies;
+            this.length = length;
+        }
+
+        /**
+         * @param id       - question id, the tie breaker of equal scores
+         * @param uuid     - question uuid
+         * @param content  - question content
+         * @param userUuid - uuid of the owner of the question
+         * @return the analyzed question
+         */
+        public static Document analyze(final int id, final String uuid, final String content, final String userUuid) {
+            final List<String> words = TextAnalyzer.analyze(content);
+            final Map<String, Integer> frequencies = new HashMap<String, Integer>();
+            for (final String word : words) {
+                frequencies.merge(word, 1, Integer::sum);
+            }
+            final String[] terms = new String[frequencies.size()];
+            final int[] counts = new int[frequencies.size()];
+            int i = 0;
+            for (final Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                terms[i] = frequency.getKey();
+                counts[i++] = frequency.getValue();
+            }
+            return new Document(id, uuid, content, userUuid, terms, counts, words.size());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.dao.QuestionDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Searches the tsvector Postgres generates from the question content, through its GIN index.
+ */
+@Component
+@ConditionalOnProperty(name = "quora.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresQuestionSearchIndex implements QuestionSearchIndex {
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<QuestionSearchHit> search(final String query, final SearchCursor after, final int limit) {
+        return questionDao.searchQuestions(query, after, limit);
+    }
+}
@@ -0,0 +1,131 @@
+package com.upgrad.quora.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing a term, with the frequency of the term in each, compressed in a byte array: the documents are
+ * appended in increasing order and stored as the gap to the previous one, each gap and frequency in variable-byte
+ * encoding, 7 bits per byte with the high bit set on all but the last byte. Gaps of a common term fit in a single byte,
+ * which makes a posting about 2 bytes instead of the 8 of two ints.
+ * <p>
+ * Not thread safe, guarded by the lock of the index.
+ */
+final class PostingList {
+
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private byte[] bytes = new byte[8];
+
+    private int size;
+
+    private int count;
+
+    private int lastDoc = -1;
+
+    /**
+     * @param doc       - document number, greater than every document appended before
+     * @param frequency - occurrences of the term in the document
+     */
+    void add(final int doc, final int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Document " + doc + " appended after " + lastDoc);
+        }
+        ensureCapacity(10);
+        writeVarInt(doc - lastDoc);
+        writeVarInt(frequency);
+        lastDoc = doc;
+        count++;
+    }
+
+    /**
+     * @return postings appended, deleted documents included
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return bytes held by the list
+     */
+    int sizeInBytes() {
+        return bytes.length;
+    }
+
+    void trim() {
+        bytes = Arrays.copyOf(bytes, size);
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * Decodes the postings in document order.
+     */
+    final class Reader {
+
+        private int position;
+
+        private int doc = -1;
+
+        private int frequency;
+
+        /**
+         * @return the next document, {@link #NO_MORE_DOCS} past the last one
+         */
+        int next() {
+            if (position >= size) {
+                doc = NO_MORE_DOCS;
+                return doc;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            return doc;
+        }
+
+        /**
+         * @param target - document to move to
+         * @return the first document at or after the target, {@link #NO_MORE_DOCS} past the last one
+         */
+        int advance(final int target) {
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable compressed trie (radix tree) of the normalized question contents, answering which questions start with a
+ * prefix.
+ * <p>
+ * Every node stores the {@code k} most popular questions below it, computed once at build time. A lookup therefore walks
+ * at most the length of the prefix and copies a precomputed list, whatever the number of questions. The nodes are
+ * flattened into int and char arrays. Each edge label is a range of one shared char array, and the children of a node
+ * are contiguous and sorted by the first char of their label.
+ */
+public final class PrefixSuggester {
+
+    private final String[] uuids;
+    private final String[] contents;
+    private final long[] popularity;
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+
+    private final int[] childStart;
+    private final int[] childCount;
+    private final int[] children;
+    private final char[] childFirstChar;
+
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] tops;
+
+    private final int nodeCount;
+
+    private PrefixSuggester(final Builder builder) {
+        uuids = builder.uuids;
+        contents = builder.contents;
+        popularity = builder.popularity;
+        labels = Arrays.copyOf(builder.labels, builder.labelSize);
+        nodeCount = builder.nodeCount;
+        labelStart = Arrays.copyOf(builder.labelStart, nodeCount);
+        labelLength = Arrays.copyOf(builder.labelLength, nodeCount);
+        childStart = Arrays.copyOf(builder.childStart, nodeCount);
+        childCount = Arrays.copyOf(builder.childCount, nodeCount);
+        children = Arrays.copyOf(builder.children, builder.childSize);
+        childFirstChar = Arrays.copyOf(builder.childFirstChar, builder.childSize);
+        topStart = Arrays.copyOf(builder.topStart, nodeCount);
+        topCount = Arrays.copyOf(builder.topCount, nodeCount);
+        tops = Arrays.copyOf(builder.tops, builder.topSize);
+    }
+
+    /**
+     * @param questions - questions to suggest
+     * @param k         - suggestions kept per prefix
+     * @return the suggester
+     */
+    public static PrefixSuggester build(final List<Suggestion> questions, final int k) {
+        return new Builder(questions, k).build();
+    }
+
+    /**
+     * @return an empty suggester, until the first one is built
+     */
+    public static PrefixSuggester empty() {
+        return build(Collections.<Suggestion>emptyList(), 1);
+    }
+
+    /**
+     * Lower cases the text, turns every run of characters other than letters and digits into a single space and trims
+     * the leading spaces. The trailing space of a prefix is kept, it tells that the last word is complete.
+     *
+     * @param text - question content or prefix being typed
+     * @return normalized text
+     */
+    public static String normalize(final String text) {
+        final StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                space = false;
+                normalized.append(c);
+            } else {
+                space = true;
+            }
+        }
+        if (space && normalized.length() > 0) {
+            normalized.append(' ');
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param prefix - prefix typed by the user, normalized here
+     * @param limit  - maximum number of suggestions, at most the {@code k} of the build
+     * @return most popular questions starting with the prefix, most popular first
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        final int node = find(normalize(prefix));
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        final int count = Math.min(limit, topCount[node]);
+        final List<Suggestion> suggestions = new ArrayList<Suggestion>(count);
+        for (int i = 0; i < count; i++) {
+            final int question = tops[topStart[node] + i];
+            suggestions.add(new Suggestion(uuids[question], contents[question], popularity[question]));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return questions held
+     */
+    public int size() {
+        return uuids.length;
+    }
+
+    /**
+     * @return nodes of the trie
+     */
+    public int nodes() {
+        return nodeCount;
+    }
+
+    private int find(final String prefix) {
+        if (nodeCount == 0) {
+            return -1;
+        }
+        int node = 0;
+        int position = 0;
+        while (true) {
+            final int start = labelStart[node];
+            for (int i = 0; i < labelLength[node]; i++) {
+                if (position == prefix.length()) {
+                    // the prefix ends within the label
+                    return node;
+                }
+                if (labels[start + i] != prefix.charAt(position++)) {
+                    return -1;
+                }
+            }
+            if (position == prefix.length()) {
+                return node;
+            }
+            final int child = Arrays.binarySearch(childFirstChar, childStart[node], childStart[node] + childCount[node], prefix.charAt(position));
+            if (child < 0) {
+                return -1;
+            }
+            node = children[child];
+        }
+    }
+
+    /**
+     * A question to suggest and its popularity.
+     */
+    public static final class Suggestion {
+
+        private final String uuid;
+        private final String content;
+        private final long popularity;
+
+        public Suggestion(final String uuid, final String content, final long popularity) {
+            this.uuid = uuid;
+            this.content = content;
+            this.popularity = popularity;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public long getPopularity() {
+            return popularity;
+        }
+    }
+
+    private static final class Builder {
+
+        private final int k;
+
+        private final String[] keys;
+        private final String[] uuids;
+        private final String[] contents;
+        private final long[] popularity;
+
+        private char[] labels = new char[256];
+        private int labelSize;
+
+        private int nodeCount;
+        private int[] labelStart = new int[64];
+        private int[] labelLength = new int[64];
+        private int[] childStart = new int[64];
+        private int[] childCount = new int[64];
+        private int[] topStart = new int[64];
+        private int[] topCount = new int[64];
+
+        private int[] children = new int[64];
+        private char[] childFirstChar = new char[64];
+        private int childSize;
+
+        private int[] tops = new int[256];
+        private int topSize;
+
+        private Builder(final List<Suggestion> questions, final int k) {
+            this.k = k;
+            // sorted by normalized content, the questions below a node are a contiguous range
+            final List<Suggestion> sorted = new ArrayList<Suggestion>(questions);
+            final List<String> normalized = new ArrayList<String>(sorted.size());
+            final Integer[] order = new Integer[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                normalized.add(normalize(sorted.get(i).getContent()).trim());
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(normalized::get));
+            keys = new String[order.length];
+            uuids = new String[order.length];
+            contents = new String[order.length];
+            popularity = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                final Suggestion question = sorted.get(order[i]);
+                keys[i] = normalized.get(order[i]);
+                uuids[i] = question.getUuid();
+                contents[i] = question.getContent();
+                popularity[i] = question.getPopularity();
+            }
+        }
+
+        private PrefixSuggester build() {
+            if (keys.length > 0) {
+                build(0, keys.length, 0);
+            }
+            return new PrefixSuggester(this);
+        }
+
+        /**
+         * Builds the node of the keys [from, to), which share their first {@code depth} chars.
+         *
+         * @return the node
+         */
+        private int build(final int from, final int to, final int depth) {
+            final int node = nodeCount++;
+            ensureNodeCapacity(nodeCount);
+
+            // sorted keys: the prefix common to the range is the one of its first and last keys
+            final String first = keys[from];
+            final String last = keys[to - 1];
+            int end = depth;
+            while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+            labelStart[node] = appendLabel(first, depth, end);
+            labelLength[node] = end - depth;
+
+            // keys ending at this node come first in the range
+            int childFrom = from;
+            while (childFrom < to && keys[childFrom].length() == end) {
+                childFrom++;
+            }
+            final List<Integer> nodeChildren = new ArrayList<Integer>();
+            while (childFrom < to) {
+                final char c = keys[childFrom].charAt(end);
+                int childTo = childFrom + 1;
+                while (childTo < to && keys[childTo].charAt(end) == c) {
+                    childTo++;
+                }
+                nodeChildren.add(build(childFrom, childTo, end));
+                childFrom = childTo;
+            }
+
+            childStart[node] = childSize;
+            childCount[node] = nodeChildren.size();
+            ensureChildCapacity(childSize + nodeChildren.size());
+            for (final int child : nodeChildren) {
+                children[childSize] = child;
+                childFirstChar[childSize++] = labels[labelStart[child]];
+            }
+
+            // the top k of the node: its own questions and the top k of each child, merged
+            final List<Integer> candidates = new ArrayList<Integer>();
+            for (int question = from; question < to && keys[question].length() == end; question++) {
+                candidates.add(question);
+            }
+            for (final int child : nodeChildren) {
+                for (int i = 0; i < topCount[child]; i++) {
+                    candidates.add(tops[topStart[child] + i]);
+                }
+            }
+            candidates.sort((a, b) -> popularity[a] != popularity[b] ? Long.compare(popularity[b], popularity[a]) : Integer.compare(a, b));
+            final int count = Math.min(k, candidates.size());
+            ensureTopCapacity(topSize + count);
+            topStart[node] = topSize;
+            topCount[node] = count;
+            for (int i = 0; i < count; i++) {
+                tops[topSize++] = candidates.get(i);
+            }
+            return node;
+        }
+
+        private int appendLabel(final String key, final int from, final int to) {
+            if (labelSize + to - from > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + to - from));
+            }
+            key.getChars(from, to, labels, labelSize);
+            final int start = labelSize;
+            labelSize += to - from;
+            return start;
+        }
+
+        private void ensureNodeCapacity(final int capacity) {
+            if (capacity > labelStart.length) {
+                final int length = Math.max(labelStart.length * 2, capacity);
+                labelStart = Arrays.copyOf(labelStart, length);
+                labelLength = Arrays.copyOf(labelLength, length);
+                childStart = Arrays.copyOf(childStart, length);
+                childCount = Arrays.copyOf(childCount, length);
+                topStart = Arrays.copyOf(topStart, length);
+                topCount = Arrays.copyOf(topCount, length);
+            }
+        }
+
+        private void ensureChildCapacity(final int capacity) {
+            if (capacity > children.length) {
+                final int length = Math.max(children.length * 2, capacity);
+                children = Arrays.copyOf(children, length);
+                childFirstChar = Arrays.copyOf(childFirstChar, length);
+            }
+        }
+
+        private void ensureTopCapacity(final int capacity) {
+            if (capacity > tops.length) {
+                tops = Arrays.copyOf(tops, Math.max(tops.length * 2, capacity));
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.upgrad.quora.service.search;
+
+/**
+ * A question matching a search, with its relevance to the search. Read by the {@code searchQuestions} native queries
+ * of {@link com.upgrad.quora.service.entity.QuestionEntity} without loading the question entity nor its user.
+ */
+public class QuestionSearchHit {
+
+    private final Integer id;
+
+    private final String uuid;
+
+    private final String content;
+
+    private final Float rank;
+
+    public QuestionSearchHit(final Integer id, final String uuid, final String content, final Float rank) {
+        this.id = id;
+        this.uuid = uuid;
+        this.content = content;
+        this.rank = rank;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Float getRank() {
+        return rank;
+    }
+}
@@ -0,0 +1,18 @@
+package com.upgrad.quora.service.search;
+
+import java.util.List;
+
+/**
+ * Full-text search engine of the questions, chosen with {@code quora.search.engine}: {@code postgres}, the default, or
+ * {@code memory}.
+ */
+public interface QuestionSearchIndex {
+
+    /**
+     * @param query - words to search for
+     * @param after - position of the last question of the previous page, null for the first page
+     * @param limit - maximum number of questions returned
+     * @return matching questions, sorted by rank then id, both descending
+     */
+    List<QuestionSearchHit> search(String query, SearchCursor after, int limit);
+}
@@ -0,0 +1,29 @@
+package com.upgrad.quora.service.search;
+
+import java.util.List;
+
+/**
+ * A page of search results, most relevant first.
+ */
+public class QuestionSearchPage {
+
+    private final List<QuestionSearchHit> hits;
+
+    private final SearchCursor next;
+
+    public QuestionSearchPage(final List<QuestionSearchHit> hits, final SearchCursor next) {
+        this.hits = hits;
+        this.next = next;
+    }
+
+    public List<QuestionSearchHit> getHits() {
+        return hits;
+    }
+
+    /**
+     * @return cursor of the next page, null on the last page
+     */
+    public SearchCursor getNext() {
+        return next;
+    }
+}
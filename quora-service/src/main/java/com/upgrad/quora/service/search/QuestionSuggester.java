@@ -0,0 +1,126 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.InvalidationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Suggests the questions starting with what the user is typing, from a {@link PrefixSuggester} of every question held
+ * by this node. Questions are ranked by their number of answers.
+ * <p>
+ * The suggester is immutable: it is built at startup, then built again off the request threads at a fixed delay when
+ * questions or answers changed on any node since the last build, and swapped in atomically. Suggestions may therefore
+ * lag the question changes by up to the rebuild interval.
+ */
+@Component
+public class QuestionSuggester implements InvalidationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuestionSuggester.class);
+
+    // the denormalized answer counts spare the aggregation of the whole answer table
+    private static final String SELECT_QUESTIONS = "SELECT uuid, content, answer_count FROM question";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Value("${quora.suggest.top-k:10}")
+    private int topK;
+
+    @Value("${quora.suggest.rebuild-interval-ms:60000}")
+    private long rebuildIntervalMs;
+
+    private final AtomicReference<PrefixSuggester> suggester = new AtomicReference<PrefixSuggester>(PrefixSuggester.empty());
+
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    private ScheduledExecutorService builder;
+
+    @PostConstruct
+    public void start() throws Exception {
+        builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "quora-suggest-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        invalidationChannel.register(this, CacheRegion.QUESTION, CacheRegion.QUESTION_ANSWERS);
+        builder.submit(this::rebuild).get();
+        // zero or less leaves the suggester as built at startup
+        if (rebuildIntervalMs > 0) {
+            builder.scheduleWithFixedDelay(() -> {
+                if (changed.getAndSet(false)) {
+                    rebuild();
+                }
+            }, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        Gauge.builder("quora.suggest.questions", this, questionSuggester -> questionSuggester.suggester.get().size())
+                .description("Questions in the prefix suggester").register(Metrics.globalRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * @param prefix - prefix typed by the user
+     * @param limit  - maximum number of suggestions, at most {@code quora.suggest.top-k}
+     * @return most answered questions starting with the prefix
+     */
+    public List<PrefixSuggester.Suggestion> suggest(final String prefix, final int limit) {
+        return suggester.get().suggest(prefix, limit);
+    }
+
+    /**
+     * @return maximum number of suggestions of a prefix
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    @Override
+    public void invalidate(final CacheRegion region, final String key) {
+        changed.set(true);
+    }
+
+    @Override
+    public void invalidateAll() {
+        changed.set(true);
+    }
+
+    private void rebuild() {
+        try {
+            final long start = System.nanoTime();
+            final List<PrefixSuggester.Suggestion> questions = jdbcTemplate.query(SELECT_QUESTIONS, (resultSet, rowNum) ->
+                    new PrefixSuggester.Suggestion(resultSet.getString(1), resultSet.getString(2), resultSet.getLong(3)));
+            final PrefixSuggester built = PrefixSuggester.build(questions, topK);
+            suggester.set(built);
+            LOG.info("Question suggester built in {} ms: {} questions, {} nodes",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), built.size(), built.nodes());
+        } catch (RuntimeException e) {
+            // changes since the failed build are still pending
+            changed.set(true);
+            LOG.warn("Question suggester could not be built, the previous one is kept", e);
+        }
+    }
+}
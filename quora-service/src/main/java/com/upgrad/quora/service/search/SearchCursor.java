@@ -0,0 +1,67 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.exception.InvalidSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last question of a search page: its rank and id, the sort key of the search. The next page starts
+ * right after it, so that pages neither skip nor repeat questions the way offsets do when questions are added, and
+ * are read from the index whatever their depth.
+ * <p>
+ * Sent to the clients as an opaque string. The rank is kept as the bits of the float Postgres computed, to be compared
+ * exactly.
+ */
+public final class SearchCursor {
+
+    private final float rank;
+
+    private final int id;
+
+    public SearchCursor(final float rank, final int id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    /**
+     * @param hit - last question of a page
+     * @return cursor of the page following it
+     */
+    public static SearchCursor after(final QuestionSearchHit hit) {
+        return new SearchCursor(hit.getRank(), hit.getId());
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        final String position = Integer.toHexString(Float.floatToIntBits(rank)) + "." + Integer.toHexString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param cursor - cursor sent by a client
+     * @return the decoded cursor
+     * @throws InvalidSearchException - if the cursor was not encoded by {@link #encode()}
+     */
+    public static SearchCursor decode(final String cursor) throws InvalidSearchException {
+        try {
+            final String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            final int separator = position.indexOf('.');
+            final float rank = Float.intBitsToFloat(Integer.parseUnsignedInt(position.substring(0, separator), 16));
+            final int id = Integer.parseUnsignedInt(position.substring(separator + 1), 16);
+            if (Float.isNaN(rank)) {
+                throw new IllegalArgumentException("NaN rank");
+            }
+            return new SearchCursor(rank, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidSearchException("SRCH-002", "Entered cursor is not the cursor of a search page");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.common.StringHash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 64 bit SimHash (Charikar, 2002) of a question content: texts sharing most of their words get hashes differing in few
+ * bits, so near-duplicates are found by Hamming distance.
+ * <p>
+ * The features are the words of the content, lower cased and reduced with the S-stemmer of {@link TextAnalyzer}. Stop
+ * words are kept: "why" and "how" make different questions. Questions are short, a single changed word moves the hash
+ * by several bits, so only the reposts differing by their case, punctuation or plurals come within a few bits of each
+ * other. The hash is split in {@link #BANDS} bands of 16 bits; by the pigeonhole principle two hashes at a distance
+ * below {@link #BANDS} are equal in at least one band, which an index of each band finds without comparing every hash.
+ */
+public final class SimHash {
+
+    public static final int BANDS = 4;
+
+    public static final int MAX_INDEXED_DISTANCE = BANDS - 1;
+
+    private static final int BAND_BITS = Long.SIZE / BANDS;
+
+    private SimHash() {
+    }
+
+    /**
+     * @param text - question content, may be null
+     * @return SimHash of the text, null if the text has no word
+     */
+    public static Long of(final String text) {
+        final List<String> words = words(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+        final int[] weights = new int[Long.SIZE];
+        for (int i = 0; i < words.size(); i++) {
+            add(weights, StringHash.of(words.get(i)));
+        }
+        long simHash = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        return simHash;
+    }
+
+    /**
+     * @return number of bits differing between the two hashes
+     */
+    public static int distance(final long first, final long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * @param simHash - hash to split
+     * @param band    - band from 0, the most significant bits, to {@link #BANDS} - 1
+     * @return bits of the band, from 0 to 65535
+     */
+    public static int band(final long simHash, final int band) {
+        return (int) (simHash >>> (Long.SIZE - BAND_BITS * (band + 1))) & ((1 << BAND_BITS) - 1);
+    }
+
+    private static void add(final int[] weights, final long featureHash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += (featureHash >>> bit & 1) == 1 ? 1 : -1;
+        }
+    }
+
+    private static List<String> words(final String text) {
+        final List<String> words = new ArrayList<String>();
+        if (text == null) {
+            return words;
+        }
+        final int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            final boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(TextAnalyzer.stem(text.substring(start, i).toLowerCase(Locale.ROOT)));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
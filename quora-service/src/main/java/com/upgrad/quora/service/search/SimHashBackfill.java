@@ -0,0 +1,63 @@
+package com.upgrad.quora.service.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes at startup the {@link SimHash} of the questions stored without one, e.g. the questions inserted by SQL
+ * scripts, so that the duplicate check covers them. The questions posted or edited through the application get their
+ * SimHash in the same transaction.
+ */
+@Component
+public class SimHashBackfill {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimHashBackfill.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    // questions without any word keep a null SimHash, the id moves past them
+    private static final String SELECT_QUESTIONS = "SELECT id, content FROM question"
+            + " WHERE content_simhash IS NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+
+    private static final String UPDATE_SIMHASH = "UPDATE question SET content_simhash = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        final long start = System.nanoTime();
+        int lastId = 0;
+        int filled = 0;
+        while (true) {
+            final List<Map<String, Object>> questions = jdbcTemplate.queryForList(SELECT_QUESTIONS, lastId);
+            final List<Object[]> updates = new ArrayList<Object[]>(questions.size());
+            for (final Map<String, Object> question : questions) {
+                lastId = ((Number) question.get("id")).intValue();
+                final Long simHash = SimHash.of((String) question.get("content"));
+                if (simHash != null) {
+                    updates.add(new Object[]{simHash, lastId});
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SIMHASH, updates);
+                filled += updates.size();
+            }
+            if (questions.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (filled > 0) {
+            LOG.info("SimHash of {} questions computed in {} ms", filled, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.upgrad.quora.service.search;
+
+/**
+ * A question whose content has a {@link SimHash} close to the one of another question.
+ */
+public class SimilarQuestion {
+
+    private final String uuid;
+
+    private final String content;
+
+    private final long simHash;
+
+    public SimilarQuestion(final String uuid, final String content, final Long simHash) {
+        this.uuid = uuid;
+        this.content = content;
+        this.simHash = simHash;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public long getSimHash() {
+        return simHash;
+    }
+}
@@ -0,0 +1,76 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into the terms of the in-memory index, close to what {@code to_tsvector('english', ...)} does: words are
+ * runs of letters and digits, lower cased, English stop words are dropped and plurals are reduced with the S-stemmer
+ * (Harman, 1991) instead of the full Snowball stemmer of Postgres.
+ */
+public final class TextAnalyzer {
+
+    // the stop words of the Postgres english dictionary
+    private static final Set<String> STOP_WORDS = new HashSet<String>(Arrays.asList(
+            "i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours", "yourself", "yourselves",
+            "he", "him", "his", "himself", "she", "her", "hers", "herself", "it", "its", "itself", "they", "them", "their",
+            "theirs", "themselves", "what", "which", "who", "whom", "this", "that", "these", "those", "am", "is", "are",
+            "was", "were", "be", "been", "being", "have", "has", "had", "having", "do", "does", "did", "doing", "a", "an",
+            "the", "and", "but", "if", "or", "because", "as", "until", "while", "of", "at", "by", "for", "with", "about",
+            "against", "between", "into", "through", "during", "before", "after", "above", "below", "to", "from", "up",
+            "down", "in", "out", "on", "off", "over", "under", "again", "further", "then", "once", "here", "there", "when",
+            "where", "why", "how", "all", "any", "both", "each", "few", "more", "most", "other", "some", "such", "no", "nor",
+            "not", "only", "own", "same", "so", "than", "too", "very", "s", "t", "can", "will", "just", "don", "should",
+            "now"));
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @param text - text to analyze, may be null
+     * @return terms of the text in order, repeated as often as they occur
+     */
+    public static List<String> analyze(final String text) {
+        final List<String> terms = new ArrayList<String>();
+        if (text == null) {
+            return terms;
+        }
+        final int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            final boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(final List<String> terms, final String word) {
+        if (STOP_WORDS.contains(word)) {
+            return;
+        }
+        terms.add(stem(word));
+    }
+
+    static String stem(final String word) {
+        final int length = word.length();
+        if (length > 3 && word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (length > 3 && word.endsWith("es") && !word.endsWith("aes") && !word.endsWith("ees") && !word.endsWith("oes")) {
+            return word.substring(0, length - 1);
+        }
+        if (length > 2 && word.endsWith("s") && !word.endsWith("us") && !word.endsWith("ss")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,102 @@
+package com.upgrad.quora.service.stats;
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.dao.QuestionStatsDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles the answer counts and the dates of the latest answers stored on the questions with their answers. The
+ * statements creating and deleting answers keep them exact, but answers removed by the database itself, along with
+ * their author, or written behind the back of the application are not counted by them.
+ * <p>
+ * The questions are repaired in id ranges of {@code quora.stats.answer-counts.repair-batch-size}, a transaction each,
+ * once at startup then every {@code quora.stats.answer-counts.repair-interval-ms}. The repaired questions are
+ * invalidated on every node so that the cached question lists drop the drifted counts.
+ */
+@Component
+public class AnswerCountRepair {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnswerCountRepair.class);
+
+    @Autowired
+    private QuestionStatsDao questionStatsDao;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Value("${quora.stats.answer-counts.repair-interval-ms:3600000}")
+    private long repairIntervalMs;
+
+    @Value("${quora.stats.answer-counts.repair-batch-size:1000}")
+    private int batchSize;
+
+    private final Counter repairedCounts = Counter.builder("quora.stats.answer-counts.repaired")
+            .description("Questions whose answer count had drifted from their answers").register(Metrics.globalRegistry);
+
+    private ScheduledExecutorService repairer;
+
+    @PostConstruct
+    public void start() {
+        repairer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "quora-answer-count-repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // zero or less leaves the repairs to the callers of repair()
+        if (repairIntervalMs > 0) {
+            repairer.scheduleWithFixedDelay(this::repairQuietly, 0, repairIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        repairer.shutdownNow();
+    }
+
+    /**
+     * @return number of questions whose answer count or date of latest answer was repaired
+     */
+    public int repair() {
+        final long start = System.nanoTime();
+        int repaired = 0;
+        int afterId = 0;
+        Integer lastId;
+        while ((lastId = questionStatsDao.getBatchEnd(afterId, batchSize)) != null) {
+            final Map<String, String> questions = questionStatsDao.repairAnswerCounts(afterId, lastId);
+            for (final Map.Entry<String, String> question : questions.entrySet()) {
+                invalidationChannel.publish(CacheRegion.QUESTION_ANSWERS, question.getKey());
+                invalidationChannel.publish(CacheRegion.USER_QUESTIONS, question.getValue());
+            }
+            repaired += questions.size();
+            afterId = lastId;
+        }
+        if (repaired > 0) {
+            repairedCounts.increment(repaired);
+            LOG.info("Answer counts of {} questions repaired in {} ms", repaired, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return repaired;
+    }
+
+    private void repairQuietly() {
+        try {
+            repair();
+        } catch (RuntimeException e) {
+            // the drifted counts are left for the next repair
+            LOG.warn("Answer counts could not be repaired", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.upgrad.quora.service.stats;
+
+import com.upgrad.quora.service.common.StringHash;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * HyperLogLog sketch (Flajolet et al., 2007) estimating the number of distinct values added, in {@code 2^precision}
+ * registers of one byte whatever the number of values. The standard error of the estimate is {@code 1.04 / sqrt(2^precision)},
+ * about 3% with the default precision of 10.
+ * <p>
+ * Values can be added concurrently: the registers are packed four to an int of an {@link AtomicIntegerArray} and raised
+ * with compare-and-set. Once a register holds the longest run of its values, adding one of them only reads it.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+
+    private final AtomicIntegerArray registers;
+
+    /**
+     * @param precision - log2 of the number of registers, from {@link #MIN_PRECISION} to {@link #MAX_PRECISION}
+     */
+    public HyperLogLog(final int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray((1 << precision) / 4);
+    }
+
+    /**
+     * @param bytes - registers written by {@link #toBytes()}
+     * @return the sketch of the registers
+     */
+    public static HyperLogLog fromBytes(final byte[] bytes) {
+        final int precision = Integer.numberOfTrailingZeros(bytes.length);
+        if (Integer.bitCount(bytes.length) != 1) {
+            throw new IllegalArgumentException("Not the registers of a HyperLogLog sketch: " + bytes.length + " bytes");
+        }
+        final HyperLogLog sketch = new HyperLogLog(precision);
+        for (int register = 0; register < bytes.length; register++) {
+            sketch.raise(register, bytes[register]);
+        }
+        return sketch;
+    }
+
+    /**
+     * @param value - value to count, e.g. the uuid of a viewer
+     */
+    public void add(final String value) {
+        final long hash = StringHash.of(value);
+        final int register = (int) (hash >>> (Long.SIZE - precision));
+        // position of the first one bit after the register bits, the sentinel bit caps it
+        final int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        raise(register, rank);
+    }
+
+    /**
+     * Adds the values of another sketch of the same precision, as if they had been added to this one.
+     *
+     * @param other - sketch to merge in
+     */
+    public void merge(final HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Sketches of different precisions cannot be merged: " + other.precision + " and " + precision);
+        }
+        for (int register = 0; register < 1 << precision; register++) {
+            raise(register, other.get(register));
+        }
+    }
+
+    /**
+     * @return estimated number of distinct values added
+     */
+    public long estimate() {
+        final int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        for (int register = 0; register < m; register++) {
+            final int value = get(register);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        final double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        final double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is the more accurate while many registers are still empty
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return one byte per register
+     */
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[1 << precision];
+        for (int register = 0; register < bytes.length; register++) {
+            bytes[register] = (byte) get(register);
+        }
+        return bytes;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private int get(final int register) {
+        return registers.get(register >>> 2) >>> ((register & 3) << 3) & 0xFF;
+    }
+
+    private void raise(final int register, final int rank) {
+        final int index = register >>> 2;
+        final int shift = (register & 3) << 3;
+        while (true) {
+            final int packed = registers.get(index);
+            if ((packed >>> shift & 0xFF) >= rank) {
+                return;
+            }
+            if (registers.compareAndSet(index, packed, packed & ~(0xFF << shift) | rank << shift)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.upgrad.quora.service.stats;
+
+/**
+ * Views of a question and its estimated number of distinct viewers.
+ */
+public class QuestionStats {
+
+    private final long views;
+
+    private final long uniqueViewers;
+
+    public QuestionStats(final long views, final long uniqueViewers) {
+        this.views = views;
+        this.uniqueViewers = uniqueViewers;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public long getUniqueViewers() {
+        return uniqueViewers;
+    }
+}
@@ -0,0 +1,181 @@
+package com.upgrad.quora.service.stats;
+
+import com.upgrad.quora.service.dao.QuestionStatsDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the views of the questions in memory and adds them to the question_stats table in periodic batches, so that
+ * a popular question does not turn every view into an update of the same row.
+ * <p>
+ * A view is a {@link LongAdder} increment, striped over cells so that concurrent viewers do not contend, and the
+ * addition of the viewer to a {@link HyperLogLog} sketch estimating the unique viewers. The counters and sketches are
+ * never reset: a flush adds the views counted since the previous flush and merges the whole sketch, which is idempotent,
+ * so a view racing a flush is counted by the next one. Questions without views since the previous flush are dropped
+ * from memory, and the memory is bounded by {@code quora.stats.max-questions}: once that many questions are counted,
+ * the views of other questions are dropped until the next flush frees room.
+ */
+@Component
+public class QuestionViewCounters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuestionViewCounters.class);
+
+    @Autowired
+    private QuestionStatsDao questionStatsDao;
+
+    @Value("${quora.stats.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    @Value("${quora.stats.max-questions:10000}")
+    private int maxQuestions;
+
+    @Value("${quora.stats.hll-precision:10}")
+    private int precision;
+
+    private final ConcurrentMap<String, ViewCounter> counters = new ConcurrentHashMap<String, ViewCounter>();
+
+    private final Counter droppedViews = Counter.builder("quora.stats.views.dropped")
+            .description("Views not counted since too many questions were counted in memory").register(Metrics.globalRegistry);
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        // an invalid precision fails the startup rather than the first view
+        new HyperLogLog(precision);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "quora-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // zero or less leaves the flushes to the callers of flush()
+        if (flushIntervalMs > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        Gauge.builder("quora.stats.questions", counters, Map::size)
+                .description("Questions whose views are counted in memory").register(Metrics.globalRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdownNow();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // the views counted since the last flush would be lost
+        flushQuietly();
+    }
+
+    /**
+     * @param questionUuid - question viewed
+     * @param viewerUuid   - user viewing the question
+     */
+    public void record(final String questionUuid, final String viewerUuid) {
+        ViewCounter counter = counters.get(questionUuid);
+        if (counter == null) {
+            if (counters.size() >= maxQuestions) {
+                droppedViews.increment();
+                if (flushRequested.compareAndSet(false, true)) {
+                    flusher.execute(this::flushQuietly);
+                }
+                return;
+            }
+            counter = counters.computeIfAbsent(questionUuid, uuid -> new ViewCounter(precision));
+        }
+        counter.views.increment();
+        counter.viewers.add(viewerUuid);
+    }
+
+    /**
+     * @param questionUuid - question whose stats are read
+     * @return views flushed by every node plus the ones this node counted since its last flush, the views of a flush
+     * being committed may be counted twice
+     */
+    public QuestionStats getStats(final String questionUuid) {
+        final QuestionStatsDao.StoredStats stored = questionStatsDao.getStats(questionUuid);
+        final ViewCounter counter = counters.get(questionUuid);
+        long views = stored == null ? 0 : stored.getViews();
+        final HyperLogLog viewers = new HyperLogLog(precision);
+        if (stored != null && stored.getViewers() != null && stored.getViewers().getPrecision() == precision) {
+            viewers.merge(stored.getViewers());
+        }
+        if (counter != null) {
+            views += counter.views.sum() - counter.flushedViews;
+            viewers.merge(counter.viewers);
+        }
+        return new QuestionStats(views, viewers.estimate());
+    }
+
+    /**
+     * Adds the views counted since the last flush to the question_stats table, in a single transaction.
+     */
+    public synchronized void flush() {
+        final List<QuestionViewDelta> deltas = new ArrayList<QuestionViewDelta>();
+        final List<ViewCounter> flushed = new ArrayList<ViewCounter>();
+        final List<Long> flushedViews = new ArrayList<Long>();
+        for (final Iterator<Map.Entry<String, ViewCounter>> entries = counters.entrySet().iterator(); entries.hasNext(); ) {
+            final Map.Entry<String, ViewCounter> entry = entries.next();
+            final ViewCounter counter = entry.getValue();
+            final long views = counter.views.sum();
+            if (views == counter.flushedViews) {
+                // idle since the last flush; a view recorded while it is being removed may be lost
+                entries.remove();
+                continue;
+            }
+            deltas.add(new QuestionViewDelta(entry.getKey(), views - counter.flushedViews, counter.viewers));
+            flushed.add(counter);
+            flushedViews.add(views);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        questionStatsDao.addViews(deltas);
+        for (int i = 0; i < flushed.size(); i++) {
+            flushed.get(i).flushedViews = flushedViews.get(i);
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // the views are still counted in memory, the next flush adds them
+            LOG.warn("Question views could not be flushed", e);
+        }
+    }
+
+    private static final class ViewCounter {
+
+        private final LongAdder views = new LongAdder();
+
+        private final HyperLogLog viewers;
+
+        // written by the flushing thread only, under the lock of flush()
+        private volatile long flushedViews;
+
+        private ViewCounter(final int precision) {
+            viewers = new HyperLogLog(precision);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.upgrad.quora.service.stats;
+
+/**
+ * Views of a question recorded by this node since its last flush, and the sketch of every viewer it recorded.
+ */
+public class QuestionViewDelta {
+
+    private final String questionUuid;
+
+    private final long views;
+
+    private final HyperLogLog viewers;
+
+    public QuestionViewDelta(final String questionUuid, final long views, final HyperLogLog viewers) {
+        this.questionUuid = questionUuid;
+        this.views = views;
+        this.viewers = viewers;
+    }
+
+    public String getQuestionUuid() {
+        return questionUuid;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public HyperLogLog getViewers() {
+        return viewers;
+    }
+}
@@ -0,0 +1,31 @@
+package com.upgrad.quora.service.stats;
+
+/**
+ * Question of the trending feed, with its score decayed to the time it was read.
+ */
+public class TrendingQuestion {
+
+    private final String uuid;
+
+    private final String content;
+
+    private final double score;
+
+    public TrendingQuestion(final String uuid, final String content, final double score) {
+        this.uuid = uuid;
+        this.content = content;
+        this.score = score;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
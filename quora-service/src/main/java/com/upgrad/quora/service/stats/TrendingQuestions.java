@@ -0,0 +1,431 @@
+package com.upgrad.quora.service.stats;
+
+import com.upgrad.quora.service.cache.CacheInvalidationChannel;
+import com.upgrad.quora.service.cache.CacheRegion;
+import com.upgrad.quora.service.cache.InvalidationListener;
+import com.upgrad.quora.service.dao.TrendingQuestionDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranks the questions by their recent views and answers, each event weighing {@code weight * 2^(-age / half-life)}.
+ * <p>
+ * The decay is applied forward (Cormode et al., 2009): an event at time {@code t} adds {@code weight * e^(rate * t)}
+ * to the score of its question, so that the scores of two questions keep their order as time passes and the ranking
+ * only changes on events. Scores are kept as logarithms, {@code log(weight) + rate * t}, which do not overflow however
+ * long the node runs, and the score decayed to now is {@code e^(log score - rate * now)}.
+ * <p>
+ * The top {@code quora.trending.top-k} questions are kept in a skip list ordered by score, read without locking. An
+ * event adds to the score of its question with compare-and-set, and only takes the lock of the skip list when the
+ * question is ranked or overtakes the last ranked one. At most {@code quora.trending.max-questions} questions are
+ * scored; a periodic maintenance drops the ones whose score decayed below {@code quora.trending.min-score}, and
+ * refreshes the content of the questions edited or deleted on any node. The event of a new question arriving once
+ * the limit is reached is dropped and runs the maintenance early, which then also drops the lowest scored questions
+ * not ranked, so that a question starting to trend on a busy node is scored from its next events on.
+ * <p>
+ * The events are the ones of this node. The scores are saved to the question_trending table periodically and on
+ * shutdown, the last node to save replacing the snapshot of the others, and restored at startup.
+ */
+@Component
+public class TrendingQuestions implements InvalidationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrendingQuestions.class);
+
+    @Autowired
+    private TrendingQuestionDao trendingQuestionDao;
+
+    @Autowired
+    private CacheInvalidationChannel invalidationChannel;
+
+    @Value("${quora.trending.half-life-ms:21600000}")
+    private long halfLifeMs;
+
+    @Value("${quora.trending.top-k:50}")
+    private int topK;
+
+    @Value("${quora.trending.max-questions:10000}")
+    private int maxQuestions;
+
+    @Value("${quora.trending.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${quora.trending.answer-weight:10}")
+    private double answerWeight;
+
+    @Value("${quora.trending.min-score:0.1}")
+    private double minScore;
+
+    @Value("${quora.trending.maintenance-interval-ms:10000}")
+    private long maintenanceIntervalMs;
+
+    @Value("${quora.trending.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs;
+
+    // per millisecond
+    private double decayRate;
+
+    private final ConcurrentMap<String, Trend> trends = new ConcurrentHashMap<String, Trend>();
+
+    private final ConcurrentSkipListSet<Rank> top = new ConcurrentSkipListSet<Rank>();
+
+    // size of the skip list, whose size() walks it; guarded by its lock
+    private int ranked;
+
+    // log score of the last ranked question once there are top-k of them
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+    private final Counter droppedEvents = Counter.builder("quora.trending.events.dropped")
+            .description("Events not scored since too many questions were scored").register(Metrics.globalRegistry);
+
+    private final AtomicBoolean maintenanceRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService maintainer;
+
+    @PostConstruct
+    public void start() {
+        decayRate = Math.log(2) / halfLifeMs;
+        maintainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "quora-trending");
+            thread.setDaemon(true);
+            return thread;
+        });
+        restore();
+        // zero or less leaves the maintenance and the snapshots to the callers of maintain() and snapshot()
+        if (maintenanceIntervalMs > 0) {
+            maintainer.scheduleWithFixedDelay(this::maintainQuietly, maintenanceIntervalMs, maintenanceIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if (snapshotIntervalMs > 0) {
+            maintainer.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        invalidationChannel.register(this, CacheRegion.QUESTION);
+        Gauge.builder("quora.trending.questions", trends, Map::size)
+                .description("Questions scored by the trending ranking").register(Metrics.globalRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        maintainer.shutdownNow();
+        maintainer.awaitTermination(5, TimeUnit.SECONDS);
+        // the events since the last snapshot would be lost
+        snapshotQuietly();
+    }
+
+    /**
+     * @param questionUuid - question viewed
+     * @param content      - content of the question
+     */
+    public void recordView(final String questionUuid, final String content) {
+        add(questionUuid, content, Math.log(viewWeight) + decayRate * System.currentTimeMillis());
+    }
+
+    /**
+     * Scores an answer to the question, once the transaction creating it commits if there is one, so that an answer
+     * rolled back is not counted.
+     *
+     * @param questionUuid - question answered
+     * @param content      - content of the question
+     */
+    public void recordAnswer(final String questionUuid, final String content) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    add(questionUuid, content, Math.log(answerWeight) + decayRate * System.currentTimeMillis());
+                }
+            });
+            return;
+        }
+        add(questionUuid, content, Math.log(answerWeight) + decayRate * System.currentTimeMillis());
+    }
+
+    /**
+     * @param limit - maximum number of questions, at most {@code quora.trending.top-k}
+     * @return the highest scored questions, highest first
+     */
+    public List<TrendingQuestion> getTrending(final int limit) {
+        final double now = decayRate * System.currentTimeMillis();
+        final List<TrendingQuestion> trending = new ArrayList<TrendingQuestion>(Math.min(limit, topK));
+        // a question ranked again while the skip list is walked may be met twice
+        final Set<String> seen = new HashSet<String>();
+        for (final Rank rank : top) {
+            if (trending.size() >= limit) {
+                break;
+            }
+            final Trend trend = trends.get(rank.uuid);
+            if (trend != null && seen.add(rank.uuid)) {
+                trending.add(new TrendingQuestion(rank.uuid, trend.content, Math.exp(rank.logScore - now)));
+            }
+        }
+        return trending;
+    }
+
+    /**
+     * @return maximum number of trending questions
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Refreshes the content of the questions changed since the last maintenance, drops the deleted ones and the ones
+     * whose score decayed below {@code quora.trending.min-score} without being ranked. When
+     * {@code quora.trending.max-questions} questions are still scored, the lowest scored ones which are not ranked are
+     * dropped until a tenth of the room is free again.
+     */
+    public synchronized void maintain() {
+        final List<String> changed = new ArrayList<String>();
+        for (final Trend trend : trends.values()) {
+            if (trend.changed) {
+                trend.changed = false;
+                changed.add(trend.uuid);
+            }
+        }
+        if (!changed.isEmpty()) {
+            final Map<String, String> contents = trendingQuestionDao.getContents(changed);
+            for (final String uuid : changed) {
+                final Trend trend = trends.get(uuid);
+                if (trend == null) {
+                    continue;
+                }
+                final String content = contents.get(uuid);
+                if (content == null) {
+                    remove(trend);
+                } else {
+                    trend.content = content;
+                }
+            }
+        }
+
+        final double minLogScore = Math.log(minScore) + decayRate * System.currentTimeMillis();
+        for (final Trend trend : trends.values()) {
+            if (Double.isNaN(trend.rankedLogScore) && trend.logScore() < minLogScore) {
+                // an event racing the removal is lost, its question scored below the minimum anyway
+                remove(trend);
+            }
+        }
+
+        if (trends.size() >= maxQuestions) {
+            // the scores are copied, they keep changing while they are sorted
+            final List<Rank> unranked = new ArrayList<Rank>(trends.size());
+            for (final Trend trend : trends.values()) {
+                if (Double.isNaN(trend.rankedLogScore)) {
+                    unranked.add(new Rank(trend.logScore(), trend.uuid));
+                }
+            }
+            Collections.sort(unranked);
+            int evicted = trends.size() - (maxQuestions - Math.max(1, maxQuestions / 10));
+            for (int i = unranked.size() - 1; i >= 0 && evicted > 0; i--, evicted--) {
+                final Trend trend = trends.get(unranked.get(i).uuid);
+                if (trend != null && Double.isNaN(trend.rankedLogScore)) {
+                    // an event racing the removal is lost, like the events dropped while there was no room
+                    remove(trend);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the snapshot of the scores in the question_trending table.
+     */
+    public synchronized void snapshot() {
+        final long now = System.currentTimeMillis();
+        final List<TrendingQuestion> scores = new ArrayList<TrendingQuestion>(trends.size());
+        for (final Trend trend : trends.values()) {
+            scores.add(new TrendingQuestion(trend.uuid, trend.content, Math.exp(trend.logScore() - decayRate * now)));
+        }
+        trendingQuestionDao.saveSnapshot(scores, now);
+    }
+
+    @Override
+    public void invalidate(final CacheRegion region, final String key) {
+        final Trend trend = trends.get(key);
+        if (trend != null) {
+            trend.changed = true;
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (final Trend trend : trends.values()) {
+            trend.changed = true;
+        }
+    }
+
+    private void add(final String questionUuid, final String content, final double logIncrement) {
+        Trend trend = trends.get(questionUuid);
+        if (trend == null) {
+            if (trends.size() >= maxQuestions) {
+                droppedEvents.increment();
+                if (maintenanceRequested.compareAndSet(false, true)) {
+                    maintainer.execute(this::maintainQuietly);
+                }
+                return;
+            }
+            trend = trends.computeIfAbsent(questionUuid, Trend::new);
+        }
+        trend.content = content;
+        final double logScore = trend.add(logIncrement);
+        if (logScore > threshold || !Double.isNaN(trend.rankedLogScore)) {
+            synchronized (top) {
+                rank(trend);
+            }
+        }
+    }
+
+    // guarded by the lock of the skip list
+    private void rank(final Trend trend) {
+        if (trends.get(trend.uuid) != trend) {
+            // removed by the maintenance, ranking it would leave it in the skip list
+            return;
+        }
+        // the score of the latest event, which may have been added by another thread than the one ranking
+        final double logScore = trend.logScore();
+        if (!Double.isNaN(trend.rankedLogScore)) {
+            top.remove(new Rank(trend.rankedLogScore, trend.uuid));
+            ranked--;
+        } else if (ranked >= topK && logScore <= threshold) {
+            return;
+        }
+        top.add(new Rank(logScore, trend.uuid));
+        ranked++;
+        trend.rankedLogScore = logScore;
+        while (ranked > topK) {
+            final Rank last = top.pollLast();
+            ranked--;
+            final Trend unranked = trends.get(last.uuid);
+            if (unranked != null) {
+                unranked.rankedLogScore = Double.NaN;
+            }
+        }
+        threshold = ranked < topK ? Double.NEGATIVE_INFINITY : top.last().logScore;
+    }
+
+    private void remove(final Trend trend) {
+        trends.remove(trend.uuid, trend);
+        synchronized (top) {
+            if (!Double.isNaN(trend.rankedLogScore)) {
+                top.remove(new Rank(trend.rankedLogScore, trend.uuid));
+                ranked--;
+                trend.rankedLogScore = Double.NaN;
+                threshold = ranked < topK ? Double.NEGATIVE_INFINITY : top.last().logScore;
+            }
+        }
+    }
+
+    private void restore() {
+        try {
+            int restored = 0;
+            for (final TrendingQuestionDao.StoredTrend stored : trendingQuestionDao.getSnapshot()) {
+                if (stored.getScore() > 0) {
+                    // the decay goes on from the time of the snapshot, at the current half-life
+                    add(stored.getUuid(), stored.getContent(), Math.log(stored.getScore()) + decayRate * stored.getScoredAt());
+                    restored++;
+                }
+            }
+            if (restored > 0) {
+                LOG.info("Scores of {} trending questions restored", restored);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Trending questions could not be restored, the ranking starts over", e);
+        }
+    }
+
+    private void maintainQuietly() {
+        maintenanceRequested.set(false);
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            LOG.warn("Trending questions could not be maintained", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // the previous snapshot is kept
+            LOG.warn("Trending questions could not be saved", e);
+        }
+    }
+
+    private static final class Trend {
+
+        private final String uuid;
+
+        private final AtomicLong logScore = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+        private volatile String content;
+
+        // log score the question is ranked under, NaN while it is not ranked; written under the lock of the skip list
+        private volatile double rankedLogScore = Double.NaN;
+
+        // set when the question is edited or deleted, until the next maintenance reads it again
+        private volatile boolean changed;
+
+        private Trend(final String uuid) {
+            this.uuid = uuid;
+        }
+
+        private double logScore() {
+            return Double.longBitsToDouble(logScore.get());
+        }
+
+        // log(e^score + e^increment), computed from the larger of the two so that the exponential does not overflow
+        private double add(final double logIncrement) {
+            while (true) {
+                final long bits = logScore.get();
+                final double current = Double.longBitsToDouble(bits);
+                final double max = Math.max(current, logIncrement);
+                final double updated = current == Double.NEGATIVE_INFINITY ? logIncrement
+                        : max + Math.log1p(Math.exp(Math.min(current, logIncrement) - max));
+                if (logScore.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                    return updated;
+                }
+            }
+        }
+    }
+
+    // ordered by score, highest first, then by uuid so that equal scores are distinct entries
+    private static final class Rank implements Comparable<Rank> {
+
+        private final double logScore;
+
+        private final String uuid;
+
+        private Rank(final double logScore, final String uuid) {
+            this.logScore = logScore;
+            this.uuid = uuid;
+        }
+
+        @Override
+        public int compareTo(final Rank other) {
+            final int byScore = Double.compare(other.logScore, logScore);
+            return byScore != 0 ? byScore : uuid.compareTo(other.uuid);
+        }
+    }
+}